@@ -17,8 +17,11 @@ import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Function;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 public final class Checker {
     private static int gitScore;
@@ -99,8 +102,11 @@ public final class Checker {
                 sorted(Comparator.comparingInt(Main::fileConsumer))
                 .map(File::getName)
                 .toList();
+        // The outputs are independent, so they are compared concurrently and reported in order
+        Map<String, Boolean> passed = listFile.parallelStream()
+                .collect(Collectors.toConcurrentMap(Function.identity(), Checker::checkOutput));
         for (String file : listFile) {
-            totalScore += calculateScore(file);
+            totalScore += reportScore(file, passed.get(file));
         }
 
         System.out.println("-----------------------------------------------------");
@@ -112,7 +118,15 @@ public final class Checker {
      * @return the score of that test
      */
     public static int calculateScore(final String input) {
-        if (checkOutput(input)) {
+        return reportScore(input, checkOutput(input));
+    }
+
+    /**
+     * This method prints the result of a single test
+     * @return the score of that test
+     */
+    private static int reportScore(final String input, final boolean passed) {
+        if (passed) {
             System.out.print(input + " ");
             for (int i = 1;  i <= CheckerConstants.LEN_LONGEST_TEST_NAME - input.length(); i++) {
                 System.out.print("-");
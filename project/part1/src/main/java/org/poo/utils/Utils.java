@@ -14,9 +14,24 @@ public final class Utils {
     private static final String RO_STR = "RO";
     private static final String POO_STR = "POOB";
 
+    /**
+     * The generators of the current run. A thread started during a run inherits the generators
+     * of the thread that started it, so the commands of a run can be executed on several threads,
+     * while runs on different threads (e.g. test files processed concurrently) stay independent.
+     */
+    private static final InheritableThreadLocal<Generators> GENERATORS =
+            new InheritableThreadLocal<>() {
+                @Override
+                protected Generators initialValue() {
+                    return new Generators();
+                }
+            };
 
-    private static Random ibanRandom = new Random(IBAN_SEED);
-    private static Random cardRandom = new Random(CARD_SEED);
+    private record Generators(Random ibanRandom, Random cardRandom) {
+        Generators() {
+            this(new Random(IBAN_SEED), new Random(CARD_SEED));
+        }
+    }
 
     /**
      * Utility method for generating an IBAN code.
@@ -24,6 +39,7 @@ public final class Utils {
      * @return the IBAN as String
      */
     public static String generateIBAN() {
+        Random ibanRandom = GENERATORS.get().ibanRandom();
         StringBuilder sb = new StringBuilder(RO_STR);
         for (int i = 0; i < RO_STR.length(); i++) {
             sb.append(ibanRandom.nextInt(DIGIT_BOUND));
@@ -43,6 +59,7 @@ public final class Utils {
      * @return the card number as String
      */
     public static String generateCardNumber() {
+        Random cardRandom = GENERATORS.get().cardRandom();
         StringBuilder sb = new StringBuilder();
         for (int i = 0; i < DIGIT_GENERATION; i++) {
             sb.append(cardRandom.nextInt(DIGIT_BOUND));
@@ -52,10 +69,10 @@ public final class Utils {
     }
 
     /**
-     * Resets the seeds between runs.
+     * Resets the seeds between runs. Only the current thread, and the threads it starts
+     * afterwards, are affected.
      */
     public static void resetRandom() {
-        ibanRandom = new Random(IBAN_SEED);
-        cardRandom = new Random(CARD_SEED);
+        GENERATORS.set(new Generators());
     }
 }
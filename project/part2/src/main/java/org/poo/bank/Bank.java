@@ -12,12 +12,15 @@ import org.poo.bank.eventSystem.events.TransactionEvent;
 import org.poo.bank.eventSystem.handlers.CashbackEventHandler;
 import org.poo.bank.eventSystem.handlers.FreePlanUpgradeHandler;
 import org.poo.bank.eventSystem.handlers.SplitPaymentEventHandler;
+import org.poo.bank.journal.BankJournal;
+import org.poo.bank.journal.BankSnapshot;
 import org.poo.bank.merchant.CashbackType;
 import org.poo.bank.merchant.MerchantService;
 import org.poo.bank.merchant.MerchantType;
 import org.poo.bank.operation.BankOperation;
 import org.poo.bank.operation.BankOperationContext;
 import org.poo.bank.operation.BankOperationException;
+import org.poo.bank.operation.BankOperationFootprint;
 import org.poo.bank.operation.BankOperationResult;
 import org.poo.bank.operation.impl.AddMerchant;
 import org.poo.bank.operation.impl.CreateUserAccount;
@@ -28,24 +31,88 @@ import org.poo.bank.type.Currency;
 import org.poo.bank.type.Date;
 import org.poo.bank.type.Email;
 import org.poo.bank.type.IBAN;
+import org.poo.bank.type.IdGenerator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public final class Bank {
-    private final BankEventService bankEventService = new BankEventService();
-    private final CurrencyExchangeService currencyExchangeService = new CurrencyExchangeService();
-    private final CardService cardService = new CardService();
-    private final UserService userService = new UserService();
-    private final BankAccService bankAccService = new BankAccService();
-    private final AuditLogService auditLogService = new AuditLogService();
-    private final MerchantService merchantService = new MerchantService();
-    private final SplitPaymentService splitPaymentService =
-            new SplitPaymentService(bankEventService);
-    private final BankOperationContext bankOperationContext =
-            new BankOperationContext(bankAccService,
-                    userService, cardService, auditLogService, currencyExchangeService,
-                    merchantService, splitPaymentService, bankEventService);
-
-    // Register the event handlers
-    {
+    private static final ExecutorService SNAPSHOT_WRITER =
+            Executors.newSingleThreadExecutor(Thread.ofVirtual().name("bank-snapshots").factory());
+
+    private final BankEventService bankEventService;
+    private final BankOperationContext bankOperationContext;
+    private BankJournal journal;
+
+    /**
+     * Operations share the state lock, while snapshots take it exclusively, so a snapshot never
+     * sees an operation half done.
+     */
+    private final ReadWriteLock stateLock = new ReentrantReadWriteLock();
+    private final AtomicLong recordedOperations = new AtomicLong();
+    private volatile int snapshotInterval = 0;
+    private volatile Path snapshotFile;
+
+    /**
+     * Create a bank that dispatches its events synchronously.
+     */
+    public Bank() {
+        this(new BankEventService());
+    }
+
+    /**
+     * Create a bank that dispatches its events through the given service.
+     *
+     * @param bankEventService the event service
+     */
+    public Bank(@NonNull final BankEventService bankEventService) {
+        this(bankEventService, new AuditLogService());
+    }
+
+    /**
+     * Create a bank that dispatches its events through the given service and records its audit
+     * logs in the given service.
+     *
+     * @param bankEventService the event service
+     * @param auditLogService  the audit log service
+     */
+    public Bank(@NonNull final BankEventService bankEventService,
+                @NonNull final AuditLogService auditLogService) {
+        this(bankEventService, auditLogService, new IdGenerator());
+    }
+
+    /**
+     * Create a bank that dispatches its events through the given service, records its audit
+     * logs in the given service and draws the IBANs and card numbers of its new accounts and
+     * cards from the given generator.
+     *
+     * @param bankEventService the event service
+     * @param auditLogService  the audit log service
+     * @param idGenerator      the generator of the IBANs and card numbers
+     */
+    public Bank(@NonNull final BankEventService bankEventService,
+                @NonNull final AuditLogService auditLogService,
+                @NonNull final IdGenerator idGenerator) {
+        this(new BankOperationContext(new BankAccService(idGenerator), new UserService(),
+                new CardService(idGenerator), auditLogService, new CurrencyExchangeService(),
+                new MerchantService(), new SplitPaymentService(bankEventService),
+                bankEventService));
+    }
+
+    private Bank(final BankOperationContext bankOperationContext) {
+        this.bankEventService = bankOperationContext.eventService();
+        this.bankOperationContext = bankOperationContext;
+
+        // Register the event handlers
         bankEventService.subscribe(new BankEventListener<>(SplitPaymentEvent.class,
                 new SplitPaymentEventHandler(bankOperationContext)));
 
@@ -56,6 +123,88 @@ public final class Bank {
                 new FreePlanUpgradeHandler(bankOperationContext)));
     }
 
+    /**
+     * Rebuild a bank by replaying the operations recorded in a journal. The operations processed
+     * by the returned bank are appended to the same journal.
+     *
+     * @param journal the journal
+     * @return the recovered bank
+     */
+    public static Bank recover(@NonNull final BankJournal journal) {
+        Bank bank = new Bank();
+        journal.replay(bank::processOperation);
+        bank.journal = journal;
+        return bank;
+    }
+
+    /**
+     * Rebuild a bank from its latest snapshot, replaying only the operations recorded in the
+     * journal after the snapshot was taken. If there is no snapshot yet, the whole journal is
+     * replayed. The operations processed by the returned bank are appended to the same journal.
+     *
+     * @param journal      the journal
+     * @param snapshotFile the snapshot file
+     * @return the recovered bank
+     * @throws IOException if the snapshot exists, but cannot be read
+     */
+    public static Bank recover(@NonNull final BankJournal journal,
+                               @NonNull final Path snapshotFile) throws IOException {
+        if (!Files.exists(snapshotFile)) {
+            return recover(journal);
+        }
+
+        BankSnapshot snapshot = BankSnapshot.read(snapshotFile);
+        Bank bank = new Bank(snapshot.restore(new BankEventService()));
+        journal.replay(snapshot.getJournalPosition(), bank::processOperation);
+        bank.journal = journal;
+        return bank;
+    }
+
+    /**
+     * Take a snapshot of the state of the bank. Operations are paused only while the state other
+     * than the audit logs is captured in memory. The logs are append-only, so they are serialized
+     * in the background, while the snapshot is written, and the logs recorded in the meantime are
+     * left out.
+     *
+     * @param file the snapshot file, replaced once the new snapshot is fully written
+     * @return a future completed once the snapshot was written
+     */
+    public CompletableFuture<Void> snapshot(@NonNull final Path file) {
+        BankSnapshot snapshot;
+        stateLock.writeLock().lock();
+        try {
+            bankEventService.flush();
+            snapshot = BankSnapshot.capture(bankOperationContext,
+                    journal == null ? 0 : journal.size());
+        } finally {
+            stateLock.writeLock().unlock();
+        }
+
+        return CompletableFuture.runAsync(() -> {
+            try {
+                snapshot.write(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to write the snapshot", e);
+            }
+        }, SNAPSHOT_WRITER);
+    }
+
+    /**
+     * Take a snapshot automatically every given number of operations that change the state of
+     * the bank. A snapshot that fails to be written is skipped: the journal still holds every
+     * operation, and the next snapshot replaces it.
+     *
+     * @param operations the number of operations between snapshots, or 0 to stop taking them
+     * @param file       the snapshot file
+     */
+    public void snapshotEvery(final int operations, @NonNull final Path file) {
+        if (operations < 0) {
+            throw new IllegalArgumentException("Snapshot interval must not be negative");
+        }
+        this.snapshotFile = file;
+        this.snapshotInterval = operations;
+    }
+
     /**
      * Register an exchange rate between two currencies.
      *
@@ -116,6 +265,51 @@ public final class Bank {
      * @return the result of the operation
      */
     public <T> BankOperationResult<T> processOperation(@NonNull final BankOperation<T> operation) {
+        BankOperationResult<T> result;
+        stateLock.readLock().lock();
+        try {
+            result = executeOperation(operation);
+        } finally {
+            stateLock.readLock().unlock();
+        }
+
+        int interval = snapshotInterval;
+        if (interval > 0 && !operation.isReadOnly()
+                && recordedOperations.incrementAndGet() % interval == 0) {
+            snapshot(snapshotFile);
+        }
+        return result;
+    }
+
+    /**
+     * Get the resources an operation would read and write if it was processed now. The footprint
+     * can change once other operations are processed (see {@link BankOperationFootprint}).
+     *
+     * @param operation the operation
+     * @return an {@link Optional} containing the footprint of the operation, or an
+     * {@link Optional#empty()} if the operation may touch shared state, or names a resource that
+     * does not exist
+     */
+    public Optional<BankOperationFootprint> getFootprint(
+            @NonNull final BankOperation<?> operation) {
+        stateLock.readLock().lock();
+        try {
+            return operation.getFootprint(bankOperationContext);
+        } catch (RuntimeException e) {
+            // The operation fails when processed (e.g. a BankOperationException), so it is
+            // processed on its own
+            return Optional.empty();
+        } finally {
+            stateLock.readLock().unlock();
+        }
+    }
+
+    private <T> BankOperationResult<T> executeOperation(final BankOperation<T> operation) {
+        // Record the operation before it changes the state of the bank
+        if (journal != null && !operation.isReadOnly()) {
+            journal.append(operation);
+        }
+
         try {
             return operation.execute(bankOperationContext);
         } catch (BankOperationException e) {
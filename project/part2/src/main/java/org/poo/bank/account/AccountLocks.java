@@ -0,0 +1,86 @@
+package org.poo.bank.account;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped locks guarding the balances of bank accounts.
+ * <p>
+ * Every account maps to one of a fixed number of stripes, based on the hash of its IBAN.
+ * Operations that touch several accounts take all the stripes they need at once, always in
+ * ascending stripe order, so two operations can never wait on each other in a cycle. The locks
+ * are reentrant, so a thread that holds the stripes of a multi-account operation can still go
+ * through the single-account operations of {@link BankAccService}.
+ */
+public final class AccountLocks implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private static final int DEFAULT_STRIPES = 64;
+
+    private final ReentrantLock[] stripes;
+
+    /**
+     * A set of stripes held by the current thread. Closing it releases the stripes.
+     */
+    public interface Handle extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    AccountLocks() {
+        this(DEFAULT_STRIPES);
+    }
+
+    /**
+     * Constructs the striped locks.
+     *
+     * @param stripeCount the number of stripes, rounded up to a power of two
+     */
+    AccountLocks(final int stripeCount) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("Stripe count must be positive");
+        }
+        int size = Integer.highestOneBit(stripeCount);
+        if (size < stripeCount) {
+            size <<= 1;
+        }
+
+        stripes = new ReentrantLock[size];
+        Arrays.setAll(stripes, i -> new ReentrantLock());
+    }
+
+    /**
+     * Locks the stripes of the given accounts. {@code null} accounts are ignored.
+     *
+     * @param accounts the accounts to lock
+     * @return the handle used to release the locks
+     */
+    Handle lock(final Collection<? extends BankAccount> accounts) {
+        int[] indexes = accounts.stream()
+                .filter(Objects::nonNull)
+                .mapToInt(this::stripeIndex)
+                .distinct()
+                .sorted()
+                .toArray();
+
+        for (int index : indexes) {
+            stripes[index].lock();
+        }
+
+        return () -> {
+            for (int i = indexes.length - 1; i >= 0; i--) {
+                stripes[indexes[i]].unlock();
+            }
+        };
+    }
+
+    private int stripeIndex(final BankAccount account) {
+        int hash = account.getIban().hashCode();
+        return (hash ^ (hash >>> 16)) & (stripes.length - 1);
+    }
+}
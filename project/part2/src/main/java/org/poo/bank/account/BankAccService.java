@@ -1,16 +1,47 @@
 package org.poo.bank.account;
 
+import lombok.NonNull;
 import org.poo.bank.servicePlan.ServicePlan;
 import org.poo.bank.type.Currency;
 import org.poo.bank.type.IBAN;
+import org.poo.bank.type.IdGenerator;
 
-import java.util.HashMap;
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
-public final class BankAccService {
-    private final Map<IBAN, BankAccount> ibanMapping = new HashMap<>();
-    private final Map<String, BankAccount> aliasMapping = new HashMap<>();
+/**
+ * Service managing the bank accounts.
+ * <p>
+ * The service is thread-safe: the IBAN and alias indexes are concurrent maps, and every balance
+ * change is made while holding the lock of the account (see {@link AccountLocks}). Funds are
+ * checked and removed in one step by {@link #withdrawFunds(BankAccount, double)}. Operations
+ * that must check and move money between several accounts atomically should hold the locks of
+ * all of them, using {@link #lockAccounts(BankAccount...)}.
+ */
+public final class BankAccService implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @SuppressWarnings("serial")
+    private final Map<IBAN, BankAccount> ibanMapping = new ConcurrentHashMap<>();
+    @SuppressWarnings("serial")
+    private final Map<String, BankAccount> aliasMapping = new ConcurrentHashMap<>();
+    private final AccountLocks accountLocks = new AccountLocks();
+    private final IdGenerator idGenerator;
+
+    /**
+     * Create the account service.
+     *
+     * @param idGenerator the generator of the IBANs and ids of the new accounts
+     */
+    public BankAccService(@NonNull final IdGenerator idGenerator) {
+        this.idGenerator = idGenerator;
+    }
 
     /**
      * Create a new bank account.
@@ -24,7 +55,8 @@ public final class BankAccService {
     public BankAccount createAccount(final UserAccount owner,
                                      final Currency currency,
                                      final BankAccountType type, final double interestRate) {
-        BankAccount account = BankAccount.createAccount(type, owner, currency, interestRate);
+        BankAccount account = BankAccount.createAccount(IBAN.generate(idGenerator),
+                idGenerator.nextAccountId(), type, owner, currency, interestRate);
         ibanMapping.put(account.getIban(), account);
         return account;
     }
@@ -36,8 +68,10 @@ public final class BankAccService {
      * @param alias   the alias
      */
     public void registerAlias(final BankAccount account, final String alias) {
-        aliasMapping.put(alias, account);
-        account.setAlias(alias);
+        try (AccountLocks.Handle locks = lockAccounts(account)) {
+            aliasMapping.put(alias, account);
+            account.setAlias(alias);
+        }
     }
 
     /**
@@ -71,9 +105,37 @@ public final class BankAccService {
      * if the account does not exist
      */
     public Optional<BankAccount> removeAccount(final BankAccount account) {
-        account.getOwner().removeAccount(account);
-        aliasMapping.remove(account.getAlias());
-        return Optional.ofNullable(ibanMapping.remove(account.getIban()));
+        try (AccountLocks.Handle locks = lockAccounts(account)) {
+            account.getOwner().removeAccount(account);
+            if (account.getAlias() != null) {
+                aliasMapping.remove(account.getAlias(), account);
+            }
+            return Optional.ofNullable(ibanMapping.remove(account.getIban()));
+        }
+    }
+
+    /**
+     * Lock the given accounts, so that no other thread can change their balances until the
+     * returned handle is closed. The locks are always taken in the same global order, so this is
+     * safe to use for operations involving several accounts. {@code null} accounts are ignored.
+     *
+     * @param accounts the accounts to lock
+     * @return the handle used to release the locks
+     */
+    public AccountLocks.Handle lockAccounts(final BankAccount... accounts) {
+        return accountLocks.lock(Arrays.asList(accounts));
+    }
+
+    /**
+     * Lock the given accounts, so that no other thread can change their balances until the
+     * returned handle is closed.
+     *
+     * @param accounts the accounts to lock
+     * @return the handle used to release the locks
+     * @see #lockAccounts(BankAccount...)
+     */
+    public AccountLocks.Handle lockAccounts(final Collection<? extends BankAccount> accounts) {
+        return accountLocks.lock(accounts);
     }
 
     /**
@@ -83,7 +145,9 @@ public final class BankAccService {
      * @param amount  the amount to add
      */
     public void addFunds(final BankAccount account, final double amount) {
-        account.addFunds(amount);
+        try (AccountLocks.Handle locks = lockAccounts(account)) {
+            account.addFunds(amount);
+        }
     }
 
     /**
@@ -93,7 +157,29 @@ public final class BankAccService {
      * @param amount  the amount to remove
      */
     public void removeFunds(final BankAccount account, final double amount) {
-        account.removeFunds(amount);
+        try (AccountLocks.Handle locks = lockAccounts(account)) {
+            account.removeFunds(amount);
+        }
+    }
+
+    /**
+     * Remove funds from the given account, if it has enough of them. The funds are checked and
+     * removed while holding the lock of the account, so no other operation can spend them in
+     * between.
+     *
+     * @param account the account
+     * @param amount  the amount to remove
+     * @return {@code true} if the funds were removed, {@code false} if the account does not have
+     * enough funds
+     */
+    public boolean withdrawFunds(final BankAccount account, final double amount) {
+        try (AccountLocks.Handle locks = lockAccounts(account)) {
+            if (account.getBalance() >= amount) {
+                account.removeFunds(amount);
+                return true;
+            }
+            return false;
+        }
     }
 
     /**
@@ -103,7 +189,9 @@ public final class BankAccService {
      * @param minBalance the minimum balance
      */
     public void setMinBalance(final BankAccount account, final double minBalance) {
-        account.setMinBalance(minBalance);
+        try (AccountLocks.Handle locks = lockAccounts(account)) {
+            account.setMinBalance(minBalance);
+        }
     }
 
     /**
@@ -122,7 +210,9 @@ public final class BankAccService {
      * @param account the savings account
      */
     public void collectInterest(final SavingsAccount account) {
-        account.collectInterest();
+        try (AccountLocks.Handle locks = lockAccounts(account)) {
+            account.collectInterest();
+        }
     }
 
     /**
@@ -143,7 +233,9 @@ public final class BankAccService {
      * @return {@code true} if the account can be deleted, {@code false} otherwise
      */
     public boolean canDeleteAccount(final BankAccount account) {
-        return account.getBalance() == 0;
+        try (AccountLocks.Handle locks = lockAccounts(account)) {
+            return account.getBalance() == 0;
+        }
     }
 
     /**
@@ -154,7 +246,9 @@ public final class BankAccService {
      * @return {@code true} if the account has enough funds, {@code false} otherwise
      */
     public boolean validateFunds(final BankAccount sender, final double amount) {
-        return sender.getBalance() >= amount;
+        try (AccountLocks.Handle locks = lockAccounts(sender)) {
+            return sender.getBalance() >= amount;
+        }
     }
 
     /**
@@ -196,6 +290,59 @@ public final class BankAccService {
         account.setSpendingLimit(role, spendingLimit);
     }
 
+    /**
+     * Set the spending limit over a time window for the given business account role. Each member
+     * with the role is limited to spending this amount within the window. The spending in a
+     * window is only tracked once the window has a limit. The limit is changed while holding the
+     * lock of the account, like the spending it limits.
+     *
+     * @param account       the business account
+     * @param role          the role
+     * @param window        the window
+     * @param spendingLimit the spending limit
+     */
+    public void setBusinessAccountWindowSpendingLimit(final BusinessAccount account,
+                                                      final BusinessAccountRole role,
+                                                      final SpendingWindow window,
+                                                      final double spendingLimit) {
+        try (AccountLocks.Handle locks = lockAccounts(account)) {
+            account.setWindowSpendingLimit(role, window, spendingLimit);
+        }
+    }
+
+    /**
+     * Check if a member of a business account can spend an amount without exceeding the spending
+     * limits of its role over any time window. The caller must hold the lock of the account (see
+     * {@link #lockAccounts(BankAccount...)}) until the amount is recorded with
+     * {@link #recordBusinessSpending}, so no other payment of the member can be checked in
+     * between.
+     *
+     * @param account   the business account
+     * @param member    the member
+     * @param amount    the amount to spend
+     * @param timestamp the timestamp of the payment
+     * @return {@code true} if no window limit would be exceeded, {@code false} otherwise
+     */
+    public boolean isWithinBusinessWindowLimits(final BusinessAccount account,
+                                                final UserAccount member, final double amount,
+                                                final int timestamp) {
+        return account.isWithinWindowLimits(member, amount, timestamp);
+    }
+
+    /**
+     * Record an amount spent by a member of a business account, to enforce the spending limits
+     * over time windows. The caller must hold the lock of the account.
+     *
+     * @param account   the business account
+     * @param member    the member
+     * @param amount    the amount spent
+     * @param timestamp the timestamp of the payment
+     */
+    public void recordBusinessSpending(final BusinessAccount account, final UserAccount member,
+                                       final double amount, final int timestamp) {
+        account.recordSpending(member, amount, timestamp);
+    }
+
     /**
      * Set the deposit limit for the given business account role.
      *
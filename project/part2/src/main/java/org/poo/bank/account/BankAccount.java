@@ -10,21 +10,36 @@ import org.poo.bank.card.Card;
 import org.poo.bank.type.Currency;
 import org.poo.bank.type.IBAN;
 
+import java.io.Serial;
+import java.io.Serializable;
 import java.util.LinkedHashSet;
 import java.util.Optional;
 import java.util.Set;
 
 @RequiredArgsConstructor(access = lombok.AccessLevel.PROTECTED)
 @Getter
-public abstract class BankAccount {
-    private final IBAN iban = IBAN.generate();
+public abstract class BankAccount implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final IBAN iban;
+    /**
+     * The id of the account, unique within its bank. Ids are dense, starting from 0.
+     */
+    private final int id;
     @Getter(AccessLevel.PACKAGE)
     @Setter(AccessLevel.PACKAGE)
     private String alias;
     private final Currency currency;
     private final UserAccount owner;
     @EqualsAndHashCode.Exclude
+    @SuppressWarnings("serial")
     private final Set<Card> cards = new LinkedHashSet<>();
+    /**
+     * The balance is a double, not a count of minor units. The reference outputs print the raw
+     * double results of conversions and commissions (e.g. 44.14285714285714), which rounding to
+     * minor units would change.
+     */
     @Setter(AccessLevel.PROTECTED)
     private double balance = 0.0;
     private double minBalance = 0.0;
@@ -39,6 +54,8 @@ public abstract class BankAccount {
     /**
      * Creates a new bank account
      *
+     * @param iban         the IBAN of the account
+     * @param id           the id of the account
      * @param type         the type of the account
      * @param owner        the owner of the account
      * @param currency     the currency of the account
@@ -46,14 +63,16 @@ public abstract class BankAccount {
      *                     accounts
      * @return the new bank account
      */
-    static BankAccount createAccount(@NonNull final BankAccountType type,
+    static BankAccount createAccount(@NonNull final IBAN iban,
+                                     final int id,
+                                     @NonNull final BankAccountType type,
                                      @NonNull final UserAccount owner,
                                      @NonNull final Currency currency,
                                      final double interestRate) {
         BankAccount newAccount = switch (type) {
-            case SAVINGS -> new SavingsAccount(owner, currency, interestRate);
-            case CLASSIC -> new ClassicAccount(owner, currency);
-            case BUSINESS -> new BusinessAccount(owner, currency);
+            case SAVINGS -> new SavingsAccount(iban, id, owner, currency, interestRate);
+            case CLASSIC -> new ClassicAccount(iban, id, owner, currency);
+            case BUSINESS -> new BusinessAccount(iban, id, owner, currency);
         };
 
         owner.addAccount(newAccount);
@@ -2,29 +2,91 @@ package org.poo.bank.account;
 
 import lombok.Getter;
 import org.poo.bank.type.Currency;
+import org.poo.bank.type.IBAN;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 public final class BusinessAccount extends BankAccount {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @SuppressWarnings("serial")
     private final Map<UserAccount, BusinessAccountRole> accountMembers = new LinkedHashMap<>();
-    private final Map<BusinessAccountRole, AccountRoleRestrictions> roleRestrictions = Map.of(
-            BusinessAccountRole.OWNER, new AccountRoleRestrictions(BusinessAccountRole.OWNER),
-            BusinessAccountRole.MANAGER, new AccountRoleRestrictions(BusinessAccountRole.MANAGER),
-            BusinessAccountRole.EMPLOYEE, new AccountRoleRestrictions(BusinessAccountRole.EMPLOYEE)
-    );
-
-    static class AccountRoleRestrictions {
-        private Double spendingLimit = null;
-        private Double depositLimit = null;
+    @SuppressWarnings("serial")
+    private final Map<BusinessAccountRole, AccountRoleRestrictions> roleRestrictions =
+            new EnumMap<>(BusinessAccountRole.class);
+    /**
+     * The windows with a spending limit for at least one role. The limits of a role and the
+     * spending of a member are stored in arrays indexed in the same order.
+     */
+    @SuppressWarnings("serial")
+    private final List<SpendingWindow> spendingWindows = new ArrayList<>();
+    @SuppressWarnings("serial")
+    private final Map<UserAccount, RollingSpend[]> memberSpending = new HashMap<>();
+
+    /**
+     * The restrictions of a role. The permissions are kept as a mask and the limits as plain
+     * amounts, so checking an operation against them does not allocate anything.
+     */
+    static class AccountRoleRestrictions implements Serializable {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The value of a limit that is not set
+         */
+        private static final double NO_LIMIT = Double.POSITIVE_INFINITY;
+
+        private double spendingLimit = NO_LIMIT;
+        private double depositLimit = NO_LIMIT;
+        private double[] windowLimits = new double[0];
         @Getter
-        private final List<BusinessAccountPermission> permissions;
+        private final long permissions;
 
         AccountRoleRestrictions(final BusinessAccountRole role) {
             // set the default permissions for the role
-            this.permissions = role.getPermissions();
+            this.permissions = role.getPermissionMask();
+        }
+
+        /**
+         * Check if the role has all the given permissions
+         *
+         * @param required the mask of the required permissions
+         * @return {@code true} if the role has all the permissions, {@code false} otherwise
+         */
+        boolean hasPermissions(final long required) {
+            return (permissions & required) == required;
+        }
+
+        /**
+         * Check if an amount can be spent by the role
+         *
+         * @param amount the amount
+         * @return {@code true} if the spending limit is not set or not exceeded
+         */
+        boolean isWithinSpendingLimit(final double amount) {
+            return amount <= spendingLimit;
+        }
+
+        /**
+         * Check if an amount can be deposited by the role
+         *
+         * @param amount the amount
+         * @return {@code true} if the deposit limit is not set or not exceeded
+         */
+        boolean isWithinDepositLimit(final double amount) {
+            return amount <= depositLimit;
         }
 
         /**
@@ -34,7 +96,7 @@ public final class BusinessAccount extends BankAccount {
          * {@link Optional#empty()} if the spending limit is not set
          */
         public Optional<Double> getSpendingLimit() {
-            return Optional.ofNullable(spendingLimit);
+            return toLimit(spendingLimit);
         }
 
         /**
@@ -44,14 +106,31 @@ public final class BusinessAccount extends BankAccount {
          * {@link Optional#empty()} if the deposit limit is not set
          */
         public Optional<Double> getDepositLimit() {
-            return Optional.ofNullable(depositLimit);
+            return toLimit(depositLimit);
+        }
+
+        private void setWindowLimit(final int window, final double limit) {
+            if (window >= windowLimits.length) {
+                int oldLength = windowLimits.length;
+                windowLimits = Arrays.copyOf(windowLimits, window + 1);
+                Arrays.fill(windowLimits, oldLength, windowLimits.length, NO_LIMIT);
+            }
+            windowLimits[window] = limit;
+        }
+
+        private static Optional<Double> toLimit(final double limit) {
+            return limit == NO_LIMIT ? Optional.empty() : Optional.of(limit);
         }
     }
 
 
-    public BusinessAccount(final UserAccount owner, final Currency currency) {
-        super(currency, owner);
+    public BusinessAccount(final IBAN iban, final int id, final UserAccount owner,
+                           final Currency currency) {
+        super(iban, id, currency, owner);
 
+        for (BusinessAccountRole role : BusinessAccountRole.values()) {
+            roleRestrictions.put(role, new AccountRoleRestrictions(role));
+        }
         accountMembers.put(owner, BusinessAccountRole.OWNER);
     }
 
@@ -70,6 +149,16 @@ public final class BusinessAccount extends BankAccount {
         accountMembers.put(user, role);
     }
 
+    /**
+     * Check if a user is a member of the account
+     *
+     * @param user the user in question
+     * @return {@code true} if the user is a member of the account, {@code false} otherwise
+     */
+    public boolean isMember(final UserAccount user) {
+        return accountMembers.containsKey(user);
+    }
+
     /**
      * Get the members of the account
      *
@@ -86,6 +175,82 @@ public final class BusinessAccount extends BankAccount {
         roleRestrictions.get(role).spendingLimit = spendingLimit;
     }
 
+    void setWindowSpendingLimit(final BusinessAccountRole role, final SpendingWindow window,
+                                final double spendingLimit) {
+        if (spendingLimit <= 0) {
+            throw new IllegalArgumentException("Spending limit must be positive");
+        }
+        int index = spendingWindows.indexOf(window);
+        if (index < 0) {
+            // The spending in a new window is tracked from now on
+            index = spendingWindows.size();
+            spendingWindows.add(window);
+        }
+        roleRestrictions.get(role).setWindowLimit(index, spendingLimit);
+    }
+
+    /**
+     * Record an amount spent by a member, in every window with a spending limit
+     *
+     * @param user      the member
+     * @param amount    the amount
+     * @param timestamp the timestamp of the payment
+     */
+    void recordSpending(final UserAccount user, final double amount, final int timestamp) {
+        if (spendingWindows.isEmpty()) {
+            return;
+        }
+        for (RollingSpend spend : getMemberSpending(user)) {
+            spend.add(timestamp, amount);
+        }
+    }
+
+    /**
+     * Check if an amount can be spent by a member without exceeding the spending limits of its
+     * role over any window
+     *
+     * @param user      the member
+     * @param amount    the amount
+     * @param timestamp the timestamp of the payment
+     * @return {@code true} if no window limit would be exceeded, {@code false} otherwise
+     */
+    boolean isWithinWindowLimits(final UserAccount user, final double amount,
+                                 final int timestamp) {
+        AccountRoleRestrictions restrictions = getMemberRestrictions(user);
+        if (restrictions == null) {
+            return true;
+        }
+        RollingSpend[] spending = null;
+        for (int i = 0; i < restrictions.windowLimits.length; i++) {
+            double limit = restrictions.windowLimits[i];
+            if (limit == AccountRoleRestrictions.NO_LIMIT) {
+                continue;
+            }
+            if (spending == null) {
+                spending = getMemberSpending(user);
+            }
+            if (spending[i].total(timestamp) + amount > limit) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private RollingSpend[] getMemberSpending(final UserAccount user) {
+        RollingSpend[] spending = memberSpending.get(user);
+        if (spending == null || spending.length < spendingWindows.size()) {
+            int oldLength = spending == null ? 0 : spending.length;
+            spending = spending == null
+                    ? new RollingSpend[spendingWindows.size()]
+                    : Arrays.copyOf(spending, spendingWindows.size());
+            for (int i = oldLength; i < spending.length; i++) {
+                spending[i] = new RollingSpend(spendingWindows.get(i));
+            }
+            memberSpending.put(user, spending);
+        }
+        return spending;
+    }
+
     void setDepositLimit(final BusinessAccountRole role, final double depositLimit) {
         if (depositLimit <= 0) {
             throw new IllegalArgumentException("Deposit limit must be positive");
@@ -115,8 +280,16 @@ public final class BusinessAccount extends BankAccount {
         return Optional.ofNullable(accountMembers.get(user));
     }
 
-    AccountRoleRestrictions getRoleRestrictions(final BusinessAccountRole role) {
-        return roleRestrictions.get(role);
+    /**
+     * Get the restrictions of the role of a member of the account
+     *
+     * @param user the user in question
+     * @return the restrictions of the role of the user, or {@code null} if the user is not a
+     * member of the account
+     */
+    AccountRoleRestrictions getMemberRestrictions(final UserAccount user) {
+        BusinessAccountRole role = accountMembers.get(user);
+        return role == null ? null : roleRestrictions.get(role);
     }
 
     /**
@@ -145,4 +318,26 @@ public final class BusinessAccount extends BankAccount {
     public Optional<Double> getEmployeeDepositLimit() {
         return roleRestrictions.get(BusinessAccountRole.EMPLOYEE).getDepositLimit();
     }
+
+    /**
+     * The members are hashed by their name, email and birthdate. When the account is read as
+     * part of its owner, the owner is hashed before those fields are read, so the maps keyed by
+     * members are rebuilt once the whole snapshot was read.
+     */
+    @Serial
+    private void readObject(final ObjectInputStream in)
+            throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        in.registerValidation(this::rehashMembers, 0);
+    }
+
+    private void rehashMembers() {
+        Map<UserAccount, BusinessAccountRole> members = new LinkedHashMap<>(accountMembers);
+        accountMembers.clear();
+        accountMembers.putAll(members);
+
+        Map<UserAccount, RollingSpend[]> spending = new HashMap<>(memberSpending);
+        memberSpending.clear();
+        memberSpending.putAll(spending);
+    }
 }
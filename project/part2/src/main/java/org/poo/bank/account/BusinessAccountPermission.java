@@ -1,5 +1,7 @@
 package org.poo.bank.account;
 
+import java.util.Collection;
+
 public enum BusinessAccountPermission {
     DEPOSIT,
     CARD_PAYMENT,
@@ -9,6 +11,28 @@ public enum BusinessAccountPermission {
     CARD_DELETION_DIFFERENT_OWNER,
     SET_SPENDING_LIMIT,
     SET_DEPOSIT_LIMIT,
-    SET_MINIMUM_BALANCE,
-}
+    SET_MINIMUM_BALANCE;
 
+    /**
+     * Gets the bit of the permission in a permission mask
+     *
+     * @return the mask containing only this permission
+     */
+    public long mask() {
+        return 1L << ordinal();
+    }
+
+    /**
+     * Builds the mask of the given permissions
+     *
+     * @param permissions the permissions
+     * @return the mask containing the given permissions
+     */
+    public static long maskOf(final Collection<BusinessAccountPermission> permissions) {
+        long mask = 0;
+        for (BusinessAccountPermission permission : permissions) {
+            mask |= permission.mask();
+        }
+        return mask;
+    }
+}
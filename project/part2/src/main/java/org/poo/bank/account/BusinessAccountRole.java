@@ -1,7 +1,6 @@
 package org.poo.bank.account;
 
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 
 import java.util.Arrays;
 import java.util.List;
@@ -10,7 +9,6 @@ import java.util.List;
  * Represents the roles that a user can have in a business account
  * along with the default permissions for each role
  */
-@RequiredArgsConstructor
 @Getter
 public enum BusinessAccountRole {
     OWNER(Arrays.stream(BusinessAccountPermission.values()).toList()),
@@ -27,6 +25,15 @@ public enum BusinessAccountRole {
             BusinessAccountPermission.CARD_DELETION_SAME_OWNER));
 
     private final List<BusinessAccountPermission> permissions;
+    /**
+     * The mask of the default permissions (see {@link BusinessAccountPermission#mask()})
+     */
+    private final long permissionMask;
+
+    BusinessAccountRole(final List<BusinessAccountPermission> permissions) {
+        this.permissions = permissions;
+        this.permissionMask = BusinessAccountPermission.maskOf(permissions);
+    }
 
     /**
      * Gets the business account role from a string
@@ -3,9 +3,6 @@ package org.poo.bank.account;
 
 import lombok.RequiredArgsConstructor;
 
-import java.util.HashSet;
-import java.util.List;
-
 /**
  * Represents an operation that requires permissions when performed on a business account
  */
@@ -13,9 +10,20 @@ public abstract class BusinessOperation {
     /**
      * Get the permissions required to perform this operation
      *
-     * @return a list of permissions required to perform this operation
+     * @return the mask of the permissions required to perform this operation (see
+     * {@link BusinessAccountPermission#mask()})
      */
-    protected abstract List<BusinessAccountPermission> getRequiredPermissions();
+    protected abstract long getRequiredPermissions();
+
+    /**
+     * Check if a role with the given restrictions can perform this operation
+     *
+     * @param restrictions the restrictions of the role
+     * @return {@code true} if the role has the required permissions, {@code false} otherwise
+     */
+    boolean isAllowed(final BusinessAccount.AccountRoleRestrictions restrictions) {
+        return restrictions.hasPermissions(getRequiredPermissions());
+    }
 
     /**
      * Check if the user has the required permissions to perform this operation
@@ -25,127 +33,123 @@ public abstract class BusinessOperation {
      * @return {@code true} if the user has the required permissions, {@code false} otherwise
      */
     public boolean validateUserPermission(final BusinessAccount account, final UserAccount user) {
-        return new HashSet<>(account.getRole(user)
-                .map(account::getRoleRestrictions)
-                .map(BusinessAccount.AccountRoleRestrictions::getPermissions)
-                .orElse(List.of()))
-                .containsAll(getRequiredPermissions());
+        BusinessAccount.AccountRoleRestrictions restrictions = account.getMemberRestrictions(user);
+        return restrictions != null && isAllowed(restrictions);
     }
 
     @RequiredArgsConstructor
     public static final class AddFunds extends BusinessOperation {
+        private static final long REQUIRED_PERMISSIONS = BusinessAccountPermission.DEPOSIT.mask();
+
         private final double amount;
 
         @Override
-        protected List<BusinessAccountPermission> getRequiredPermissions() {
-            return List.of(BusinessAccountPermission.DEPOSIT);
+        protected long getRequiredPermissions() {
+            return REQUIRED_PERMISSIONS;
         }
 
         @Override
-        public boolean validateUserPermission(final BusinessAccount account,
-                                              final UserAccount user) {
+        boolean isAllowed(final BusinessAccount.AccountRoleRestrictions restrictions) {
             // Check if the deposit amount is within the user's deposit limit
-            if (account.getRole(user).map(account::getRoleRestrictions)
-                    .map(BusinessAccount.AccountRoleRestrictions::getDepositLimit)
-                    .filter(limit -> amount <= limit.orElse(Double.MAX_VALUE))
-                    .isEmpty()) {
-                return false;
-            }
-
-            return super.validateUserPermission(account, user);
+            return restrictions.isWithinDepositLimit(amount) && super.isAllowed(restrictions);
         }
     }
 
     public static final class AddCard extends BusinessOperation {
+        private static final long REQUIRED_PERMISSIONS =
+                BusinessAccountPermission.CARD_CREATION.mask();
+
         @Override
-        protected List<BusinessAccountPermission> getRequiredPermissions() {
-            return List.of(BusinessAccountPermission.CARD_CREATION);
+        protected long getRequiredPermissions() {
+            return REQUIRED_PERMISSIONS;
         }
     }
 
 
     public static final class RemoveCardSameOwner extends BusinessOperation {
+        private static final long REQUIRED_PERMISSIONS =
+                BusinessAccountPermission.CARD_DELETION_SAME_OWNER.mask();
+
         @Override
-        protected List<BusinessAccountPermission> getRequiredPermissions() {
-            return List.of(BusinessAccountPermission.CARD_DELETION_SAME_OWNER);
+        protected long getRequiredPermissions() {
+            return REQUIRED_PERMISSIONS;
         }
     }
 
     public static final class RemoveCardDifferentOwner extends BusinessOperation {
+        private static final long REQUIRED_PERMISSIONS =
+                BusinessAccountPermission.CARD_DELETION_DIFFERENT_OWNER.mask();
+
         @Override
-        protected List<BusinessAccountPermission> getRequiredPermissions() {
-            return List.of(BusinessAccountPermission.CARD_DELETION_DIFFERENT_OWNER);
+        protected long getRequiredPermissions() {
+            return REQUIRED_PERMISSIONS;
         }
     }
 
     public static final class SetSpendingLimit extends BusinessOperation {
+        private static final long REQUIRED_PERMISSIONS =
+                BusinessAccountPermission.SET_SPENDING_LIMIT.mask();
+
         @Override
-        protected List<BusinessAccountPermission> getRequiredPermissions() {
-            return List.of(BusinessAccountPermission.SET_SPENDING_LIMIT);
+        protected long getRequiredPermissions() {
+            return REQUIRED_PERMISSIONS;
         }
     }
 
     public static final class SetDepositLimit extends BusinessOperation {
+        private static final long REQUIRED_PERMISSIONS =
+                BusinessAccountPermission.SET_DEPOSIT_LIMIT.mask();
+
         @Override
-        protected List<BusinessAccountPermission> getRequiredPermissions() {
-            return List.of(BusinessAccountPermission.SET_DEPOSIT_LIMIT);
+        protected long getRequiredPermissions() {
+            return REQUIRED_PERMISSIONS;
         }
     }
 
     public static final class SetMinimumBalance extends BusinessOperation {
+        private static final long REQUIRED_PERMISSIONS =
+                BusinessAccountPermission.SET_MINIMUM_BALANCE.mask();
+
         @Override
-        protected List<BusinessAccountPermission> getRequiredPermissions() {
-            return List.of(BusinessAccountPermission.SET_MINIMUM_BALANCE);
+        protected long getRequiredPermissions() {
+            return REQUIRED_PERMISSIONS;
         }
     }
 
-    private static boolean checkSpendingLimit(final BusinessAccount account, final UserAccount user,
-                                              final double amount) {
-        return account.getRole(user)
-                .map(account::getRoleRestrictions)
-                .map(BusinessAccount.AccountRoleRestrictions::getSpendingLimit)
-                .filter(limit -> amount <= limit.orElse(Double.MAX_VALUE))
-                .isPresent();
-    }
-
     @RequiredArgsConstructor
     public static final class CardPayment extends BusinessOperation {
+        private static final long REQUIRED_PERMISSIONS =
+                BusinessAccountPermission.CARD_PAYMENT.mask();
+
         private final double amount;
 
         @Override
-        protected List<BusinessAccountPermission> getRequiredPermissions() {
-            return List.of(BusinessAccountPermission.CARD_PAYMENT);
+        protected long getRequiredPermissions() {
+            return REQUIRED_PERMISSIONS;
         }
 
         @Override
-        public boolean validateUserPermission(final BusinessAccount account,
-                                              final UserAccount user) {
+        boolean isAllowed(final BusinessAccount.AccountRoleRestrictions restrictions) {
             // Check if the payment amount is within the user's spending limit
-            if (!checkSpendingLimit(account, user, amount)) {
-                return false;
-            }
-
-            return super.validateUserPermission(account, user);
+            return restrictions.isWithinSpendingLimit(amount) && super.isAllowed(restrictions);
         }
     }
 
     @RequiredArgsConstructor
     public static final class Transfer extends BusinessOperation {
+        private static final long REQUIRED_PERMISSIONS = BusinessAccountPermission.TRANSFER.mask();
+
         private final double amount;
 
         @Override
-        protected List<BusinessAccountPermission> getRequiredPermissions() {
-            return List.of(BusinessAccountPermission.TRANSFER);
+        protected long getRequiredPermissions() {
+            return REQUIRED_PERMISSIONS;
         }
 
         @Override
-        public boolean validateUserPermission(final BusinessAccount account,
-                                              final UserAccount user) {
+        boolean isAllowed(final BusinessAccount.AccountRoleRestrictions restrictions) {
             // Check if the transfer amount is within the user's spending limit
-            if (!checkSpendingLimit(account, user, amount)) {
-                return false;
-            }
-            return super.validateUserPermission(account, user);
+            return restrictions.isWithinSpendingLimit(amount) && super.isAllowed(restrictions);
         }
     }
 
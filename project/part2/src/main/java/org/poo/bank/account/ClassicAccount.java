@@ -1,10 +1,17 @@
 package org.poo.bank.account;
 
 import org.poo.bank.type.Currency;
+import org.poo.bank.type.IBAN;
+
+import java.io.Serial;
 
 public final class ClassicAccount extends BankAccount {
-    public ClassicAccount(final UserAccount owner, final Currency currency) {
-        super(currency, owner);
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public ClassicAccount(final IBAN iban, final int id, final UserAccount owner,
+                          final Currency currency) {
+        super(iban, id, currency, owner);
     }
 
     @Override
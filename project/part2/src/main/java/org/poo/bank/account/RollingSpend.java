@@ -0,0 +1,85 @@
+package org.poo.bank.account;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Amount spent by a member within a {@link SpendingWindow}, kept in a time wheel.
+ * <p>
+ * The wheel has one slot per bucket of the window. Moving forward in time clears the slots of
+ * the buckets that left the window, so adding an amount and reading the total take a constant
+ * time, regardless of how many amounts were spent. Amounts are expected in timestamp order; an
+ * amount older than the current window is not counted.
+ */
+final class RollingSpend implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private static final long NO_BUCKET = Long.MIN_VALUE;
+
+    private final int bucketWidth;
+    private final double[] slots;
+    /**
+     * The index of the newest bucket, counted from the epoch
+     */
+    private long newestBucket = NO_BUCKET;
+    private double total = 0;
+
+    RollingSpend(final SpendingWindow window) {
+        this.bucketWidth = window.bucketWidth();
+        this.slots = new double[window.buckets()];
+    }
+
+    /**
+     * Adds an amount spent at the given time.
+     *
+     * @param timestamp the timestamp of the payment
+     * @param amount    the amount
+     */
+    void add(final int timestamp, final double amount) {
+        long bucket = Math.floorDiv(timestamp, bucketWidth);
+        advance(bucket);
+        if (bucket <= newestBucket - slots.length) {
+            return;
+        }
+        slots[slot(bucket)] += amount;
+        total += amount;
+    }
+
+    /**
+     * Gets the amount spent within the window ending at the given time.
+     *
+     * @param timestamp the end of the window
+     * @return the amount spent
+     */
+    double total(final int timestamp) {
+        advance(Math.floorDiv(timestamp, bucketWidth));
+        return total;
+    }
+
+    private void advance(final long bucket) {
+        if (bucket <= newestBucket) {
+            return;
+        }
+        if (newestBucket == NO_BUCKET || bucket - newestBucket >= slots.length) {
+            Arrays.fill(slots, 0);
+        } else {
+            for (long expired = newestBucket + 1; expired <= bucket; expired++) {
+                slots[slot(expired)] = 0;
+            }
+        }
+        newestBucket = bucket;
+
+        // Sum the remaining slots again, so rounding errors do not build up in the total
+        double sum = 0;
+        for (double amount : slots) {
+            sum += amount;
+        }
+        total = sum;
+    }
+
+    private int slot(final long bucket) {
+        return Math.floorMod(bucket, slots.length);
+    }
+}
@@ -1,13 +1,19 @@
 package org.poo.bank.account;
 
 import org.poo.bank.type.Currency;
+import org.poo.bank.type.IBAN;
+
+import java.io.Serial;
 
 public final class SavingsAccount extends BankAccount {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     private double interestRate;
 
-    public SavingsAccount(final UserAccount owner, final Currency currency,
-                          final double interestRate) {
-        super(currency, owner);
+    public SavingsAccount(final IBAN iban, final int id, final UserAccount owner,
+                          final Currency currency, final double interestRate) {
+        super(iban, id, currency, owner);
         this.interestRate = interestRate;
     }
 
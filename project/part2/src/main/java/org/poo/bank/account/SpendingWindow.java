@@ -0,0 +1,93 @@
+package org.poo.bank.account;
+
+import java.io.Serializable;
+
+/**
+ * A time window over which the spending of a business account member is accumulated and
+ * limited.
+ * <p>
+ * Lengths are in the unit of the operation timestamps, which this class calls seconds. The
+ * calendar windows ({@link #DAILY} and {@link #WEEKLY}) are only a day and a week long if the
+ * timestamps are seconds since the epoch. The timestamps of the input commands are sequence
+ * numbers that grow by one with each command, so with them a daily window spans 86400 commands.
+ * Limits over command timestamps should use a {@link #sliding} window, with a length in commands.
+ * <p>
+ * The window is split into {@code buckets} buckets of equal width. With a single bucket, the
+ * window is a fixed period aligned to a multiple of its length, like a calendar day. With more
+ * buckets, it slides with the time, one bucket at a time, and covers the last {@code length}
+ * seconds with the precision of a bucket.
+ *
+ * @param length  the length of the window, in seconds
+ * @param buckets the number of buckets the window is split into
+ */
+public record SpendingWindow(int length, int buckets) implements Serializable {
+    private static final int DAY = 24 * 60 * 60;
+    private static final int WEEK = 7 * DAY;
+
+    /**
+     * Upper bound of the number of buckets, which bounds the memory used for each member.
+     */
+    public static final int MAX_BUCKETS = 1024;
+
+    /**
+     * The calendar day
+     */
+    public static final SpendingWindow DAILY = new SpendingWindow(DAY, 1);
+    /**
+     * The calendar week, starting with the day of the epoch
+     */
+    public static final SpendingWindow WEEKLY = new SpendingWindow(WEEK, 1);
+
+    /**
+     * Constructs a SpendingWindow object.
+     *
+     * @param length  the length of the window, in seconds
+     * @param buckets the number of buckets the window is split into
+     * @throws IllegalArgumentException if the length is not a positive multiple of the number of
+     *                                  buckets, or if there are too many buckets
+     */
+    public SpendingWindow {
+        if (buckets <= 0 || buckets > MAX_BUCKETS) {
+            throw new IllegalArgumentException("Invalid number of buckets: " + buckets);
+        }
+        if (length <= 0 || length % buckets != 0) {
+            throw new IllegalArgumentException(
+                    "Window length must be a positive multiple of the number of buckets");
+        }
+    }
+
+    /**
+     * Creates a sliding window.
+     *
+     * @param length  the length of the window, in seconds
+     * @param buckets the number of buckets the window is split into
+     * @return the window
+     */
+    public static SpendingWindow sliding(final int length, final int buckets) {
+        return new SpendingWindow(length, buckets);
+    }
+
+    /**
+     * Gets a calendar window from a string
+     *
+     * @param window the string to convert
+     * @return the window
+     * @throws IllegalArgumentException if the window is invalid
+     */
+    public static SpendingWindow of(final String window) {
+        return switch (window.toLowerCase()) {
+            case "daily" -> DAILY;
+            case "weekly" -> WEEKLY;
+            default -> throw new IllegalArgumentException("Invalid spending window: " + window);
+        };
+    }
+
+    /**
+     * Gets the width of a bucket
+     *
+     * @return the width of a bucket, in seconds
+     */
+    int bucketWidth() {
+        return length / buckets;
+    }
+}
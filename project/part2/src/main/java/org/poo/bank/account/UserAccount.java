@@ -9,6 +9,8 @@ import org.poo.bank.type.Email;
 import org.poo.bank.servicePlan.ServicePlan;
 import org.poo.bank.servicePlan.ServicePlanType;
 
+import java.io.Serial;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -16,7 +18,10 @@ import java.util.Optional;
 @RequiredArgsConstructor
 @AllArgsConstructor
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
-public final class UserAccount {
+public final class UserAccount implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     @Getter
     @EqualsAndHashCode.Include
     private final String firstName;
@@ -26,6 +31,7 @@ public final class UserAccount {
     @Getter
     @EqualsAndHashCode.Include
     private final Email email;
+    @SuppressWarnings("serial")
     private final List<BankAccount> accounts = new ArrayList<>();
     @Getter
     @EqualsAndHashCode.Include
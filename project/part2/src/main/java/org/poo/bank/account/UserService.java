@@ -5,13 +5,26 @@ import org.poo.bank.type.Email;
 import org.poo.bank.servicePlan.ServicePlan;
 import org.poo.bank.servicePlan.ServicePlanType;
 
-import java.util.LinkedHashMap;
+import java.io.Serial;
+import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
-public final class UserService {
-    private final Map<Email, UserAccount> users = new LinkedHashMap<>();
+public final class UserService implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @SuppressWarnings("serial")
+    private final Map<Email, UserAccount> users = new ConcurrentHashMap<>();
+    /**
+     * The users, in the order they were created. Users are created rarely and listed in
+     * creation order, so a copy-on-write list is kept next to the concurrent lookup map.
+     */
+    @SuppressWarnings("serial")
+    private final List<UserAccount> usersInOrder = new CopyOnWriteArrayList<>();
 
     /**
      * Create a new user account.
@@ -30,13 +43,12 @@ public final class UserService {
                                   Date birthDate, final String occupation,
                                   final ServicePlan servicePlan)
             throws IllegalArgumentException {
-        if (users.containsKey(email)) {
-            throw new IllegalArgumentException("User already exists");
-        }
-
         final UserAccount user =
                 new UserAccount(firstName, lastName, email, birthDate, occupation, servicePlan);
-        users.put(email, user);
+        if (users.putIfAbsent(email, user) != null) {
+            throw new IllegalArgumentException("User already exists");
+        }
+        usersInOrder.add(user);
         return user;
     }
 
@@ -57,7 +69,7 @@ public final class UserService {
      * @return the list of user accounts
      */
     public List<UserAccount> getUsers() {
-        return List.copyOf(users.values());
+        return List.copyOf(usersInOrder);
     }
 
     /**
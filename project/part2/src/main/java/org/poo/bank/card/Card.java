@@ -3,24 +3,29 @@ package org.poo.bank.card;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
-import lombok.Setter;
 import org.poo.bank.account.BankAccount;
 import org.poo.bank.account.UserAccount;
 import org.poo.bank.card.impl.DebitCard;
 import org.poo.bank.card.impl.SingleUseCard;
 import org.poo.bank.type.CardNumber;
+import org.poo.bank.type.IdGenerator;
+
+import java.io.Serial;
+import java.io.Serializable;
 
 @RequiredArgsConstructor(access = lombok.AccessLevel.PROTECTED)
 @Getter
-public abstract class Card {
+public abstract class Card implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     private static final int LOW_BALANCE_THRESHOLD = 30;
 
     @EqualsAndHashCode.Exclude
     private final BankAccount linkedAccount;
     private final UserAccount creator;
     private final CardType type;
-    @Setter(lombok.AccessLevel.PROTECTED)
-    private CardNumber number = CardNumber.generate();
+    private final CardNumber number;
     private Status status = Status.ACTIVE;
 
     public enum Status {
@@ -28,10 +33,11 @@ public abstract class Card {
     }
 
     static Card createCard(final CardType type, final BankAccount account,
-                           final UserAccount creator) {
+                           final UserAccount creator, final IdGenerator idGenerator) {
         Card card = switch (type) {
-            case DEBIT -> new DebitCard(account, creator);
-            case SINGLE_USE -> new SingleUseCard(account, creator);
+            case DEBIT -> new DebitCard(account, creator, CardNumber.generate(idGenerator));
+            case SINGLE_USE ->
+                    new SingleUseCard(account, creator, CardNumber.generate(idGenerator));
             case null -> null;
         };
         if (card != null) {
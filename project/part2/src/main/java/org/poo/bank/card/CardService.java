@@ -1,18 +1,39 @@
 package org.poo.bank.card;
 
+import lombok.NonNull;
 import org.poo.bank.account.BankAccount;
 import org.poo.bank.account.UserAccount;
 import org.poo.bank.type.CardNumber;
+import org.poo.bank.type.IdGenerator;
 
-import java.util.HashMap;
+import java.io.Serial;
+import java.io.Serializable;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class CardService implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
 
-public final class CardService {
     /**
      * Mapping between the card number and the card.
      */
-    private final Map<CardNumber, Card> cards = new HashMap<>();
+    @SuppressWarnings("serial")
+    private final Map<CardNumber, Card> cards = new ConcurrentHashMap<>();
+    /**
+     * Generator of the numbers of the new cards.
+     */
+    private final IdGenerator idGenerator;
+
+    /**
+     * Create the card service.
+     *
+     * @param idGenerator the generator of the card numbers
+     */
+    public CardService(@NonNull final IdGenerator idGenerator) {
+        this.idGenerator = idGenerator;
+    }
 
     /**
      * Create a new card.
@@ -24,7 +45,7 @@ public final class CardService {
      */
     public Card createCard(final BankAccount account, final CardType type,
                            final UserAccount creator) {
-        Card card = Card.createCard(type, account, creator);
+        Card card = Card.createCard(type, account, creator, idGenerator);
         cards.put(card.getNumber(), card);
         return card;
     }
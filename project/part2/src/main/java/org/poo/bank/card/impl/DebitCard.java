@@ -4,9 +4,16 @@ import org.poo.bank.account.BankAccount;
 import org.poo.bank.account.UserAccount;
 import org.poo.bank.card.Card;
 import org.poo.bank.card.CardType;
+import org.poo.bank.type.CardNumber;
+
+import java.io.Serial;
 
 public final class DebitCard extends Card {
-    public DebitCard(final BankAccount account, final UserAccount creator) {
-        super(account, creator, CardType.DEBIT);
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public DebitCard(final BankAccount account, final UserAccount creator,
+                     final CardNumber number) {
+        super(account, creator, CardType.DEBIT, number);
     }
 }
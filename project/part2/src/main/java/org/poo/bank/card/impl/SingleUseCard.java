@@ -4,9 +4,16 @@ import org.poo.bank.account.BankAccount;
 import org.poo.bank.account.UserAccount;
 import org.poo.bank.card.Card;
 import org.poo.bank.card.CardType;
+import org.poo.bank.type.CardNumber;
+
+import java.io.Serial;
 
 public final class SingleUseCard extends Card {
-    public SingleUseCard(final BankAccount account, final UserAccount creator) {
-        super(account, creator, CardType.SINGLE_USE);
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public SingleUseCard(final BankAccount account, final UserAccount creator,
+                         final CardNumber number) {
+        super(account, creator, CardType.SINGLE_USE, number);
     }
 }
@@ -1,22 +1,52 @@
 package org.poo.bank.currency;
 
+import lombok.Getter;
 import org.poo.bank.type.Currency;
 
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedHashSet;
-import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 
-public final class CurrencyExchangeService {
-    private record ExchangeRatePair(Currency from, Currency to) {
+public final class CurrencyExchangeService implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private record ExchangeRatePair(Currency from, Currency to) implements Serializable {
     }
 
+    @SuppressWarnings("serial")
     private final Map<Currency, Set<Currency>> conversionGraph = new HashMap<>();
+    @SuppressWarnings("serial")
     private final Map<ExchangeRatePair, Double> exchangeRates = new HashMap<>();
 
+    /**
+     * Dense index assigned to each known currency, used to address the conversion table.
+     */
+    @SuppressWarnings("serial")
+    private final Map<Currency, Integer> currencyIndex = new HashMap<>();
+    @SuppressWarnings("serial")
+    private final List<Currency> indexedCurrencies = new ArrayList<>();
+    /**
+     * All-pairs conversion table, rebuilt whenever an exchange rate changes.
+     * {@code conversionTable[from][to]} holds the rate used to convert from one currency to the
+     * other, or {@link Double#NaN} if there is no conversion path between them.
+     */
+    private double[][] conversionTable = new double[0][0];
+    /**
+     * Incremented every time an exchange rate changes, so that callers caching converted
+     * amounts can tell when their cache is stale.
+     */
+    @Getter
+    private int ratesVersion = 0;
+
     /**
      * Updates the exchange rate between two currencies.
      *
@@ -35,6 +65,11 @@ public final class CurrencyExchangeService {
         conversionGraph.computeIfAbsent(to, k -> new LinkedHashSet<>()).add(from);
         exchangeRates.put(new ExchangeRatePair(from, to), rate);
         exchangeRates.put(new ExchangeRatePair(to, from), 1 / rate);
+
+        registerCurrency(from);
+        registerCurrency(to);
+        rebuildConversionTable();
+        ratesVersion++;
     }
 
     /**
@@ -51,8 +86,7 @@ public final class CurrencyExchangeService {
      *                                  <li>the amount is negative</li>
      *                                  </ul>
      */
-    public double convert(final Currency from, final Currency to,
-                          final double amount) {
+    public double convert(final Currency from, final Currency to, final double amount) {
         if (from.equals(to)) {
             return amount;
         }
@@ -61,35 +95,72 @@ public final class CurrencyExchangeService {
             throw new IllegalArgumentException("Amount must be positive");
         }
 
-        if (!conversionGraph.containsKey(from)) {
+        return amount * getRate(from, to);
+    }
+
+    private double getRate(final Currency from, final Currency to) {
+        Integer fromIndex = currencyIndex.get(from);
+        if (fromIndex == null) {
             throw new IllegalArgumentException("Unknown currency: " + from);
         }
 
-        Set<Currency> visited = new HashSet<>();
-        Queue<Currency> queue = new LinkedList<>();
-        Queue<Double> rates = new LinkedList<>();
-        queue.add(from);
-        rates.add(1.0);
+        Integer toIndex = currencyIndex.get(to);
+        double rate = toIndex == null ? Double.NaN : conversionTable[fromIndex][toIndex];
+        if (Double.isNaN(rate)) {
+            throw new IllegalArgumentException(
+                    "No exchange rate between " + from + " and " + to);
+        }
+
+        return rate;
+    }
+
+    private void registerCurrency(final Currency currency) {
+        if (!currencyIndex.containsKey(currency)) {
+            currencyIndex.put(currency, indexedCurrencies.size());
+            indexedCurrencies.add(currency);
+        }
+    }
+
+    private void rebuildConversionTable() {
+        int size = indexedCurrencies.size();
+        double[][] table = new double[size][];
+        for (int i = 0; i < size; i++) {
+            table[i] = computeConversionRow(indexedCurrencies.get(i), size);
+        }
+        conversionTable = table;
+    }
+
+    /**
+     * Computes the conversion rates from the given currency to every other known currency.
+     * The graph is traversed breadth-first, in the order the rates were registered, so the rate
+     * chosen for each pair is the one found along the shortest conversion path.
+     *
+     * @param source the currency to convert from
+     * @param size   the number of known currencies
+     * @return the row of the conversion table for the given currency
+     */
+    private double[] computeConversionRow(final Currency source, final int size) {
+        double[] row = new double[size];
+        Arrays.fill(row, Double.NaN);
+        row[currencyIndex.get(source)] = 1.0;
+
+        Queue<Currency> queue = new ArrayDeque<>();
+        queue.add(source);
 
         while (!queue.isEmpty()) {
             Currency current = queue.poll();
-            double currentRate = rates.poll();
-            visited.add(current);
-
-            if (current.equals(to)) {
-                return amount * currentRate;
-            }
+            double currentRate = row[currencyIndex.get(current)];
 
             for (Currency next : conversionGraph.get(current)) {
-                if (!visited.contains(next)) {
+                int nextIndex = currencyIndex.get(next);
+                if (Double.isNaN(row[nextIndex])) {
+                    row[nextIndex] =
+                            currentRate * exchangeRates.get(new ExchangeRatePair(current, next));
                     queue.add(next);
-                    rates.add(currentRate * exchangeRates.get(new ExchangeRatePair(current, next)));
                 }
             }
         }
 
-        throw new IllegalArgumentException(
-                "No exchange rate between " + from + " and " + to);
+        return row;
     }
-
 }
@@ -0,0 +1,18 @@
+package org.poo.bank.eventSystem;
+
+import org.poo.bank.account.UserAccount;
+
+/**
+ * An event that concerns the accounts of a single user.
+ * When events are dispatched asynchronously, the events of the accounts of the same user are
+ * handled in the order they were posted. Their handlers may change the state the accounts of the
+ * user share, such as the service plan.
+ */
+public interface AccountEvent {
+    /**
+     * Get the owner of the account the event concerns.
+     *
+     * @return the owner of the account
+     */
+    UserAccount getAccountOwner();
+}
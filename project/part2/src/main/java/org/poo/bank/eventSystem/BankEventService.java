@@ -1,24 +1,97 @@
 package org.poo.bank.eventSystem;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import org.poo.bank.account.UserAccount;
+
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Service dispatching events to the subscribed listeners.
+ * <p>
+ * By default, events are dispatched synchronously: {@link #post(Object)} returns once every
+ * listener handled the event. An asynchronous service (see {@link #asynchronous(int, int)})
+ * instead queues the events on a fixed number of lanes, each drained by its own virtual thread:
+ * <ul>
+ *     <li>the events of the accounts of the same user ({@link AccountEvent}) always go to the
+ *     same lane, so they are handled in the order they were posted</li>
+ *     <li>the lanes are bounded, so posting blocks while the lane of the event is full</li>
+ *     <li>other events act as barriers: they are handled on the posting thread, once every
+ *     queued event was handled</li>
+ *     <li>{@link #flush()} waits until every queued event was handled, and
+ *     {@link #flush(UserAccount)} until the queued events of a user were handled</li>
+ * </ul>
+ * Events posted while handling an event are handled synchronously.
+ * <p>
+ * A listener receives the events of its event class and of all its subclasses (or implementations,
+ * for an interface). The listeners of each concrete event class are resolved once, in the order
+ * they subscribed, and cached until the next subscription change.
+ */
+public final class BankEventService implements AutoCloseable {
+    private static final Runnable STOP = () -> { };
+
+    private final List<BankEventListener<?>> eventListeners = new CopyOnWriteArrayList<>();
+    // The listeners of each concrete event class, replaced whenever the listeners change. A
+    // per-service map (unlike a ClassValue) is collected with the service and its listeners.
+    private volatile Map<Class<?>, BankEventListener<?>[]> dispatchTable =
+            new ConcurrentHashMap<>();
+    private final Lane[] lanes;
+    private final Set<Thread> laneThreads = ConcurrentHashMap.newKeySet();
+
+    private long pendingEvents = 0;
+    private RuntimeException failure;
+
+    /**
+     * Create a synchronous event service.
+     */
+    public BankEventService() {
+        this.lanes = new Lane[0];
+    }
+
+    private BankEventService(final int laneCount, final int laneCapacity) {
+        if (laneCount <= 0 || laneCapacity <= 0) {
+            throw new IllegalArgumentException("Lane count and capacity must be positive");
+        }
 
-public final class BankEventService {
-    private final Map<Class<?>, List<BankEventListener<?>>>
-            eventListeners = new HashMap<>();
+        this.lanes = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new Lane(laneCapacity);
+            Thread thread = Thread.ofVirtual().name("bank-events-", i).unstarted(lanes[i]);
+            laneThreads.add(thread);
+            thread.start();
+        }
+    }
+
+    /**
+     * Create an asynchronous event service.
+     * <p>
+     * The listeners run on the lane threads, so the effects of an event (e.g. a cashback credited
+     * to an account) are only visible to an operation once the event was handled. Read-only
+     * operations flush every event first, and card payments, transfers and cash withdrawals read
+     * the service plan of the account owner, which flushes the events of the owner, before they
+     * check the balance. Other balance checks (split payments, savings withdrawals, account
+     * deletion) do not wait, so they may not see a cashback credited by an earlier payment yet.
+     *
+     * @param laneCount    the number of lanes the events are spread on
+     * @param laneCapacity the maximum number of events queued on a lane
+     * @return the event service
+     */
+    public static BankEventService asynchronous(final int laneCount, final int laneCapacity) {
+        return new BankEventService(laneCount, laneCapacity);
+    }
 
     /**
      * Subscribe a listener to an event.
      *
      * @param listener the listener to subscribe
      */
-    public void subscribe(final BankEventListener<?> listener) {
-        Class<?> eventClass = listener.getEventClass();
-
-        eventListeners.computeIfAbsent(eventClass, k -> new ArrayList<>())
-                .add(listener);
+    public synchronized void subscribe(final BankEventListener<?> listener) {
+        eventListeners.add(listener);
+        dispatchTable = new ConcurrentHashMap<>();
     }
 
     /**
@@ -27,8 +100,101 @@ public final class BankEventService {
      * @param event the event to dispatch
      */
     public <T> void post(final T event) {
-        eventListeners.getOrDefault(event.getClass(), List.of())
-                .forEach(listener -> ((BankEventListener<T>) (listener)).handleEvent(event));
+        if (lanes.length == 0 || laneThreads.contains(Thread.currentThread())) {
+            dispatch(event);
+            return;
+        }
+
+        if (!(event instanceof AccountEvent accountEvent)) {
+            flush();
+            dispatch(event);
+            return;
+        }
+
+        Lane lane = getLane(accountEvent.getAccountOwner());
+        eventQueued();
+        lane.eventQueued();
+        try {
+            lane.queue.put(() -> dispatch(event));
+        } catch (InterruptedException e) {
+            lane.eventHandled();
+            eventHandled(null);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while posting an event", e);
+        }
+    }
+
+    private <T> void dispatch(final T event) {
+        // The table only holds listeners for supertypes of the event class, so the cast is safe.
+        // A hit is a plain lookup: the capturing method reference is only created on a miss.
+        Map<Class<?>, BankEventListener<?>[]> table = dispatchTable;
+        BankEventListener<?>[] listeners = table.get(event.getClass());
+        if (listeners == null) {
+            listeners = table.computeIfAbsent(event.getClass(), this::resolveListeners);
+        }
+        for (BankEventListener<?> listener : listeners) {
+            ((BankEventListener<? super T>) listener).handleEvent(event);
+        }
+    }
+
+    /**
+     * Wait until every queued event was handled. This does nothing for a synchronous service.
+     *
+     * @throws IllegalStateException if handling a queued event failed
+     */
+    public synchronized void flush() {
+        if (laneThreads.contains(Thread.currentThread())) {
+            return;
+        }
+
+        while (pendingEvents > 0) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for events", e);
+            }
+        }
+
+        if (failure != null) {
+            RuntimeException e = failure;
+            failure = null;
+            throw new IllegalStateException("Failed to handle an event", e);
+        }
+    }
+
+    /**
+     * Wait until every queued event of the accounts of the given user was handled, e.g. before
+     * reading state the handlers may change, such as the service plan of the user. This does
+     * nothing for a synchronous service.
+     *
+     * @param user the user
+     */
+    public void flush(final UserAccount user) {
+        if (lanes.length == 0 || laneThreads.contains(Thread.currentThread())) {
+            return;
+        }
+
+        Lane lane = getLane(user);
+        lane.awaitHandled(lane.getQueuedEvents());
+    }
+
+    private Lane getLane(final UserAccount user) {
+        int hash = user.hashCode();
+        return lanes[Math.floorMod(hash ^ (hash >>> 16), lanes.length)];
+    }
+
+    private synchronized void eventQueued() {
+        pendingEvents++;
+    }
+
+    private synchronized void eventHandled(final RuntimeException e) {
+        if (e != null && failure == null) {
+            failure = e;
+        }
+        if (--pendingEvents == 0) {
+            notifyAll();
+        }
     }
 
     /**
@@ -36,10 +202,93 @@ public final class BankEventService {
      *
      * @param listener the listener to unsubscribe
      */
-    public void unsubscribe(final BankEventListener<?> listener) {
-        List<BankEventListener<?>> listeners = eventListeners.get(listener.getEventClass());
-        if (listeners != null) {
-            listeners.remove(listener);
+    public synchronized void unsubscribe(final BankEventListener<?> listener) {
+        if (eventListeners.remove(listener)) {
+            dispatchTable = new ConcurrentHashMap<>();
+        }
+    }
+
+    /**
+     * Handle the queued events and stop the lanes.
+     */
+    @Override
+    public void close() {
+        flush();
+        for (Lane lane : lanes) {
+            lane.queue.offer(STOP);
+        }
+    }
+
+    /**
+     * Resolve the listeners of a concrete event class, in the order they subscribed.
+     */
+    private BankEventListener<?>[] resolveListeners(final Class<?> eventClass) {
+        return eventListeners.stream()
+                .filter(listener -> listener.getEventClass().isAssignableFrom(eventClass))
+                .toArray(BankEventListener<?>[]::new);
+    }
+
+    /**
+     * Queue of events drained by a single thread.
+     */
+    private final class Lane implements Runnable {
+        private final BlockingQueue<Runnable> queue;
+        private long queuedEvents = 0;
+        private long handledEvents = 0;
+
+        Lane(final int capacity) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Runnable task;
+                try {
+                    task = queue.take();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (task == STOP) {
+                    return;
+                }
+
+                RuntimeException error = null;
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    error = e;
+                }
+                eventHandled();
+                BankEventService.this.eventHandled(error);
+            }
+        }
+
+        synchronized void eventQueued() {
+            queuedEvents++;
+        }
+
+        synchronized long getQueuedEvents() {
+            return queuedEvents;
+        }
+
+        synchronized void eventHandled() {
+            handledEvents++;
+            notifyAll();
+        }
+
+        /**
+         * Wait until the given number of events were handled by the lane.
+         */
+        synchronized void awaitHandled(final long events) {
+            while (handledEvents < events) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for events", e);
+                }
+            }
         }
     }
 }
@@ -2,11 +2,13 @@ package org.poo.bank.eventSystem.events;
 
 import lombok.Getter;
 import org.poo.bank.account.BankAccount;
+import org.poo.bank.account.UserAccount;
+import org.poo.bank.eventSystem.AccountEvent;
 import org.poo.bank.merchant.Merchant;
 import org.poo.bank.type.Currency;
 
 @Getter
-public final class TransactionEvent {
+public final class TransactionEvent implements AccountEvent {
     private final BankAccount senderBankAccount;
 
     // The receiver can be either a user or a merchant
@@ -61,4 +63,15 @@ public final class TransactionEvent {
         this.currency = currency;
         this.timestamp = timestamp;
     }
+
+    /**
+     * Gets the owner of the sender account. The events of the accounts of the same owner are
+     * handled in order, since upgrading the plan of the owner affects all of them.
+     *
+     * @return the owner of the sender account
+     */
+    @Override
+    public UserAccount getAccountOwner() {
+        return senderBankAccount.getOwner();
+    }
 }
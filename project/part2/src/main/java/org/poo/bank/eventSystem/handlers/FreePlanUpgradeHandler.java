@@ -13,6 +13,11 @@ import org.poo.bank.operation.util.BankOperationUtils;
 import org.poo.bank.servicePlan.ServicePlanType;
 import org.poo.bank.log.AuditLogType;
 import org.poo.bank.type.Currency;
+import org.poo.bank.type.IBAN;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @RequiredArgsConstructor
 public final class FreePlanUpgradeHandler implements BankEventHandler<TransactionEvent> {
@@ -23,6 +28,17 @@ public final class FreePlanUpgradeHandler implements BankEventHandler<Transactio
     private static final int ELIGIBLE_TRANSACTION_AMOUNT = 300;
 
     private final BankOperationContext context;
+    private final Map<IBAN, QualificationCounter> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Number of eligible transactions found in the logs of an account. The logs of an account are
+     * append-only, so only the logs recorded since the previous check have to be inspected.
+     */
+    private static final class QualificationCounter {
+        private int scannedLogs = 0;
+        private long eligibleTransactions = 0;
+        private int ratesVersion = -1;
+    }
 
     @Override
     public void handleEvent(final TransactionEvent event) {
@@ -33,17 +49,7 @@ public final class FreePlanUpgradeHandler implements BankEventHandler<Transactio
             return;
         }
 
-        long transactionCount =
-                context.auditLogService().getLogs(senderBankAccount.getIban()).stream()
-                        .filter(log -> log.getLogStatus() == AuditLogStatus.SUCCESS)
-                        .filter(log -> log.getLogType() == AuditLogType.CARD_PAYMENT
-                                || log.getLogType() == AuditLogType.TRANSFER)
-                        .map(log -> (TransactionLog) log)
-                        .filter(log -> log.getRecipientMerchant().isPresent())
-                        .filter(log -> BankOperationUtils.convertCurrency(context,
-                                senderBankAccount.getCurrency(),
-                                Currency.of("RON"), log.getAmount()) >= ELIGIBLE_TRANSACTION_AMOUNT)
-                        .count();
+        long transactionCount = countEligibleTransactions(senderBankAccount);
 
         if (transactionCount >= SILVER_TO_GOLD_TRANSACTION_THRESHOLD) {
             context.userService()
@@ -61,4 +67,41 @@ public final class FreePlanUpgradeHandler implements BankEventHandler<Transactio
             BankOperationUtils.recordLog(context, senderBankAccount, log);
         }
     }
+
+    private long countEligibleTransactions(final BankAccount bankAccount) {
+        QualificationCounter counter =
+                counters.computeIfAbsent(bankAccount.getIban(), k -> new QualificationCounter());
+
+        // The eligibility of a transaction depends on the exchange rates, so start over if they
+        // changed since the last check
+        int ratesVersion = context.currencyExchangeService().getRatesVersion();
+        if (counter.ratesVersion != ratesVersion) {
+            counter.scannedLogs = 0;
+            counter.eligibleTransactions = 0;
+            counter.ratesVersion = ratesVersion;
+        }
+
+        List<AuditLog> logs = context.auditLogService().getLogs(bankAccount.getIban());
+        for (int i = counter.scannedLogs; i < logs.size(); i++) {
+            if (isEligibleTransaction(logs.get(i), bankAccount)) {
+                counter.eligibleTransactions++;
+            }
+        }
+        counter.scannedLogs = logs.size();
+
+        return counter.eligibleTransactions;
+    }
+
+    private boolean isEligibleTransaction(final AuditLog log, final BankAccount bankAccount) {
+        if (log.getLogStatus() != AuditLogStatus.SUCCESS
+                || (log.getLogType() != AuditLogType.CARD_PAYMENT
+                && log.getLogType() != AuditLogType.TRANSFER)) {
+            return false;
+        }
+
+        TransactionLog transactionLog = (TransactionLog) log;
+        return transactionLog.getRecipientMerchant().isPresent()
+                && BankOperationUtils.convertCurrency(context, bankAccount.getCurrency(),
+                Currency.of("RON"), transactionLog.getAmount()) >= ELIGIBLE_TRANSACTION_AMOUNT;
+    }
 }
@@ -1,6 +1,7 @@
 package org.poo.bank.eventSystem.handlers;
 
 import lombok.RequiredArgsConstructor;
+import org.poo.bank.account.AccountLocks;
 import org.poo.bank.account.BankAccount;
 import org.poo.bank.eventSystem.BankEventHandler;
 import org.poo.bank.eventSystem.events.SplitPaymentEvent;
@@ -39,30 +40,36 @@ public final class SplitPaymentEventHandler implements BankEventHandler<SplitPay
                         involvedAccounts.get(i).getCurrency(), amountPerAccount.get(i)))
                 .toList();
 
-        // Check if all accounts have enough funds
-        Optional<BankAccount> firstAccountWithInsufficientFunds =
-                IntStream.range(0, involvedAccounts.size())
-                        .filter(
-                                i -> !bankOperationContext.bankAccService()
-                                        .validateFunds(involvedAccounts.get(i),
-                                                convertedAmounts.get(i))
-                        )
-                        .mapToObj(involvedAccounts::get)
-                        .findFirst();
-
-        // If any account has insufficient funds, then add an error to the log
-        SplitPaymentLog finalLog = firstAccountWithInsufficientFunds
-                .<SplitPaymentLog>map(account -> log.toBuilder().error(String.format(
-                        "Account %s has insufficient funds for a split payment.",
-                        account.getIban())).build())
-                .orElseGet(() -> {
-                    // If all accounts have enough funds, remove the funds
+        // Hold the locks of all the involved accounts, so that either every account is charged or
+        // none of them is
+        SplitPaymentLog finalLog;
+        try (AccountLocks.Handle locks =
+                bankOperationContext.bankAccService().lockAccounts(involvedAccounts)) {
+            // Check if all accounts have enough funds
+            Optional<BankAccount> firstAccountWithInsufficientFunds =
                     IntStream.range(0, involvedAccounts.size())
-                            .forEach(i -> BankOperationUtils.removeFunds(bankOperationContext,
-                                    involvedAccounts.get(i),
-                                    convertedAmounts.get(i)));
-                    return log;
-                });
+                            .filter(
+                                    i -> !bankOperationContext.bankAccService()
+                                            .validateFunds(involvedAccounts.get(i),
+                                                    convertedAmounts.get(i))
+                            )
+                            .mapToObj(involvedAccounts::get)
+                            .findFirst();
+
+            // If any account has insufficient funds, then add an error to the log
+            finalLog = firstAccountWithInsufficientFunds
+                    .<SplitPaymentLog>map(account -> log.toBuilder().error(String.format(
+                            "Account %s has insufficient funds for a split payment.",
+                            account.getIban())).build())
+                    .orElseGet(() -> {
+                        // If all accounts have enough funds, remove the funds
+                        IntStream.range(0, involvedAccounts.size())
+                                .forEach(i -> BankOperationUtils.removeFunds(bankOperationContext,
+                                        involvedAccounts.get(i),
+                                        convertedAmounts.get(i)));
+                        return log;
+                    });
+        }
 
         involvedAccounts.forEach(account -> {
             BankOperationUtils.recordLog(bankOperationContext, account, finalLog);
@@ -0,0 +1,348 @@
+package org.poo.bank.journal;
+
+import lombok.NonNull;
+import org.poo.bank.operation.BankOperation;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead journal of the operations that change the state of a bank.
+ * <p>
+ * The state of a bank is fully determined by the operations it processed, so the bank records
+ * every operation that is not read-only before executing it, and rebuilds its state after a
+ * restart by replaying the journal (see {@link org.poo.bank.Bank#recover(BankJournal)}).
+ * <p>
+ * Each record holds the length and the CRC32 checksum of the serialized operation, followed by
+ * the operation itself. A record that was only partially written when the process died fails
+ * the checks, so it and anything after it is discarded when the journal is opened. Operations
+ * are limited to {@value #MAX_RECORD_SIZE} bytes once serialized, so a record is never too large
+ * to be read back.
+ * <p>
+ * Appends are group-committed: the thread that finds no write in progress writes (and, depending
+ * on the {@link SyncMode}, forces to disk) every record queued so far, while the other appending
+ * threads wait for it. An append therefore waits for at most the batch in progress and the batch
+ * holding its own record.
+ */
+public final class BankJournal implements AutoCloseable {
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int MAX_RECORD_SIZE = 1 << 20;
+    private static final ObjectInputFilter OPERATION_FILTER =
+            ObjectInputFilter.Config.createFilter("org.poo.bank.**;java.base/*;!*");
+
+    /**
+     * When the written records are forced to the storage device.
+     */
+    public enum SyncMode {
+        /**
+         * The records are handed to the operating system, which writes them to disk later.
+         * They survive a crash of the process, but not of the machine.
+         */
+        NONE,
+        /**
+         * Every batch of records is forced to disk before the appending threads return.
+         */
+        FSYNC
+    }
+
+    private final Path file;
+    private final FileChannel channel;
+    private final SyncMode syncMode;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition batchWritten = lock.newCondition();
+    private List<byte[]> pending = new ArrayList<>();
+    private long appended = 0;
+    private long written = 0;
+    private boolean writing = false;
+    private IOException failure;
+    private boolean closed = false;
+
+    private BankJournal(final Path file, final FileChannel channel, final SyncMode syncMode) {
+        this.file = file;
+        this.channel = channel;
+        this.syncMode = syncMode;
+    }
+
+    /**
+     * Opens a journal, creating the file if it does not exist. An incomplete record at the end
+     * of the file, left by a crash, is discarded.
+     *
+     * @param file     the journal file
+     * @param syncMode when the records are forced to disk
+     * @return the journal
+     * @throws IOException if the file cannot be opened
+     */
+    public static BankJournal open(@NonNull final Path file, @NonNull final SyncMode syncMode)
+            throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long validLength = readRecords(file, 0, record -> { });
+            channel.truncate(validLength);
+            channel.position(validLength);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new BankJournal(file, channel, syncMode);
+    }
+
+    /**
+     * Replays the operations recorded in the journal, in the order they were appended.
+     * This should be called before appending to the journal.
+     *
+     * @param consumer the consumer of the operations
+     * @return the number of replayed operations
+     * @throws UncheckedIOException if the journal cannot be read
+     */
+    public long replay(@NonNull final Consumer<BankOperation<?>> consumer) {
+        return replay(0, consumer);
+    }
+
+    /**
+     * Replays the operations recorded in the journal from the given position on, in the order
+     * they were appended. This should be called before appending to the journal.
+     *
+     * @param position the position of the first record to replay, as returned by {@link #size()}
+     * @param consumer the consumer of the operations
+     * @return the number of replayed operations
+     * @throws UncheckedIOException if the journal cannot be read
+     */
+    public long replay(final long position, @NonNull final Consumer<BankOperation<?>> consumer) {
+        long[] count = {0};
+        try {
+            if (position < 0 || position > channel.size()) {
+                throw new IllegalArgumentException("Invalid journal position: " + position);
+            }
+            readRecords(file, position, record -> {
+                consumer.accept(decode(record));
+                count[0]++;
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to replay the journal", e);
+        }
+        return count[0];
+    }
+
+    /**
+     * Get the size of the journal, which is also the position the next record is written at.
+     * The size only covers the appends that already returned.
+     *
+     * @return the size of the journal, in bytes
+     * @throws UncheckedIOException if the size cannot be read
+     */
+    public long size() {
+        try {
+            return channel.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read the journal size", e);
+        }
+    }
+
+    /**
+     * Appends an operation to the journal. The method returns once the operation was written
+     * (and forced to disk, if the journal is synced).
+     *
+     * @param operation the operation
+     * @throws UncheckedIOException     if the journal cannot be written
+     * @throws IllegalArgumentException if the serialized operation is larger than
+     *                                  {@value #MAX_RECORD_SIZE} bytes
+     * @throws IllegalStateException    if the journal is closed
+     */
+    public void append(@NonNull final BankOperation<?> operation) {
+        byte[] record = encode(operation);
+
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Journal is closed");
+            }
+            pending.add(record);
+            long sequence = ++appended;
+
+            while (written < sequence) {
+                checkFailure();
+                if (writing) {
+                    batchWritten.awaitUninterruptibly();
+                } else {
+                    writePendingBatch();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the records queued so far. Called with the lock held, which is released while
+     * writing, so more records can be queued for the next batch.
+     */
+    private void writePendingBatch() {
+        List<byte[]> batch = pending;
+        long batchEnd = appended;
+        pending = new ArrayList<>();
+        writing = true;
+
+        lock.unlock();
+        IOException error = null;
+        try {
+            writeRecords(batch);
+        } catch (IOException e) {
+            error = e;
+        } finally {
+            lock.lock();
+        }
+
+        writing = false;
+        if (error == null) {
+            written = batchEnd;
+        } else {
+            failure = error;
+        }
+        batchWritten.signalAll();
+    }
+
+    private void checkFailure() {
+        if (failure != null) {
+            throw new UncheckedIOException("Failed to write the journal", failure);
+        }
+    }
+
+    private void writeRecords(final List<byte[]> records) throws IOException {
+        int size = records.stream().mapToInt(record -> HEADER_SIZE + record.length).sum();
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        for (byte[] record : records) {
+            CRC32 crc = new CRC32();
+            crc.update(record);
+            buffer.putInt(record.length).putInt((int) crc.getValue()).put(record);
+        }
+        buffer.flip();
+
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        if (syncMode == SyncMode.FSYNC) {
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Reads the valid records of the journal file, starting at the given position.
+     *
+     * @return the end of the valid part of the file
+     */
+    private static long readRecords(final Path file, final long position,
+                                    final Consumer<byte[]> consumer) throws IOException {
+        long fileSize = Files.size(file);
+        long validLength = position;
+        try (InputStream stream = Files.newInputStream(file);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(stream))) {
+            in.skipNBytes(position);
+            while (true) {
+                byte[] record;
+                int checksum;
+                try {
+                    int length = in.readInt();
+                    checksum = in.readInt();
+                    if (length < 0 || length > fileSize - validLength - HEADER_SIZE) {
+                        // Incomplete record
+                        break;
+                    }
+                    if (length > MAX_RECORD_SIZE) {
+                        // A complete record that no append could have written; discarding it
+                        // would also discard every record after it
+                        throw new IOException(String.format(
+                                "Journal record at position %d has %d bytes, more than the "
+                                        + "maximum of %d", validLength, length, MAX_RECORD_SIZE));
+                    }
+                    record = new byte[length];
+                    in.readFully(record);
+                } catch (EOFException e) {
+                    break;
+                }
+
+                CRC32 crc = new CRC32();
+                crc.update(record);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+
+                consumer.accept(record);
+                validLength += HEADER_SIZE + record.length;
+            }
+        }
+        return validLength;
+    }
+
+    private static byte[] encode(final BankOperation<?> operation) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(operation);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to serialize the operation", e);
+        }
+        if (bytes.size() > MAX_RECORD_SIZE) {
+            throw new IllegalArgumentException(String.format(
+                    "Serialized operation has %d bytes, more than the maximum of %d",
+                    bytes.size(), MAX_RECORD_SIZE));
+        }
+        return bytes.toByteArray();
+    }
+
+    private static BankOperation<?> decode(final byte[] record) {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(record))) {
+            in.setObjectInputFilter(OPERATION_FILTER);
+            return (BankOperation<?>) in.readObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to deserialize an operation", e);
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IllegalStateException("Invalid journal record", e);
+        }
+    }
+
+    /**
+     * Waits for the pending appends and closes the journal file. The records queued but not
+     * written yet are written before the file is closed, so the appends waiting for them return
+     * normally. Appends made after the journal is closed fail.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            closed = true;
+            while (failure == null && (writing || written < appended)) {
+                if (writing) {
+                    batchWritten.awaitUninterruptibly();
+                } else {
+                    writePendingBatch();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        channel.close();
+    }
+}
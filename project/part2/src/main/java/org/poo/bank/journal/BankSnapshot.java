@@ -0,0 +1,259 @@
+package org.poo.bank.journal;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.poo.bank.account.BankAccService;
+import org.poo.bank.account.UserService;
+import org.poo.bank.card.CardService;
+import org.poo.bank.currency.CurrencyExchangeService;
+import org.poo.bank.eventSystem.BankEventService;
+import org.poo.bank.log.AuditLogService;
+import org.poo.bank.merchant.MerchantService;
+import org.poo.bank.operation.BankOperationContext;
+import org.poo.bank.splitPayment.SplitPaymentService;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serial;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Binary image of the state of a bank, taken at a known position of its {@link BankJournal}.
+ * <p>
+ * Restoring a snapshot and replaying the journal from its position gives the same state as
+ * replaying the whole journal, without re-executing every operation since the bank was created
+ * (see {@link org.poo.bank.Bank#recover(BankJournal, Path)}).
+ * <p>
+ * Capturing a snapshot serializes in memory only the state that operations change in place
+ * (accounts, cards, users, merchants, ...), so the bank has to be paused just for that long. The
+ * audit logs are append-only, so capturing only records how many logs each account has (see
+ * {@link AuditLogService#captureLogs()}). The logs are serialized after the rest of the state, in
+ * the same stream, while {@link #write(Path)} compresses the snapshot to the file. The file is
+ * first written under a temporary name and then renamed, so a crash while writing leaves the
+ * previous snapshot in place.
+ * <p>
+ * The compressed data is checked by the CRC32 and the size stored by the GZIP format.
+ */
+public final class BankSnapshot {
+    private static final int MAGIC = 0x424E4B53;
+    private static final int VERSION = 2;
+    private static final ObjectInputFilter STATE_FILTER =
+            ObjectInputFilter.Config.createFilter("org.poo.bank.**;java.base/*;!*");
+
+    /**
+     * The position of the journal the snapshot was taken at. Only the operations recorded from
+     * this position on have to be replayed after restoring the snapshot.
+     */
+    @Getter
+    private final long journalPosition;
+    /**
+     * The serialized state. For a captured snapshot, this only holds the services; the logs are
+     * serialized after them, by the pending stream, when the snapshot is written.
+     */
+    private final byte[] state;
+    private PendingLogs pendingLogs;
+
+    /**
+     * The services holding the state of the bank, except the audit logs. The event service is not
+     * included, since it only holds the listeners, which are registered again by the restored
+     * bank.
+     */
+    private record State(BankAccService bankAccService,
+                         UserService userService,
+                         CardService cardService,
+                         CurrencyExchangeService currencyExchangeService,
+                         MerchantService merchantService,
+                         SplitPaymentService splitPaymentService) implements Serializable {
+        @Serial
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * The logs of a captured snapshot, and the stream that serialized the rest of its state.
+     * Serializing the logs through the same stream refers to the accounts, users and merchants
+     * already written instead of copying them.
+     */
+    private record PendingLogs(ObjectOutputStream out, RedirectableOutputStream sink,
+                               AuditLogService.LogImage logs) {
+    }
+
+    private BankSnapshot(final long journalPosition, final byte[] state,
+                         final PendingLogs pendingLogs) {
+        this.journalPosition = journalPosition;
+        this.state = state;
+        this.pendingLogs = pendingLogs;
+    }
+
+    /**
+     * Capture the state of a bank. No operation may be processed while the state is captured.
+     * Operations may be processed again once this returns, even before the snapshot is written.
+     *
+     * @param context         the context holding the state of the bank
+     * @param journalPosition the position of the journal after the last processed operation
+     * @return the snapshot
+     * @throws UncheckedIOException if the state cannot be serialized
+     */
+    public static BankSnapshot capture(@NonNull final BankOperationContext context,
+                                       final long journalPosition) {
+        State state = new State(context.bankAccService(), context.userService(),
+                context.cardService(), context.currencyExchangeService(),
+                context.merchantService(), context.splitPaymentService());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        RedirectableOutputStream sink = new RedirectableOutputStream(bytes);
+        try {
+            ObjectOutputStream out = new ObjectOutputStream(sink);
+            out.writeObject(state);
+            out.flush();
+            return new BankSnapshot(journalPosition, bytes.toByteArray(),
+                    new PendingLogs(out, sink, context.auditLogService().captureLogs()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to serialize the bank state", e);
+        }
+    }
+
+    /**
+     * Write the snapshot to a file, replacing the previous snapshot, if any.
+     * The method returns once the file was forced to disk. The logs of a captured snapshot are
+     * serialized while it is written, so it can only be written once.
+     *
+     * @param file the snapshot file
+     * @throws IOException           if the file cannot be written
+     * @throws IllegalStateException if the snapshot was read from a file or was already written
+     */
+    public synchronized void write(@NonNull final Path file) throws IOException {
+        if (pendingLogs == null) {
+            throw new IllegalStateException("The snapshot cannot be written again");
+        }
+        PendingLogs pending = pendingLogs;
+        pendingLogs = null;
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            // The channel must stay open after the streams are closed, so it can be forced
+            OutputStream stream = new BufferedOutputStream(Channels.newOutputStream(channel));
+            DataOutputStream out = new DataOutputStream(stream);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(journalPosition);
+
+            GZIPOutputStream gzip = new GZIPOutputStream(out);
+            gzip.write(state);
+            pending.sink().redirect(gzip);
+            pending.out().writeObject(pending.logs());
+            pending.out().flush();
+            gzip.finish();
+            out.flush();
+            channel.force(true);
+        }
+
+        Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Read a snapshot from a file.
+     *
+     * @param file the snapshot file
+     * @return the snapshot
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    public static BankSnapshot read(@NonNull final Path file) throws IOException {
+        try (InputStream stream = Files.newInputStream(file);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(stream))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a bank snapshot: " + file);
+            }
+            long journalPosition = in.readLong();
+            if (journalPosition < 0) {
+                throw new IOException("Corrupted bank snapshot: " + file);
+            }
+
+            // Reading to the end checks the CRC32 and the size of the compressed data
+            byte[] state = new GZIPInputStream(in).readAllBytes();
+            return new BankSnapshot(journalPosition, state, null);
+        }
+    }
+
+    /**
+     * Rebuild the state of the bank. Every call returns a new, independent copy of the state.
+     *
+     * @param eventService the event service of the restored bank
+     * @return the context holding the restored state
+     * @throws IllegalStateException if the snapshot was not read from a file, or if the state
+     *                               cannot be deserialized
+     */
+    public synchronized BankOperationContext restore(
+            @NonNull final BankEventService eventService) {
+        if (pendingLogs != null) {
+            throw new IllegalStateException("The snapshot must be written before restoring it");
+        }
+
+        State restored;
+        AuditLogService.LogImage logs;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(state))) {
+            in.setObjectInputFilter(STATE_FILTER);
+            restored = (State) in.readObject();
+            logs = (AuditLogService.LogImage) in.readObject();
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            throw new IllegalStateException("Failed to deserialize the bank state", e);
+        }
+
+        restored.splitPaymentService().setEventService(eventService);
+        return new BankOperationContext(restored.bankAccService(), restored.userService(),
+                restored.cardService(), logs.restore(),
+                restored.currencyExchangeService(), restored.merchantService(),
+                restored.splitPaymentService(), eventService);
+    }
+
+    /**
+     * Output stream forwarding to a target that can be replaced, so an object stream can write to
+     * memory first and then go on to a file.
+     */
+    private static final class RedirectableOutputStream extends OutputStream {
+        private OutputStream target;
+
+        RedirectableOutputStream(final OutputStream target) {
+            this.target = target;
+        }
+
+        void redirect(final OutputStream newTarget) {
+            this.target = newTarget;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            target.write(b);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            target.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            target.flush();
+        }
+    }
+}
@@ -5,9 +5,15 @@ import lombok.NonNull;
 import lombok.experimental.SuperBuilder;
 import org.poo.bank.log.view.AuditLogView;
 
+import java.io.Serial;
+import java.io.Serializable;
+
 @SuperBuilder(toBuilder = true)
 @Getter
-public class AuditLog {
+public class AuditLog implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     @NonNull
     private final Integer timestamp;
     @NonNull
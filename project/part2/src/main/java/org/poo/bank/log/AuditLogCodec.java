@@ -0,0 +1,336 @@
+package org.poo.bank.log;
+
+import org.poo.bank.account.BankAccount;
+import org.poo.bank.account.UserAccount;
+import org.poo.bank.log.impl.CardOpLog;
+import org.poo.bank.log.impl.CardPaymentLog;
+import org.poo.bank.log.impl.CashWithdrawLog;
+import org.poo.bank.log.impl.DepositLog;
+import org.poo.bank.log.impl.InterestClaimLog;
+import org.poo.bank.log.impl.SavingsWithdrawLog;
+import org.poo.bank.log.impl.SplitPaymentLog;
+import org.poo.bank.log.impl.TransferLog;
+import org.poo.bank.log.impl.UpgradePlanLog;
+import org.poo.bank.merchant.Merchant;
+import org.poo.bank.servicePlan.ServicePlanType;
+import org.poo.bank.splitPayment.SplitPaymentType;
+import org.poo.bank.type.CardNumber;
+import org.poo.bank.type.Currency;
+import org.poo.bank.type.Email;
+import org.poo.bank.type.IBAN;
+import org.poo.bank.type.Location;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Binary encoding of the audit logs.
+ * <p>
+ * A record starts with a tag identifying the log class, followed by the fields of the base log
+ * and then by the fields of the log class. Enums are stored as their ordinal and amounts as
+ * doubles. Value types (IBANs, card numbers, emails, currencies and locations) are stored inline,
+ * as their text, and decoded into equal new instances. Their number grows with the logs (e.g. a
+ * new card number for every one-time card payment), so they are not kept on the heap.
+ * <p>
+ * The accounts, users and merchants a log refers to are stored as integer ids in a symbol table,
+ * since decoding a record has to return the same instances the log was built with. They are on
+ * the heap anyway, so the table only adds a reference to each of them, but it keeps the deleted
+ * accounts that some log refers to.
+ */
+final class AuditLogCodec {
+    private static final byte BASE = 0;
+    private static final byte CARD_OP = 1;
+    private static final byte CARD_PAYMENT = 2;
+    private static final byte CASH_WITHDRAW = 3;
+    private static final byte DEPOSIT = 4;
+    private static final byte INTEREST_CLAIM = 5;
+    private static final byte SAVINGS_WITHDRAW = 6;
+    private static final byte SPLIT_PAYMENT = 7;
+    private static final byte TRANSFER = 8;
+    private static final byte UPGRADE_PLAN = 9;
+
+    private static final int NULL = -1;
+
+    private static final AuditLogType[] LOG_TYPES = AuditLogType.values();
+    private static final AuditLogStatus[] LOG_STATUSES = AuditLogStatus.values();
+    private static final TransferLog.TransferType[] TRANSFER_TYPES =
+            TransferLog.TransferType.values();
+    private static final SplitPaymentType[] SPLIT_PAYMENT_TYPES = SplitPaymentType.values();
+    private static final ServicePlanType[] PLAN_TYPES = ServicePlanType.values();
+
+    private final Map<Object, Integer> symbolIds = new IdentityHashMap<>();
+    private final List<Object> symbols = new ArrayList<>();
+
+    /**
+     * Encodes a log.
+     *
+     * @param log the log to encode
+     * @return the encoded record
+     * @throws IllegalArgumentException if the log class is not supported
+     */
+    byte[] encode(final AuditLog log) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(tagOf(log));
+            out.writeInt(log.getTimestamp());
+            out.writeByte(log.getLogType().ordinal());
+            out.writeByte(log.getLogStatus().ordinal());
+            writeString(out, log.getDescription());
+            writeString(out, log.getError());
+            writeFields(out, log);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode the log", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte tagOf(final AuditLog log) {
+        return switch (log) {
+            case CardOpLog l -> CARD_OP;
+            case CardPaymentLog l -> CARD_PAYMENT;
+            case CashWithdrawLog l -> CASH_WITHDRAW;
+            case DepositLog l -> DEPOSIT;
+            case InterestClaimLog l -> INTEREST_CLAIM;
+            case SavingsWithdrawLog l -> SAVINGS_WITHDRAW;
+            case SplitPaymentLog l -> SPLIT_PAYMENT;
+            case TransferLog l -> TRANSFER;
+            case UpgradePlanLog l -> UPGRADE_PLAN;
+            default -> {
+                if (log.getClass() != AuditLog.class) {
+                    throw new IllegalArgumentException("Unsupported log: " + log.getClass());
+                }
+                yield BASE;
+            }
+        };
+    }
+
+    private void writeFields(final DataOutputStream out, final AuditLog log) throws IOException {
+        switch (log) {
+            case CardOpLog l -> {
+                writeValue(out, l.getCard());
+                writeValue(out, l.getCardHolder());
+                writeValue(out, l.getAccount());
+            }
+            case CardPaymentLog l -> {
+                out.writeDouble(l.getAmount());
+                out.writeInt(symbolId(l.getMerchant()));
+                out.writeInt(symbolId(l.getUserAccount()));
+            }
+            case CashWithdrawLog l -> {
+                out.writeDouble(l.getAmount());
+                writeValue(out, l.getLocation());
+            }
+            case DepositLog l -> {
+                out.writeDouble(l.getAmount());
+                out.writeInt(symbolId(l.getBankAccount()));
+                out.writeInt(symbolId(l.getUserAccount()));
+            }
+            case InterestClaimLog l -> {
+                out.writeDouble(l.getAmount());
+                writeValue(out, l.getCurrency());
+            }
+            case SavingsWithdrawLog l -> {
+                out.writeDouble(l.getAmount());
+                writeValue(out, l.getSavingsAccountIBAN());
+                writeValue(out, l.getClassicAccountIBAN());
+            }
+            case SplitPaymentLog l -> {
+                writeValue(out, l.getCurrency());
+                writeAmount(out, l.getAmount());
+                writeAmountList(out, l.getAmountPerAccount());
+                out.writeInt(l.getInvolvedAccounts().size());
+                for (IBAN iban : l.getInvolvedAccounts()) {
+                    writeValue(out, iban);
+                }
+                out.writeByte(l.getType().ordinal());
+            }
+            case TransferLog l -> {
+                writeValue(out, l.getSenderIBAN());
+                out.writeInt(symbolId(l.getInitiatingUser()));
+                writeValue(out, l.getReceiverIBAN());
+                out.writeDouble(l.getAmount());
+                writeValue(out, l.getCurrency());
+                out.writeByte(l.getTransferType().ordinal());
+                out.writeInt(symbolId(l.getMerchant()));
+            }
+            case UpgradePlanLog l -> {
+                writeValue(out, l.getAccountIBAN());
+                out.writeByte(l.getNewPlanType().ordinal());
+            }
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Decodes a record.
+     *
+     * @param in the record, positioned at its start
+     * @return the decoded log
+     */
+    AuditLog decode(final ByteBuffer in) {
+        byte tag = in.get();
+        int timestamp = in.getInt();
+        AuditLogType logType = LOG_TYPES[in.get()];
+        AuditLogStatus logStatus = LOG_STATUSES[in.get()];
+        String description = readString(in);
+        String error = readString(in);
+
+        AuditLog.AuditLogBuilder<?, ?> builder = switch (tag) {
+            case BASE -> AuditLog.builder();
+            case CARD_OP -> CardOpLog.builder()
+                    .card(readValue(in, CardNumber::of))
+                    .cardHolder(readValue(in, Email::of))
+                    .account(readValue(in, IBAN::of));
+            case CARD_PAYMENT -> CardPaymentLog.builder()
+                    .amount(in.getDouble())
+                    .merchant(symbol(in.getInt(), Merchant.class))
+                    .userAccount(symbol(in.getInt(), UserAccount.class));
+            case CASH_WITHDRAW -> CashWithdrawLog.builder()
+                    .amount(in.getDouble())
+                    .location(readValue(in, Location::of));
+            case DEPOSIT -> DepositLog.builder()
+                    .amount(in.getDouble())
+                    .bankAccount(symbol(in.getInt(), BankAccount.class))
+                    .userAccount(symbol(in.getInt(), UserAccount.class));
+            case INTEREST_CLAIM -> InterestClaimLog.builder()
+                    .amount(in.getDouble())
+                    .currency(readValue(in, Currency::of));
+            case SAVINGS_WITHDRAW -> SavingsWithdrawLog.builder()
+                    .amount(in.getDouble())
+                    .savingsAccountIBAN(readValue(in, IBAN::of))
+                    .classicAccountIBAN(readValue(in, IBAN::of));
+            case SPLIT_PAYMENT -> decodeSplitPayment(in);
+            case TRANSFER -> TransferLog.builder()
+                    .senderIBAN(readValue(in, IBAN::of))
+                    .initiatingUser(symbol(in.getInt(), UserAccount.class))
+                    .receiverIBAN(readValue(in, IBAN::of))
+                    .amount(in.getDouble())
+                    .currency(readValue(in, Currency::of))
+                    .transferType(TRANSFER_TYPES[in.get()])
+                    .merchant(symbol(in.getInt(), Merchant.class));
+            case UPGRADE_PLAN -> UpgradePlanLog.builder()
+                    .accountIBAN(readValue(in, IBAN::of))
+                    .newPlanType(PLAN_TYPES[in.get()]);
+            default -> throw new IllegalStateException("Invalid log record tag: " + tag);
+        };
+        return builder
+                .timestamp(timestamp)
+                .logType(logType)
+                .logStatus(logStatus)
+                .description(description)
+                .error(error)
+                .build();
+    }
+
+    private AuditLog.AuditLogBuilder<?, ?> decodeSplitPayment(final ByteBuffer in) {
+        Currency currency = readValue(in, Currency::of);
+        Double amount = readAmount(in);
+        List<Double> amountPerAccount = readAmountList(in);
+        int accountCount = in.getInt();
+        List<IBAN> involvedAccounts = new ArrayList<>(accountCount);
+        for (int i = 0; i < accountCount; i++) {
+            involvedAccounts.add(readValue(in, IBAN::of));
+        }
+
+        return SplitPaymentLog.builder()
+                .currency(currency)
+                .amount(amount)
+                .amountPerAccount(amountPerAccount)
+                .involvedAccounts(involvedAccounts)
+                .type(SPLIT_PAYMENT_TYPES[in.get()]);
+    }
+
+    /**
+     * Gets the id of a value in the symbol table, adding the value if it is not there yet.
+     */
+    private synchronized int symbolId(final Object value) {
+        if (value == null) {
+            return NULL;
+        }
+        return symbolIds.computeIfAbsent(value, k -> {
+            symbols.add(value);
+            return symbols.size() - 1;
+        });
+    }
+
+    private synchronized <T> T symbol(final int id, final Class<T> type) {
+        return id == NULL ? null : type.cast(symbols.get(id));
+    }
+
+    private static void writeString(final DataOutputStream out, final String value)
+            throws IOException {
+        if (value == null) {
+            out.writeInt(NULL);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(final ByteBuffer in) {
+        int length = in.getInt();
+        if (length == NULL) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeValue(final DataOutputStream out, final Object value)
+            throws IOException {
+        writeString(out, value == null ? null : value.toString());
+    }
+
+    private static <T> T readValue(final ByteBuffer in, final Function<String, T> factory) {
+        String text = readString(in);
+        return text == null ? null : factory.apply(text);
+    }
+
+    private static void writeAmount(final DataOutputStream out, final Double value)
+            throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeDouble(value);
+        }
+    }
+
+    private static Double readAmount(final ByteBuffer in) {
+        return in.get() == 0 ? null : in.getDouble();
+    }
+
+    private static void writeAmountList(final DataOutputStream out, final List<Double> values)
+            throws IOException {
+        if (values == null) {
+            out.writeInt(NULL);
+            return;
+        }
+        out.writeInt(values.size());
+        for (double value : values) {
+            out.writeDouble(value);
+        }
+    }
+
+    private static List<Double> readAmountList(final ByteBuffer in) {
+        int size = in.getInt();
+        if (size == NULL) {
+            return null;
+        }
+        List<Double> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(in.getDouble());
+        }
+        return values;
+    }
+}
@@ -0,0 +1,414 @@
+package org.poo.bank.log;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * Append-only storage for the audit logs of a single account.
+ * <p>
+ * Logs are normally appended in timestamp order, but some of them (e.g. split payments, which are
+ * logged with the timestamp of the request when the last user accepts) may arrive late, with a
+ * timestamp lower than one already appended. The segment keeps:
+ * <ul>
+ *     <li>the logs, in the order they were appended</li>
+ *     <li>a search key per log: its timestamp or, for a late log, the greatest timestamp appended
+ *     before it. The keys never decrease, so time range queries binary-search both ends of the
+ *     range instead of scanning the whole history.</li>
+ *     <li>the late logs, with their timestamps, in a small overflow sorted by timestamp, where
+ *     each late log is inserted at its sorted position</li>
+ * </ul>
+ * A range query takes the logs whose key is within the range, skipping the late ones, and merges
+ * them with the late logs found in the overflow, so the results are always the same as filtering
+ * the logs in insertion order.
+ * <p>
+ * Entries are never overwritten or removed, so the views returned by this class are snapshots:
+ * they capture the number of entries published when they are created and are not affected by
+ * later appends, even if the backing arrays have to grow. Appends and queries are synchronized,
+ * so logs can be recorded from one thread (e.g. an event handler) while they are read from
+ * another one.
+ * <p>
+ * When the segment is backed by a {@link MappedLogStore}, it keeps only the positions of its logs
+ * in the store, and the views decode a log each time it is accessed.
+ */
+final class AuditLogSegment {
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The store the logs are kept in, or {@code null} to keep them on the heap.
+     */
+    private final MappedLogStore store;
+    private AuditLog[] entries;
+    private long[] positions;
+    // The search keys of the logs, which never decrease
+    private int[] keys = new int[INITIAL_CAPACITY];
+    private int size = 0;
+
+    // The late logs, sorted by timestamp and then by index
+    private final BitSet late = new BitSet();
+    private int[] lateIndices = new int[0];
+    private int[] lateTimestamps = new int[0];
+    private int lateCount = 0;
+
+    /**
+     * Constructs a segment.
+     *
+     * @param store the store the logs are kept in, or {@code null} to keep them on the heap
+     */
+    AuditLogSegment(final MappedLogStore store) {
+        this.store = store;
+        if (store == null) {
+            entries = new AuditLog[INITIAL_CAPACITY];
+        } else {
+            positions = new long[INITIAL_CAPACITY];
+        }
+    }
+
+    /**
+     * Appends a log to the segment.
+     *
+     * @param log the log to append
+     */
+    synchronized void append(final AuditLog log) {
+        if (size == keys.length) {
+            if (store == null) {
+                entries = Arrays.copyOf(entries, size * 2);
+            } else {
+                positions = Arrays.copyOf(positions, size * 2);
+            }
+            keys = Arrays.copyOf(keys, size * 2);
+        }
+
+        int timestamp = log.getTimestamp();
+        if (store == null) {
+            entries[size] = log;
+        } else {
+            positions[size] = store.append(log);
+        }
+
+        if (size > 0 && timestamp < keys[size - 1]) {
+            keys[size] = keys[size - 1];
+            addLate(size, timestamp);
+        } else {
+            keys[size] = timestamp;
+        }
+        size++;
+    }
+
+    /**
+     * Inserts a late log in the overflow, after the late logs with the same timestamp.
+     */
+    private void addLate(final int index, final int timestamp) {
+        if (lateCount == lateIndices.length) {
+            int capacity = Math.max(INITIAL_CAPACITY, lateCount * 2);
+            lateIndices = Arrays.copyOf(lateIndices, capacity);
+            lateTimestamps = Arrays.copyOf(lateTimestamps, capacity);
+        }
+
+        int position = lateLowerBound(timestamp + 1);
+        System.arraycopy(lateIndices, position, lateIndices, position + 1, lateCount - position);
+        System.arraycopy(lateTimestamps, position, lateTimestamps, position + 1,
+                lateCount - position);
+        lateIndices[position] = index;
+        lateTimestamps[position] = timestamp;
+        lateCount++;
+        late.set(index);
+    }
+
+    /**
+     * Gets all the logs in the segment, in the order they were appended.
+     *
+     * @return an unmodifiable view of the logs
+     */
+    synchronized List<AuditLog> all() {
+        return size == 0 ? List.of() : slice(0, size);
+    }
+
+    /**
+     * Gets all the logs in the segment, ordered by timestamp. Logs with the same timestamp are kept
+     * in the order they were appended.
+     *
+     * @return an unmodifiable view of the logs, ordered by timestamp
+     */
+    synchronized List<AuditLog> chronological() {
+        if (lateCount == 0) {
+            return all();
+        }
+
+        // Merge the logs appended in order with the overflow, both sorted by timestamp and index
+        int[] order = new int[size];
+        int next = 0;
+        int lateNext = 0;
+        for (int i = late.nextClearBit(0); i < size; i = late.nextClearBit(i + 1)) {
+            while (lateNext < lateCount && (lateTimestamps[lateNext] < keys[i]
+                    || lateTimestamps[lateNext] == keys[i] && lateIndices[lateNext] < i)) {
+                order[next++] = lateIndices[lateNext++];
+            }
+            order[next++] = i;
+        }
+        while (lateNext < lateCount) {
+            order[next++] = lateIndices[lateNext++];
+        }
+        return view(order);
+    }
+
+    /**
+     * Gets the logs with a timestamp within the given range (both ends inclusive), in the order
+     * they were appended.
+     *
+     * @param startTimestamp the start timestamp
+     * @param endTimestamp   the end timestamp
+     * @return an unmodifiable view of the logs within the range
+     */
+    synchronized List<AuditLog> range(final int startTimestamp, final int endTimestamp) {
+        int from = lowerBound(startTimestamp);
+        int to = endTimestamp == Integer.MAX_VALUE ? size : lowerBound(endTimestamp + 1);
+        int lateFrom = lateLowerBound(startTimestamp);
+        int lateTo = endTimestamp == Integer.MAX_VALUE
+                ? lateCount : lateLowerBound(endTimestamp + 1);
+        if (lateCount == 0) {
+            return from >= to ? List.of() : slice(from, to);
+        }
+
+        // The late logs within the range, in the order they were appended
+        int[] lateMatches = Arrays.copyOfRange(lateIndices, lateFrom, Math.max(lateFrom, lateTo));
+        Arrays.sort(lateMatches);
+
+        int[] matches = new int[Math.max(0, to - from) + lateMatches.length];
+        int count = 0;
+        int lateNext = 0;
+        for (int i = late.nextClearBit(from); i < to; i = late.nextClearBit(i + 1)) {
+            while (lateNext < lateMatches.length && lateMatches[lateNext] < i) {
+                matches[count++] = lateMatches[lateNext++];
+            }
+            matches[count++] = i;
+        }
+        while (lateNext < lateMatches.length) {
+            matches[count++] = lateMatches[lateNext++];
+        }
+        return count == 0 ? List.of() : view(Arrays.copyOf(matches, count));
+    }
+
+    private List<AuditLog> slice(final int from, final int to) {
+        return store == null
+                ? new SliceView(entries, from, to)
+                : new StoredSliceView(store, positions, from, to);
+    }
+
+    private List<AuditLog> view(final int[] indices) {
+        return new IndexView(store, entries, positions, indices);
+    }
+
+    /**
+     * Finds the index of the first log with a search key greater than or equal to the given
+     * timestamp.
+     */
+    private int lowerBound(final int timestamp) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Finds the position of the first late log with a timestamp greater than or equal to the
+     * given one.
+     */
+    private int lateLowerBound(final int timestamp) {
+        int low = 0;
+        int high = lateCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (lateTimestamps[mid] < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Read-only view over a slice of the entries array.
+     */
+    private static final class SliceView extends AbstractList<AuditLog> implements RandomAccess {
+        private final AuditLog[] entries;
+        private final int from;
+        private final int to;
+
+        SliceView(final AuditLog[] entries, final int from, final int to) {
+            this.entries = entries;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public AuditLog get(final int index) {
+            if (index < 0 || index >= to - from) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return entries[from + index];
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+
+        @Override
+        public void forEach(final Consumer<? super AuditLog> action) {
+            for (int i = from; i < to; i++) {
+                action.accept(entries[i]);
+            }
+        }
+
+        @Override
+        public Spliterator<AuditLog> spliterator() {
+            return Spliterators.spliterator(entries, from, to,
+                    Spliterator.ORDERED | Spliterator.IMMUTABLE | Spliterator.NONNULL);
+        }
+    }
+
+    /**
+     * Read-only view over a slice of the logs kept in a {@link MappedLogStore}.
+     */
+    private static final class StoredSliceView extends AbstractList<AuditLog>
+            implements RandomAccess {
+        private final MappedLogStore store;
+        private final long[] positions;
+        private final int from;
+        private final int to;
+
+        StoredSliceView(final MappedLogStore store, final long[] positions, final int from,
+                        final int to) {
+            this.store = store;
+            this.positions = positions;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public AuditLog get(final int index) {
+            if (index < 0 || index >= to - from) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return store.read(positions[from + index]);
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+
+        @Override
+        public void forEach(final Consumer<? super AuditLog> action) {
+            for (int i = from; i < to; i++) {
+                action.accept(store.read(positions[i]));
+            }
+        }
+
+        @Override
+        public Spliterator<AuditLog> spliterator() {
+            return new StoredSpliterator(store, positions, from, to);
+        }
+    }
+
+    /**
+     * Spliterator over a slice of the logs kept in a {@link MappedLogStore}, which decodes each
+     * log once, when it is consumed.
+     */
+    private static final class StoredSpliterator implements Spliterator<AuditLog> {
+        private final MappedLogStore store;
+        private final long[] positions;
+        private int from;
+        private final int to;
+
+        StoredSpliterator(final MappedLogStore store, final long[] positions, final int from,
+                          final int to) {
+            this.store = store;
+            this.positions = positions;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super AuditLog> action) {
+            if (from >= to) {
+                return false;
+            }
+            action.accept(store.read(positions[from++]));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(final Consumer<? super AuditLog> action) {
+            while (from < to) {
+                action.accept(store.read(positions[from++]));
+            }
+        }
+
+        @Override
+        public Spliterator<AuditLog> trySplit() {
+            int middle = (from + to) >>> 1;
+            if (middle <= from) {
+                return null;
+            }
+            Spliterator<AuditLog> prefix = new StoredSpliterator(store, positions, from, middle);
+            from = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return to - from;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.IMMUTABLE | Spliterator.NONNULL
+                    | Spliterator.SIZED | Spliterator.SUBSIZED;
+        }
+    }
+
+    /**
+     * Read-only view over the logs at the given indices, on the heap or in a
+     * {@link MappedLogStore}.
+     */
+    private static final class IndexView extends AbstractList<AuditLog> implements RandomAccess {
+        private final MappedLogStore store;
+        private final AuditLog[] entries;
+        private final long[] positions;
+        private final int[] indices;
+
+        IndexView(final MappedLogStore store, final AuditLog[] entries, final long[] positions,
+                  final int[] indices) {
+            this.store = store;
+            this.entries = entries;
+            this.positions = positions;
+            this.indices = indices;
+        }
+
+        @Override
+        public AuditLog get(final int index) {
+            int entry = indices[index];
+            return store == null ? entries[entry] : store.read(positions[entry]);
+        }
+
+        @Override
+        public int size() {
+            return indices.length;
+        }
+    }
+}
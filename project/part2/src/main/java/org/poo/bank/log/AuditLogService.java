@@ -1,15 +1,86 @@
 package org.poo.bank.log;
 
+import lombok.NonNull;
+import org.poo.bank.log.impl.CardPaymentLog;
+import org.poo.bank.merchant.Merchant;
 import org.poo.bank.type.IBAN;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serial;
+import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+/**
+ * Service keeping the audit logs of the bank accounts.
+ * <p>
+ * The per-account indexes are concurrent maps, so logs can be recorded for different accounts
+ * from different threads. The logs of a single account must not be recorded concurrently.
+ * <p>
+ * By default the logs are kept on the heap. A service created with a {@link MappedLogStore}
+ * keeps them off-heap instead, and decodes them only when they are read. The returned logs are
+ * then new copies on every call, so they should not be compared by identity.
+ * <p>
+ * A snapshot of the bank holds the logs as a {@link LogImage}. The merchant spendings and the
+ * ledgers are derived from the logs, so they are rebuilt when the image is restored.
+ */
 public final class AuditLogService {
-    private final Map<IBAN, List<AuditLog>> logs = new HashMap<>();
+    /**
+     * The store the logs are kept in, or {@code null} to keep them on the heap.
+     */
+    private final MappedLogStore store;
+    private final Map<IBAN, AuditLogSegment> logs = new ConcurrentHashMap<>();
+    private final Map<IBAN, MerchantSpendingIndex> merchantSpendings = new ConcurrentHashMap<>();
+    private final Map<IBAN, BusinessAccountLedger> ledgers = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a service keeping the logs on the heap.
+     */
+    public AuditLogService() {
+        this.store = null;
+    }
+
+    /**
+     * Constructs a service keeping the logs in the given store.
+     *
+     * @param store the store of the logs
+     */
+    public AuditLogService(@NonNull final MappedLogStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Starts keeping a {@link BusinessAccountLedger} for the given account. Only the logs recorded
+     * afterwards are included in the ledger.
+     *
+     * @param account the IBAN of the business account
+     */
+    public void openLedger(final IBAN account) {
+        ledgers.putIfAbsent(account, new BusinessAccountLedger());
+    }
+
+    /**
+     * Gets the ledger of a business account.
+     *
+     * @param account the IBAN of the business account
+     * @return an {@link Optional} containing the ledger of the account, or an
+     * {@link Optional#empty()} if no ledger was opened for the account
+     */
+    public Optional<BusinessAccountLedger> getLedger(final IBAN account) {
+        return Optional.ofNullable(ledgers.get(account));
+    }
 
     /**
      * Records am audit log for a given account.
@@ -19,17 +90,64 @@ public final class AuditLogService {
      */
     public void recordLog(final IBAN account,
                           final AuditLog log) {
-        logs.computeIfAbsent(account, k -> new ArrayList<>()).add(log);
+        logs.computeIfAbsent(account, k -> new AuditLogSegment(store)).append(log);
+
+        if (log instanceof CardPaymentLog payment
+                && payment.getLogType() == AuditLogType.CARD_PAYMENT
+                && payment.getLogStatus() == AuditLogStatus.SUCCESS) {
+            merchantSpendings.computeIfAbsent(account, k -> new MerchantSpendingIndex())
+                    .record(payment);
+        }
+
+        BusinessAccountLedger ledger = ledgers.get(account);
+        if (ledger != null) {
+            ledger.record(log);
+        }
+    }
+
+    /**
+     * Gets the total amount an account spent at each merchant, through successful card payments,
+     * within a time range.
+     *
+     * @param account        the IBAN of the account
+     * @param startTimestamp the start timestamp
+     * @param endTimestamp   the end timestamp
+     * @return the total spent at each merchant that was paid within the time range, in the
+     * currency of the account
+     */
+    public Map<Merchant, Double> getMerchantSpendings(final IBAN account,
+                                                      final int startTimestamp,
+                                                      final int endTimestamp) {
+        MerchantSpendingIndex index = merchantSpendings.get(account);
+        return index == null ? Map.of() : index.totals(startTimestamp, endTimestamp);
     }
 
     /**
      * Gets the transaction logs for an account.
+     * The returned list is a read-only snapshot of the logs recorded so far. It is not copied
+     * and logs recorded afterwards are not visible through it.
      *
      * @param account the IBAN of the account to get the transaction logs for
      * @return the transaction logs for the account, or an empty list if the account does not exist
      */
     public List<AuditLog> getLogs(final IBAN account) {
-        return List.copyOf(logs.getOrDefault(account, Collections.emptyList()));
+        AuditLogSegment segment = logs.get(account);
+        return segment == null ? List.of() : segment.all();
+    }
+
+    /**
+     * Performs the given action for each transaction log of an account, in the order the logs
+     * were recorded. Only the logs recorded before the call are visited, so the action may
+     * record new logs.
+     *
+     * @param account the IBAN of the account
+     * @param action  the action to perform
+     */
+    public void forEachLog(final IBAN account, final Consumer<? super AuditLog> action) {
+        AuditLogSegment segment = logs.get(account);
+        if (segment != null) {
+            segment.all().forEach(action);
+        }
     }
 
     /**
@@ -43,9 +161,107 @@ public final class AuditLogService {
      */
     public List<AuditLog> getLogs(final IBAN account, final int startTimestamp,
                                   final int endTimestamp) {
-        return logs.getOrDefault(account, Collections.emptyList()).stream()
-                .filter(log -> log.getTimestamp() >= startTimestamp
-                        && log.getTimestamp() <= endTimestamp)
+        AuditLogSegment segment = logs.get(account);
+        return segment == null ? List.of() : segment.range(startTimestamp, endTimestamp);
+    }
+
+    /**
+     * Captures the logs recorded so far, for a snapshot of the bank. Only the number of logs of
+     * each account is fixed here, so no log may be recorded during the call. The logs are read
+     * when the image is serialized, which may happen while new logs are recorded.
+     *
+     * @return the image of the logs
+     */
+    public LogImage captureLogs() {
+        Map<IBAN, List<AuditLog>> accountLogs = new LinkedHashMap<>();
+        logs.forEach((account, segment) -> accountLogs.put(account, segment.all()));
+        return new LogImage(accountLogs, ledgers.keySet().toArray(IBAN[]::new));
+    }
+
+    /**
+     * The logs of a bank, as captured for a snapshot.
+     * <p>
+     * The logs are written one by one and unshared, so a stream writing an image does not keep
+     * them reachable, and logs kept in a {@link MappedLogStore} are decoded only while they are
+     * written. The objects the logs refer to (accounts, users, merchants) are written shared, so
+     * they are the same instances as in the rest of the snapshot.
+     */
+    public static final class LogImage implements Serializable {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private transient Map<IBAN, List<AuditLog>> accountLogs;
+        private final IBAN[] ledgerAccounts;
+
+        private LogImage(final Map<IBAN, List<AuditLog>> accountLogs,
+                         final IBAN[] ledgerAccounts) {
+            this.accountLogs = accountLogs;
+            this.ledgerAccounts = ledgerAccounts;
+        }
+
+        /**
+         * Rebuilds a service keeping the logs of the image on the heap.
+         *
+         * @return the restored service
+         */
+        public AuditLogService restore() {
+            AuditLogService service = new AuditLogService();
+            for (IBAN account : ledgerAccounts) {
+                service.openLedger(account);
+            }
+            accountLogs.forEach((account, logs) ->
+                    logs.forEach(log -> service.recordLog(account, log)));
+            return service;
+        }
+
+        @Serial
+        private void writeObject(final ObjectOutputStream out) throws IOException {
+            out.defaultWriteObject();
+            out.writeInt(accountLogs.size());
+            for (Map.Entry<IBAN, List<AuditLog>> entry : accountLogs.entrySet()) {
+                out.writeObject(entry.getKey());
+                out.writeInt(entry.getValue().size());
+                for (AuditLog log : entry.getValue()) {
+                    out.writeUnshared(log);
+                }
+            }
+        }
+
+        @Serial
+        private void readObject(final ObjectInputStream in)
+                throws IOException, ClassNotFoundException {
+            in.defaultReadObject();
+            int accountCount = in.readInt();
+            accountLogs = new LinkedHashMap<>();
+            for (int i = 0; i < accountCount; i++) {
+                IBAN account = (IBAN) in.readObject();
+                int logCount = in.readInt();
+                List<AuditLog> logs = new ArrayList<>(logCount);
+                for (int j = 0; j < logCount; j++) {
+                    logs.add((AuditLog) in.readUnshared());
+                }
+                accountLogs.put(account, logs);
+            }
+        }
+    }
+
+    /**
+     * Gets the transaction logs of several accounts as a single sequence ordered by timestamp.
+     * Logs with the same timestamp are ordered by the position of their account in the given
+     * list and then by the order they were recorded in.
+     * The logs are merged lazily, without being collected or sorted.
+     *
+     * @param accounts the IBANs of the accounts
+     * @return an ordered stream of the transaction logs of the accounts
+     */
+    public Stream<AuditLog> getTimeline(final List<IBAN> accounts) {
+        List<List<AuditLog>> accountLogs = accounts.stream()
+                .map(logs::get)
+                .filter(Objects::nonNull)
+                .map(AuditLogSegment::chronological)
                 .toList();
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                new AuditLogTimeline(accountLogs),
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
     }
 }
@@ -0,0 +1,89 @@
+package org.poo.bank.log;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Iterates over the logs of several accounts as a single sequence ordered by timestamp.
+ * <p>
+ * The logs of each account are already ordered by timestamp, so they are merged lazily instead of
+ * being collected and sorted. Logs with the same timestamp come in the order of their accounts
+ * and, within an account, in the order they were recorded, which is the order a stable sort of
+ * the concatenated logs would produce.
+ * <p>
+ * Each cursor keeps the log at its position, so a log read from a {@link MappedLogStore} is
+ * decoded once, not on every comparison made by the queue.
+ */
+final class AuditLogTimeline implements Iterator<AuditLog> {
+    private final PriorityQueue<Cursor> cursors = new PriorityQueue<>();
+
+    /**
+     * Read position in the logs of a single account, with the log at that position.
+     */
+    private static final class Cursor implements Comparable<Cursor> {
+        private final List<AuditLog> logs;
+        private final int accountIndex;
+        private int position = 0;
+        private AuditLog current;
+
+        Cursor(final List<AuditLog> logs, final int accountIndex) {
+            this.logs = logs;
+            this.accountIndex = accountIndex;
+            this.current = logs.getFirst();
+        }
+
+        /**
+         * Moves to the next log.
+         *
+         * @return {@code true} if there is a next log, {@code false} otherwise
+         */
+        boolean advance() {
+            if (++position == logs.size()) {
+                current = null;
+                return false;
+            }
+            current = logs.get(position);
+            return true;
+        }
+
+        @Override
+        public int compareTo(final Cursor other) {
+            int result = Integer.compare(current.getTimestamp(), other.current.getTimestamp());
+            return result != 0 ? result : Integer.compare(accountIndex, other.accountIndex);
+        }
+    }
+
+    /**
+     * Creates a timeline over the given per-account logs.
+     *
+     * @param accountLogs the logs of each account, each ordered by timestamp
+     */
+    AuditLogTimeline(final List<List<AuditLog>> accountLogs) {
+        for (int i = 0; i < accountLogs.size(); i++) {
+            if (!accountLogs.get(i).isEmpty()) {
+                cursors.add(new Cursor(accountLogs.get(i), i));
+            }
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !cursors.isEmpty();
+    }
+
+    @Override
+    public AuditLog next() {
+        Cursor cursor = cursors.poll();
+        if (cursor == null) {
+            throw new NoSuchElementException();
+        }
+
+        AuditLog log = cursor.current;
+        if (cursor.advance()) {
+            cursors.add(cursor);
+        }
+        return log;
+    }
+}
@@ -0,0 +1,204 @@
+package org.poo.bank.log;
+
+import org.poo.bank.account.UserAccount;
+import org.poo.bank.log.impl.CardPaymentLog;
+import org.poo.bank.log.impl.DepositLog;
+import org.poo.bank.log.impl.TransferLog;
+import org.poo.bank.merchant.Merchant;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Running totals of the transactions made by the members of a business account, kept as its
+ * logs are recorded.
+ * <p>
+ * The ledger keeps, in the currency of the account, a {@link WindowedSum} for:
+ * <ul>
+ *     <li>the spendings (successful card payments and sent transfers) of each member</li>
+ *     <li>the deposits of each member</li>
+ *     <li>the spendings of each member at each merchant, split by amount, since the merchant
+ *     report lists a member once for every distinct amount they paid</li>
+ * </ul>
+ * The total of a window is read from two prefix sums, so a report takes time proportional to
+ * the members and merchants (and the distinct amounts paid at a merchant), not to the number of
+ * transactions. The totals are returned in hash maps filled in the order the first transaction
+ * of each key was recorded within the window, the order in which grouping the transactions
+ * filled them, so the reports iterate over them, and sum them, in the same order. This assumes
+ * the transactions are recorded in timestamp order, as the logs of an account are.
+ * <p>
+ * The ledger is synchronized, so it can be read while logs are being recorded from another
+ * thread.
+ */
+public final class BusinessAccountLedger {
+    private final Map<UserAccount, WindowedSum> memberSpendings = new LinkedHashMap<>();
+    private final Map<UserAccount, WindowedSum> memberDeposits = new LinkedHashMap<>();
+    private final Map<Merchant, Map<MerchantPayment, PaymentSeries>> merchantPayments =
+            new LinkedHashMap<>();
+
+    /**
+     * A distinct amount paid by a member to a merchant.
+     *
+     * @param member the member that made the payments
+     * @param amount the amount of each payment
+     */
+    public record MerchantPayment(UserAccount member, double amount) {
+    }
+
+    /**
+     * The payments of a member to a merchant, with the same amount. The merchant report groups
+     * card payments before transfers, so they are kept apart.
+     */
+    private static final class PaymentSeries {
+        private final WindowedSum cardPayments = new WindowedSum();
+        private final WindowedSum transfers = new WindowedSum();
+
+        boolean isEmpty(final int startTimestamp, final int endTimestamp) {
+            return cardPayments.count(startTimestamp, endTimestamp) == 0
+                    && transfers.count(startTimestamp, endTimestamp) == 0;
+        }
+
+        /**
+         * Gets the position of the first payment of the window in the grouped payments: the
+         * card payments, in timestamp order, then the transfers.
+         */
+        long firstPosition(final int startTimestamp, final int endTimestamp) {
+            if (cardPayments.count(startTimestamp, endTimestamp) > 0) {
+                return cardPayments.firstTimestamp(startTimestamp);
+            }
+            return ((long) 1 << Integer.SIZE) + transfers.firstTimestamp(startTimestamp);
+        }
+
+        double sum(final int startTimestamp, final int endTimestamp) {
+            return cardPayments.sum(startTimestamp, endTimestamp)
+                    + transfers.sum(startTimestamp, endTimestamp);
+        }
+    }
+
+    synchronized void record(final AuditLog log) {
+        if (log.getLogStatus() != AuditLogStatus.SUCCESS) {
+            return;
+        }
+
+        switch (log) {
+            case CardPaymentLog payment when payment.getLogType() == AuditLogType.CARD_PAYMENT -> {
+                recordSpending(payment.getUserAccount(), payment.getTimestamp(),
+                        payment.getAmount());
+                getPaymentSeries(payment.getMerchant(), payment.getUserAccount(),
+                        payment.getAmount())
+                        .cardPayments.append(payment.getTimestamp(), payment.getAmount());
+            }
+            case TransferLog transfer when transfer.getLogType() == AuditLogType.TRANSFER
+                    && transfer.getTransferType() == TransferLog.TransferType.SENT -> {
+                recordSpending(transfer.getInitiatingUser(), transfer.getTimestamp(),
+                        transfer.getAmount());
+                transfer.getRecipientMerchant().ifPresent(merchant ->
+                        getPaymentSeries(merchant, transfer.getInitiatingUser(),
+                                transfer.getAmount())
+                                .transfers.append(transfer.getTimestamp(), transfer.getAmount()));
+            }
+            case DepositLog deposit when deposit.getLogType() == AuditLogType.DEPOSIT ->
+                    memberDeposits.computeIfAbsent(deposit.getUserAccount(),
+                                    k -> new WindowedSum())
+                            .append(deposit.getTimestamp(), deposit.getAmount());
+            default -> {
+            }
+        }
+    }
+
+    private void recordSpending(final UserAccount member, final int timestamp,
+                                final double amount) {
+        memberSpendings.computeIfAbsent(member, k -> new WindowedSum()).append(timestamp, amount);
+    }
+
+    private PaymentSeries getPaymentSeries(final Merchant merchant, final UserAccount member,
+                                           final double amount) {
+        return merchantPayments.computeIfAbsent(merchant, k -> new LinkedHashMap<>())
+                .computeIfAbsent(new MerchantPayment(member, amount), k -> new PaymentSeries());
+    }
+
+    /**
+     * Gets the total spent (card payments and sent transfers) by each of the given members within
+     * a time window (both ends inclusive). Members with no spendings in the window are left out.
+     *
+     * @param startTimestamp the start timestamp
+     * @param endTimestamp   the end timestamp
+     * @param members        the members to include
+     * @return the total spent by each member
+     */
+    public synchronized Map<UserAccount, Double> getMemberSpendings(
+            final int startTimestamp, final int endTimestamp,
+            final Predicate<UserAccount> members) {
+        return getMemberTotals(memberSpendings, startTimestamp, endTimestamp, members);
+    }
+
+    /**
+     * Gets the total deposited by each of the given members within a time window (both ends
+     * inclusive). Members with no deposits in the window are left out.
+     *
+     * @param startTimestamp the start timestamp
+     * @param endTimestamp   the end timestamp
+     * @param members        the members to include
+     * @return the total deposited by each member
+     */
+    public synchronized Map<UserAccount, Double> getMemberDeposits(
+            final int startTimestamp, final int endTimestamp,
+            final Predicate<UserAccount> members) {
+        return getMemberTotals(memberDeposits, startTimestamp, endTimestamp, members);
+    }
+
+    /**
+     * Gets the payments made by the given members to each merchant within a time window (both
+     * ends inclusive): for each distinct amount paid by a member, the total of those payments.
+     * Merchants with no payments in the window are left out.
+     *
+     * @param startTimestamp the start timestamp
+     * @param endTimestamp   the end timestamp
+     * @param members        the members to include
+     * @return the payments made to each merchant
+     */
+    public synchronized Map<Merchant, Map<MerchantPayment, Double>> getMerchantPayments(
+            final int startTimestamp, final int endTimestamp,
+            final Predicate<UserAccount> members) {
+        Map<Merchant, Map<MerchantPayment, Double>> payments = new HashMap<>();
+        merchantPayments.forEach((merchant, series) -> {
+            List<Map.Entry<MerchantPayment, PaymentSeries>> paid = series.entrySet().stream()
+                    .filter(entry -> members.test(entry.getKey().member()))
+                    .filter(entry -> !entry.getValue().isEmpty(startTimestamp, endTimestamp))
+                    .sorted(Comparator.comparingLong(entry ->
+                            entry.getValue().firstPosition(startTimestamp, endTimestamp)))
+                    .toList();
+            if (paid.isEmpty()) {
+                return;
+            }
+
+            Map<MerchantPayment, Double> totals = new HashMap<>();
+            for (Map.Entry<MerchantPayment, PaymentSeries> entry : paid) {
+                totals.put(entry.getKey(), entry.getValue().sum(startTimestamp, endTimestamp));
+            }
+            payments.put(merchant, totals);
+        });
+        return payments;
+    }
+
+    private static Map<UserAccount, Double> getMemberTotals(
+            final Map<UserAccount, WindowedSum> series, final int startTimestamp,
+            final int endTimestamp, final Predicate<UserAccount> members) {
+        List<Map.Entry<UserAccount, WindowedSum>> active = series.entrySet().stream()
+                .filter(entry -> members.test(entry.getKey()))
+                .filter(entry -> entry.getValue().count(startTimestamp, endTimestamp) > 0)
+                .sorted(Comparator.comparingInt(entry ->
+                        entry.getValue().firstTimestamp(startTimestamp)))
+                .toList();
+
+        Map<UserAccount, Double> totals = new HashMap<>();
+        for (Map.Entry<UserAccount, WindowedSum> entry : active) {
+            totals.put(entry.getKey(), entry.getValue().sum(startTimestamp, endTimestamp));
+        }
+        return totals;
+    }
+}
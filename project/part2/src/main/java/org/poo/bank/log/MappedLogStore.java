@@ -0,0 +1,174 @@
+package org.poo.bank.log;
+
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Off-heap storage for audit logs, made of fixed-size memory-mapped segment files.
+ * <p>
+ * Logs are encoded (see {@link AuditLogCodec}) and appended to the current segment; once a record
+ * does not fit anymore, a new segment file is created. A stored log is identified by its position,
+ * which packs the index of its segment and its offset within the segment. Logs are decoded again
+ * whenever they are read.
+ * <p>
+ * What is left on the heap for the stored logs:
+ * <ul>
+ *     <li>12 bytes per log in its {@link AuditLogSegment}: its position and its timestamp</li>
+ *     <li>the symbol table of the accounts, users and merchants the logs refer to (see
+ *     {@link AuditLogCodec}), which grows with the number of accounts, not of logs</li>
+ *     <li>the indexes the reports read, which are not stored here: the timestamp, the amount and
+ *     the running sums of each successful card payment in {@link MerchantSpendingIndex}, and the
+ *     same for each transaction of a business account in its {@link BusinessAccountLedger}</li>
+ * </ul>
+ * <p>
+ * The segment files are scratch space for a running bank: they are created as temporary files in
+ * the given directory and deleted when the store is closed. The durable history of a bank is its
+ * journal.
+ */
+public final class MappedLogStore implements AutoCloseable {
+    /**
+     * The default size of a segment file, in bytes.
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 64 << 20;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final AuditLogCodec codec = new AuditLogCodec();
+
+    private final List<Path> files = new ArrayList<>();
+    private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+    private int writeOffset = 0;
+    private boolean closed = false;
+
+    private MappedLogStore(final Path directory, final int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Opens a store with segments of the default size.
+     *
+     * @param directory the directory the segment files are created in
+     * @return the store
+     * @throws IOException if the directory cannot be created
+     */
+    public static MappedLogStore open(@NonNull final Path directory) throws IOException {
+        return open(directory, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Opens a store.
+     *
+     * @param directory   the directory the segment files are created in
+     * @param segmentSize the size of a segment file, in bytes, which bounds the size of a log
+     * @return the store
+     * @throws IOException if the directory cannot be created
+     */
+    public static MappedLogStore open(@NonNull final Path directory, final int segmentSize)
+            throws IOException {
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException("Segment size must be positive");
+        }
+        Files.createDirectories(directory);
+        return new MappedLogStore(directory, segmentSize);
+    }
+
+    /**
+     * Stores a log.
+     *
+     * @param log the log to store
+     * @return the position of the stored log
+     * @throws UncheckedIOException  if a new segment file cannot be created
+     * @throws IllegalStateException if the store is closed
+     */
+    synchronized long append(final AuditLog log) {
+        if (closed) {
+            throw new IllegalStateException("Audit log store is closed");
+        }
+
+        byte[] record = codec.encode(log);
+        int recordSize = Integer.BYTES + record.length;
+        if (recordSize > segmentSize) {
+            throw new IllegalArgumentException("Audit log too large: " + recordSize + " bytes");
+        }
+        if (segments.length == 0 || writeOffset + recordSize > segmentSize) {
+            addSegment();
+        }
+
+        int segmentIndex = segments.length - 1;
+        MappedByteBuffer segment = segments[segmentIndex];
+        segment.putInt(writeOffset, record.length);
+        segment.put(writeOffset + Integer.BYTES, record);
+
+        long position = ((long) segmentIndex << Integer.SIZE) | writeOffset;
+        writeOffset += recordSize;
+        return position;
+    }
+
+    /**
+     * Reads a stored log. Every call decodes a new copy of the log.
+     *
+     * @param position the position returned when the log was stored
+     * @return the log
+     * @throws IllegalStateException if the store is closed
+     */
+    AuditLog read(final long position) {
+        MappedByteBuffer[] current = segments;
+        int segmentIndex = (int) (position >>> Integer.SIZE);
+        if (segmentIndex >= current.length) {
+            throw new IllegalStateException("Audit log store is closed");
+        }
+
+        MappedByteBuffer segment = current[segmentIndex];
+        int offset = (int) position;
+        int length = segment.getInt(offset);
+        return codec.decode(segment.slice(offset + Integer.BYTES, length));
+    }
+
+    private void addSegment() {
+        try {
+            Path file = Files.createTempFile(directory, "audit-log-", ".seg");
+            files.add(file);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                // The mapping stays valid after the channel is closed
+                MappedByteBuffer segment =
+                        channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+                MappedByteBuffer[] grown = Arrays.copyOf(segments, segments.length + 1);
+                grown[segments.length] = segment;
+                segments = grown;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create an audit log segment", e);
+        }
+        writeOffset = 0;
+    }
+
+    /**
+     * Closes the store and deletes the segment files. The stored logs cannot be read afterwards.
+     *
+     * @throws IOException if a segment file cannot be deleted
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        segments = new MappedByteBuffer[0];
+        for (Path file : files) {
+            Files.deleteIfExists(file);
+        }
+        files.clear();
+    }
+}
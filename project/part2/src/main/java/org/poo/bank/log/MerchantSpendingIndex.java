@@ -0,0 +1,46 @@
+package org.poo.bank.log;
+
+import org.poo.bank.log.impl.CardPaymentLog;
+import org.poo.bank.merchant.Merchant;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Running totals of the successful card payments made by a single account, per merchant.
+ * <p>
+ * The payments made at each merchant are kept in a {@link WindowedSum}, so the amount spent at
+ * that merchant in a time window takes two lookups in its prefix sums, without visiting the
+ * payments or the other logs of the account.
+ */
+final class MerchantSpendingIndex {
+    private final Map<Merchant, WindowedSum> series = new LinkedHashMap<>();
+
+    /**
+     * Records a successful card payment.
+     *
+     * @param payment the card payment log
+     */
+    synchronized void record(final CardPaymentLog payment) {
+        series.computeIfAbsent(payment.getMerchant(), k -> new WindowedSum())
+                .append(payment.getTimestamp(), payment.getAmount());
+    }
+
+    /**
+     * Gets the total spent at each merchant within the given time window (both ends inclusive).
+     * Merchants with no payments in the window are left out.
+     *
+     * @param startTimestamp the start timestamp
+     * @param endTimestamp   the end timestamp
+     * @return the total spent at each merchant, in the order the merchants were first paid
+     */
+    synchronized Map<Merchant, Double> totals(final int startTimestamp, final int endTimestamp) {
+        Map<Merchant, Double> totals = new LinkedHashMap<>();
+        series.forEach((merchant, payments) -> {
+            if (payments.count(startTimestamp, endTimestamp) > 0) {
+                totals.put(merchant, payments.sum(startTimestamp, endTimestamp));
+            }
+        });
+        return totals;
+    }
+}
@@ -0,0 +1,129 @@
+package org.poo.bank.log;
+
+import java.util.Arrays;
+
+/**
+ * Series of timestamped amounts that can be summed over any time window.
+ * <p>
+ * The amounts are kept sorted by timestamp, in primitive arrays, together with the compensated
+ * (Kahan) running sum of every prefix of the series: its rounded value and its (negated)
+ * low-order bits. A window is found with two binary searches, and its sum is the difference of
+ * the two prefix sums that bound it, with their low-order bits, so the amounts inside the window
+ * are never visited. The result is the exact sum of the window, give or take the rounding of the
+ * prefix sums, but not always the same double as summing the window in a loop.
+ * <p>
+ * Amounts are expected in timestamp order. An amount older than the last one is inserted at its
+ * sorted position, after the amounts with the same timestamp, and the prefix sums after it are
+ * computed again.
+ */
+final class WindowedSum {
+    private static final int INITIAL_CAPACITY = 8;
+
+    private int[] timestamps = new int[INITIAL_CAPACITY];
+    private double[] amounts = new double[INITIAL_CAPACITY];
+    // The compensated sum of the first i amounts and its (negated) low-order bits
+    private double[] prefixSums = new double[INITIAL_CAPACITY + 1];
+    private double[] prefixCompensations = new double[INITIAL_CAPACITY + 1];
+    private int size = 0;
+
+    /**
+     * Appends an amount to the series.
+     *
+     * @param timestamp the timestamp of the amount
+     * @param amount    the amount
+     */
+    void append(final int timestamp, final double amount) {
+        if (size == timestamps.length) {
+            timestamps = Arrays.copyOf(timestamps, size * 2);
+            amounts = Arrays.copyOf(amounts, size * 2);
+            prefixSums = Arrays.copyOf(prefixSums, size * 2 + 1);
+            prefixCompensations = Arrays.copyOf(prefixCompensations, size * 2 + 1);
+        }
+
+        int position = size;
+        if (size > 0 && timestamp < timestamps[size - 1]) {
+            position = lowerBound(timestamp + 1);
+            System.arraycopy(timestamps, position, timestamps, position + 1, size - position);
+            System.arraycopy(amounts, position, amounts, position + 1, size - position);
+        }
+        timestamps[position] = timestamp;
+        amounts[position] = amount;
+        size++;
+        accumulate(position);
+    }
+
+    /**
+     * Computes the prefix sums that include the amounts from the given index on.
+     */
+    private void accumulate(final int from) {
+        for (int i = from; i < size; i++) {
+            double value = amounts[i] - prefixCompensations[i];
+            double sum = prefixSums[i] + value;
+            prefixCompensations[i + 1] = (sum - prefixSums[i]) - value;
+            prefixSums[i + 1] = sum;
+        }
+    }
+
+    /**
+     * Gets the sum of the amounts within the given time window (both ends inclusive).
+     *
+     * @param startTimestamp the start timestamp
+     * @param endTimestamp   the end timestamp
+     * @return the sum of the amounts within the window
+     */
+    double sum(final int startTimestamp, final int endTimestamp) {
+        int from = lowerBound(startTimestamp);
+        int to = upperIndex(endTimestamp);
+        if (from >= to) {
+            return 0.0;
+        }
+        return (prefixSums[to] - prefixSums[from])
+                - (prefixCompensations[to] - prefixCompensations[from]);
+    }
+
+    /**
+     * Gets the number of amounts within the given time window (both ends inclusive).
+     *
+     * @param startTimestamp the start timestamp
+     * @param endTimestamp   the end timestamp
+     * @return the number of amounts within the window
+     */
+    int count(final int startTimestamp, final int endTimestamp) {
+        return Math.max(0, upperIndex(endTimestamp) - lowerBound(startTimestamp));
+    }
+
+    /**
+     * Gets the timestamp of the first amount of a time window starting at the given timestamp.
+     * The window must not be empty.
+     *
+     * @param startTimestamp the start timestamp
+     * @return the timestamp of the first amount within the window
+     */
+    int firstTimestamp(final int startTimestamp) {
+        return timestamps[lowerBound(startTimestamp)];
+    }
+
+    /**
+     * Finds the index of the first amount with a timestamp after the given one.
+     */
+    private int upperIndex(final int timestamp) {
+        return timestamp == Integer.MAX_VALUE ? size : lowerBound(timestamp + 1);
+    }
+
+    /**
+     * Finds the index of the first amount with a timestamp greater than or equal to the given one.
+     */
+    private int lowerBound(final int timestamp) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[mid] < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
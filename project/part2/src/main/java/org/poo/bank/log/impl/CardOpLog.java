@@ -10,9 +10,14 @@ import org.poo.bank.type.CardNumber;
 import org.poo.bank.type.Email;
 import org.poo.bank.type.IBAN;
 
+import java.io.Serial;
+
 @Getter
 @SuperBuilder(toBuilder = true)
 public final class CardOpLog extends AuditLog {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     @NonNull
     private final CardNumber card;
     @NonNull
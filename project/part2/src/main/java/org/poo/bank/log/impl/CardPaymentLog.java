@@ -11,11 +11,15 @@ import org.poo.bank.log.view.AuditLogView;
 import org.poo.bank.log.view.impl.CardPaymentLogView;
 import org.poo.bank.merchant.Merchant;
 
+import java.io.Serial;
 import java.util.Optional;
 
 @Getter
 @SuperBuilder(toBuilder = true)
 public final class CardPaymentLog extends AuditLog implements UserTransactionLog, TransactionLog {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     @NonNull
     private final Double amount;
     @NonNull
@@ -8,9 +8,14 @@ import org.poo.bank.log.view.AuditLogView;
 import org.poo.bank.log.view.impl.CashWithdrawalLogView;
 import org.poo.bank.type.Location;
 
+import java.io.Serial;
+
 @Getter
 @SuperBuilder(toBuilder = true)
 public final class CashWithdrawLog extends AuditLog {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     @NonNull
     private final Double amount;
     @NonNull
@@ -8,11 +8,15 @@ import org.poo.bank.account.UserAccount;
 import org.poo.bank.log.AuditLog;
 import org.poo.bank.log.interfaces.UserTransactionLog;
 
+import java.io.Serial;
 import java.util.Optional;
 
 @Getter
 @SuperBuilder(toBuilder = true)
 public final class DepositLog extends AuditLog implements UserTransactionLog {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     @NonNull
     private final Double amount;
     @NonNull
@@ -8,9 +8,14 @@ import org.poo.bank.log.view.AuditLogView;
 import org.poo.bank.log.view.impl.SavingsWithdrawLogView;
 import org.poo.bank.type.IBAN;
 
+import java.io.Serial;
+
 @Getter
 @SuperBuilder(toBuilder = true)
 public final class SavingsWithdrawLog extends AuditLog {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     @NonNull
     private final Double amount;
     @NonNull
@@ -10,16 +10,22 @@ import org.poo.bank.log.view.impl.SplitPaymentLogView;
 import org.poo.bank.type.Currency;
 import org.poo.bank.type.IBAN;
 
+import java.io.Serial;
 import java.util.List;
 
 @Getter
 @SuperBuilder(toBuilder = true)
 public final class SplitPaymentLog extends AuditLog {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     @NonNull
     private final Currency currency;
     private final Double amount;
+    @SuppressWarnings("serial")
     private final List<Double> amountPerAccount;
     @NonNull
+    @SuppressWarnings("serial")
     private final List<IBAN> involvedAccounts;
     @NonNull
     private final SplitPaymentType type;
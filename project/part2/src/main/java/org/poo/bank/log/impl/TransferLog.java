@@ -12,12 +12,16 @@ import org.poo.bank.merchant.Merchant;
 import org.poo.bank.type.Currency;
 import org.poo.bank.type.IBAN;
 
+import java.io.Serial;
 import java.util.Optional;
 
 
 @Getter
 @SuperBuilder(toBuilder = true)
 public final class TransferLog extends AuditLog implements TransactionLog {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     @NonNull
     private final IBAN senderIBAN;
     /**
@@ -1,5 +1,6 @@
 package org.poo.bank.log.impl;
 
+import lombok.Getter;
 import lombok.NonNull;
 import lombok.experimental.SuperBuilder;
 import org.poo.bank.log.AuditLog;
@@ -8,8 +9,14 @@ import org.poo.bank.log.view.impl.UpgradePlanLogView;
 import org.poo.bank.type.IBAN;
 import org.poo.bank.servicePlan.ServicePlanType;
 
+import java.io.Serial;
+
+@Getter
 @SuperBuilder(toBuilder = true)
 public final class UpgradePlanLog extends AuditLog {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     @NonNull
     private final IBAN accountIBAN;
     @NonNull
@@ -5,15 +5,20 @@ import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
-import java.util.Optional;
+import java.io.Serial;
+import java.io.Serializable;
 
 @RequiredArgsConstructor
 @EqualsAndHashCode
-abstract class Cashback {
+abstract class Cashback implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     @Getter
     private final double percentage;
     // The type of merchant that the discount is applicable for (if any)
     // If the discount is applicable for all merchants, this field should be empty
+    // A one-time discount must have a type, which identifies it among the one-time discounts
     @Getter(AccessLevel.PACKAGE)
     private final MerchantType applicableType;
 
@@ -28,19 +33,9 @@ abstract class Cashback {
 
     /**
      * Check if the discount is applicable only once.
+     * Discounts that are not applicable now are expected to be applicable only once.
      *
      * @return true if the discount is applicable only once, false otherwise
      */
     abstract boolean isApplicableOneTime();
-
-    /**
-     * Check if the discount is applicable for the given merchant.
-     *
-     * @param merchant the merchant to check
-     * @return true if the discount is applicable, false otherwise
-     */
-    final boolean isApplicableFor(final Merchant merchant) {
-        return Optional.ofNullable(applicableType).map(type -> type == merchant.getType())
-                .orElse(true);
-    }
 }
@@ -2,41 +2,54 @@ package org.poo.bank.merchant;
 
 import org.poo.bank.account.BankAccount;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
-final class CashbackService {
-    private final Map<BankAccount, List<Cashback>> pendingDiscounts = new HashMap<>();
-    private final Map<BankAccount, List<Cashback>> appliedDiscounts = new HashMap<>();
+/**
+ * Keeps track of the cashbacks received by each bank account.
+ * <p>
+ * A one-time cashback is identified by the type of merchant it is applicable for, so the
+ * cashbacks of an account are indexed by merchant type: the pending ones in an {@link EnumMap}
+ * and the applied ones in an {@link EnumSet}, which is a bitset. Registering a transaction takes
+ * a constant time, however many transactions the account made before. Cashbacks that are
+ * applicable right away and more than once are returned without being recorded, since nothing
+ * depends on them having been applied.
+ */
+final class CashbackService implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
 
-    private List<Cashback> getPendingDiscounts(final BankAccount bankAccount) {
-        return pendingDiscounts.computeIfAbsent(bankAccount, k -> new ArrayList<>());
-    }
+    @SuppressWarnings("serial")
+    private final Map<BankAccount, AccountCashbacks> accountCashbacks = new ConcurrentHashMap<>();
+
+    private static final class AccountCashbacks implements Serializable {
+        @Serial
+        private static final long serialVersionUID = 1L;
 
-    private List<Cashback> getAppliedDiscounts(final BankAccount bankAccount) {
-        return appliedDiscounts.computeIfAbsent(bankAccount, k -> new ArrayList<>());
+        @SuppressWarnings("serial")
+        private final Map<MerchantType, Cashback> pending = new EnumMap<>(MerchantType.class);
+        @SuppressWarnings("serial")
+        private final Set<MerchantType> applied = EnumSet.noneOf(MerchantType.class);
     }
 
     Discount registerTransaction(final Merchant merchant, final BankAccount bankAccount,
                                  final double amount) {
-        // First, collect the applicable discounts
-        List<Cashback> applicableCashbacks = getPendingDiscounts(bankAccount).stream()
-                .filter(cashback -> cashback.isApplicableFor(merchant))
-                .toList();
-
-        // Calculate total discount
-        double totalDiscount = applicableCashbacks.stream()
-                .map(Cashback::getPercentage)
-                .reduce(0.0, Double::sum);
+        AccountCashbacks cashbacks =
+                accountCashbacks.computeIfAbsent(bankAccount, k -> new AccountCashbacks());
 
-        // Then update the collections
-        List<Cashback> accountAppliedDiscounts = getAppliedDiscounts(bankAccount);
-        List<Cashback> accountPendingDiscounts = getPendingDiscounts(bankAccount);
-        accountAppliedDiscounts.addAll(applicableCashbacks);
-        accountPendingDiscounts.removeAll(applicableCashbacks);
+        // First, apply the pending discount for this type of merchant, if there is one
+        double totalDiscount = 0.0;
+        Cashback pending = cashbacks.pending.remove(merchant.getType());
+        if (pending != null) {
+            totalDiscount += pending.getPercentage();
+            cashbacks.applied.add(merchant.getType());
+        }
 
         Optional<Cashback> discountOpt = merchant.registerTransaction(bankAccount, amount);
 
@@ -46,24 +59,27 @@ final class CashbackService {
         }
 
         Cashback cashback = discountOpt.get();
+        if (!cashback.isApplicableOneTime()) {
+            return new PercentageDiscount(cashback.isApplicableNow()
+                    ? totalDiscount + cashback.getPercentage()
+                    : totalDiscount);
+        }
+
         // If the discount is one time only, and it has already been applied, ignore it
-        if (cashback.isApplicableOneTime()
-                && accountAppliedDiscounts.stream().anyMatch(cashback::equals)) {
+        MerchantType type = cashback.getApplicableType();
+        if (cashbacks.applied.contains(type)) {
             return new PercentageDiscount(totalDiscount);
         }
 
         // If the discount is applicable now, apply it and return the new total discount
         if (cashback.isApplicableNow()) {
-            accountAppliedDiscounts.add(cashback);
+            cashbacks.applied.add(type);
             return new PercentageDiscount(totalDiscount + cashback.getPercentage());
-        } else if (!cashback.isApplicableOneTime()
-                || accountPendingDiscounts.stream().noneMatch(cashback::equals)
-                || accountAppliedDiscounts.stream().anyMatch(cashback::equals)) {
-            // Otherwise, if the discount is not one time only, or it has not been applied yet,
-            // or it is already pending, add it to the pending discounts
-            accountPendingDiscounts.add(cashback);
         }
 
+        // Otherwise, keep it for the next transaction with this type of merchant, unless it is
+        // already pending
+        cashbacks.pending.putIfAbsent(type, cashback);
         return new PercentageDiscount(totalDiscount);
     }
 }
@@ -2,9 +2,10 @@ package org.poo.bank.merchant;
 
 import org.poo.bank.account.BankAccount;
 
+import java.io.Serializable;
 import java.util.Optional;
 
-interface CashbackStrategy {
+interface CashbackStrategy extends Serializable {
     /**
      * Registers a transaction made by a bank account to a merchant.
      *
@@ -1,29 +1,10 @@
 package org.poo.bank.merchant;
 
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
 
-import java.util.function.Function;
-
-@RequiredArgsConstructor
 public enum CashbackType {
-    TRANSACTION_BASED(Merchant.TransactionBasedCashback::create),
-    SPENDING_BASED(merchant -> new Merchant.SpendingBasedCashback());
-
-    private final Function<Merchant, CashbackStrategy> strategyClass;
-
-    /**
-     * Creates a new instance of the strategy class.
-     *
-     * @return a new instance of the strategy class
-     */
-    public CashbackStrategy createStrategy(final Merchant merchant) {
-        try {
-            return strategyClass.apply(merchant);
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
-    }
+    TRANSACTION_BASED,
+    SPENDING_BASED;
 
     /**
      * Get the cashback type from the given string.
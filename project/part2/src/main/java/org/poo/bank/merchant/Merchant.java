@@ -8,12 +8,18 @@ import org.poo.bank.account.BankAccount;
 import org.poo.bank.servicePlan.ServicePlanType;
 import org.poo.bank.type.IBAN;
 
-import java.util.HashMap;
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class Merchant implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
 
-public final class Merchant {
     @Getter
     private final String name;
     @Getter
@@ -23,8 +29,6 @@ public final class Merchant {
     @Getter
     private final MerchantType type;
     private CashbackStrategy cashbackStrategy;
-    private final Map<BankAccount, BankAccountData> bankAccountData = new HashMap<>();
-
 
     @Builder
     private Merchant(final String name, final int id, final IBAN accountIban,
@@ -37,27 +41,8 @@ public final class Merchant {
         this.cashbackStrategy = cashbackStrategy;
     }
 
-    /**
-     * Creates a new builder with the given cashback type.
-     * This is currently used for the transaction-based cashback strategy.
-     *
-     * @param cashbackType the cashback type to be used by the builder
-     * @return a new builder with the given cashback type
-     */
-    static MerchantBuilder builderWithCashbackType(final CashbackType cashbackType) {
-        return new MerchantBuilder() {
-            @Override
-            public Merchant build() {
-                Merchant merchant = super.build();
-                merchant.cashbackStrategy = cashbackType.createStrategy(merchant);
-                return merchant;
-            }
-        };
-    }
-
     /**
      * Creates a new builder with the given cashback strategy.
-     * This is currently used for the spending-based cashback strategy.
      *
      * @param cashbackStrategy the cashback strategy to be used by the builder
      * @return a new builder with the given cashback strategy
@@ -74,43 +59,36 @@ public final class Merchant {
         };
     }
 
-    private BankAccountData getBankAccountData(final BankAccount bankAccount) {
-        return bankAccountData.computeIfAbsent(bankAccount, k -> new BankAccountData());
-    }
-
     Optional<Cashback> registerTransaction(final BankAccount bankAccount, final double amount) {
         return cashbackStrategy.registerTransaction(bankAccount, amount);
     }
 
-    private static final class BankAccountData {
-        private int totalTransactions;
-        private double totalAmount;
-
-        public void registerTransaction(final double amount) {
-            totalTransactions++;
-            totalAmount += amount;
-        }
-    }
-
+    /**
+     * Cashback received after a number of transactions to the merchant.
+     * The transactions of each account are counted in the {@link TransactionCounters} of the
+     * bank, shared by all the merchants.
+     */
     @RequiredArgsConstructor
-    final class TransactionBasedCashback implements CashbackStrategy {
+    static final class TransactionBasedCashback implements CashbackStrategy {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
         private static final Map<Integer, TransactionCashback> DISCOUNTS =
                 Map.of(2, new TransactionCashback(0.02, MerchantType.FOOD),
                         5, new TransactionCashback(0.05, MerchantType.CLOTHES),
                         10, new TransactionCashback(0.1, MerchantType.TECH));
 
+        private final TransactionCounters transactionCounters;
         /**
-         * Creates a new instance of the TransactionBasedCashback class.
-         *
-         * @param merchant the merchant for which the cashback strategy is created
-         * @return a new instance of the TransactionBasedCashback class
+         * The index of the merchant in the transaction counters
          */
-        static TransactionBasedCashback create(final Merchant merchant) {
-            return merchant.new TransactionBasedCashback();
-        }
+        private final int merchantIndex;
 
         @EqualsAndHashCode(callSuper = true)
         static final class TransactionCashback extends Cashback {
+            @Serial
+            private static final long serialVersionUID = 1L;
+
             TransactionCashback(final double percentage, final MerchantType applicableType) {
                 super(percentage, applicableType);
             }
@@ -130,49 +108,56 @@ public final class Merchant {
         @Override
         public Optional<Cashback> registerTransaction(final BankAccount bankAccount,
                                                       final double amount) {
-            BankAccountData data = getBankAccountData(bankAccount);
-            data.registerTransaction(amount);
+            int totalTransactions = transactionCounters.registerTransaction(merchantIndex,
+                    bankAccount.getId(), amount);
 
             // Return the discount if the user has reached the required number of transactions
-            return Optional.ofNullable(DISCOUNTS.get(data.totalTransactions));
+            return Optional.ofNullable(DISCOUNTS.get(totalTransactions));
         }
     }
 
     @RequiredArgsConstructor
     static final class SpendingBasedCashback implements CashbackStrategy {
-        // The thresholds for the spending-based cashback in RON
-        private static final List<Double> THRESHOLDS = List.of(100.0, 300.0, 500.0);
-        // The cashback rules for each threshold and service plan
-        private static final Map<Double, Map<ServicePlanType, Double>> CASHBACK_RULES = Map.of(
-                100.0, Map.of(
-                        ServicePlanType.STUDENT, 0.001,
-                        ServicePlanType.STANDARD, 0.001,
-                        ServicePlanType.SILVER, 0.003,
-                        ServicePlanType.GOLD, 0.005
-                ),
-                300.0, Map.of(
-                        ServicePlanType.STUDENT, 0.002,
-                        ServicePlanType.STANDARD, 0.002,
-                        ServicePlanType.SILVER, 0.004,
-                        ServicePlanType.GOLD, 0.0055
-                ),
-                500.0, Map.of(
-                        ServicePlanType.STUDENT, 0.0025,
-                        ServicePlanType.STANDARD, 0.0025,
-                        ServicePlanType.SILVER, 0.005,
-                        ServicePlanType.GOLD, 0.007
-                )
-        );
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        // The thresholds for the spending-based cashback in RON, in increasing order
+        private static final double[] THRESHOLDS = {100.0, 300.0, 500.0};
+        // The cashback rates for each threshold, by service plan
+        private static final double[] STANDARD_RATES = {0.001, 0.002, 0.0025};
+        private static final double[] SILVER_RATES = {0.003, 0.004, 0.005};
+        private static final double[] GOLD_RATES = {0.005, 0.0055, 0.007};
+        /**
+         * The cashback for each service plan and threshold reached, indexed by the ordinal of the
+         * service plan and the index of the threshold. The cashbacks do not change, so they are
+         * created once and shared by all the transactions.
+         */
+        private static final List<List<Optional<Cashback>>> CASHBACKS = createCashbacks();
 
         /**
          * The spending data for each bank account.
          * We store this data inside the strategy since the spending-based cashback is common for
          * all merchants of this type.
          */
-        private final Map<BankAccount, Double> accountSpending = new HashMap<>();
+        @SuppressWarnings("serial")
+        private final Map<BankAccount, AccountSpending> accountSpending =
+                new ConcurrentHashMap<>();
+
+        /**
+         * The total amount spent by an account, updated in place.
+         */
+        private static final class AccountSpending implements Serializable {
+            @Serial
+            private static final long serialVersionUID = 1L;
+
+            private double total;
+        }
 
         @EqualsAndHashCode(callSuper = true)
         static final class SpendingCashback extends Cashback {
+            @Serial
+            private static final long serialVersionUID = 1L;
+
             SpendingCashback(final double percentage) {
                 super(percentage, null);
             }
@@ -188,28 +173,47 @@ public final class Merchant {
             }
         }
 
+        private static double[] getRates(final ServicePlanType servicePlanType) {
+            return switch (servicePlanType) {
+                case STANDARD, STUDENT -> STANDARD_RATES;
+                case SILVER -> SILVER_RATES;
+                case GOLD -> GOLD_RATES;
+            };
+        }
+
+        private static List<List<Optional<Cashback>>> createCashbacks() {
+            return Arrays.stream(ServicePlanType.values())
+                    .map(servicePlanType -> Arrays.stream(getRates(servicePlanType))
+                            .mapToObj(rate -> rate > 0
+                                    ? Optional.<Cashback>of(new SpendingCashback(rate))
+                                    : Optional.<Cashback>empty())
+                            .toList())
+                    .toList();
+        }
+
         @Override
         public Optional<Cashback> registerTransaction(final BankAccount bankAccount,
                                                       final double amount) {
-            accountSpending.put(bankAccount,
-                    accountSpending.getOrDefault(bankAccount, 0.0) + amount);
-
-            double discountPercentage = THRESHOLDS.stream()
-                    .filter(threshold -> accountSpending.get(bankAccount) >= threshold)
-                    .reduce((first, second) -> second)
-                    .map(threshold ->
-                            CASHBACK_RULES.get(threshold)
-                                    .get(bankAccount.getOwner().getServicePlan()
-                                            .getServicePlanType())
-                    )
-                    .orElse(0.0);
-
-
-            if (discountPercentage > 0) {
-                return Optional.of(new SpendingCashback(discountPercentage));
+            AccountSpending spending =
+                    accountSpending.computeIfAbsent(bankAccount, k -> new AccountSpending());
+            double total;
+            synchronized (spending) {
+                spending.total += amount;
+                total = spending.total;
+            }
+
+            // Find the last threshold reached
+            int tier = THRESHOLDS.length - 1;
+            while (tier >= 0 && total < THRESHOLDS[tier]) {
+                tier--;
+            }
+            if (tier < 0) {
+                return Optional.empty();
             }
 
-            return Optional.empty();
+            ServicePlanType servicePlanType =
+                    bankAccount.getOwner().getServicePlan().getServicePlanType();
+            return CASHBACKS.get(servicePlanType.ordinal()).get(tier);
         }
     }
 
@@ -3,17 +3,31 @@ package org.poo.bank.merchant;
 import org.poo.bank.account.BankAccount;
 import org.poo.bank.type.IBAN;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.io.Serial;
+import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public final class MerchantService implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
 
-public final class MerchantService {
     private final CashbackService cashbackService = new CashbackService();
-    private final Map<IBAN, Merchant> ibanMapping = new HashMap<>();
-    private final Map<String, Merchant> nameMapping = new HashMap<>();
-    private final Map<MerchantType, List<Merchant>> typeMapping = new HashMap<>();
+    @SuppressWarnings("serial")
+    private final Map<IBAN, Merchant> ibanMapping = new ConcurrentHashMap<>();
+    @SuppressWarnings("serial")
+    private final Map<String, Merchant> nameMapping = new ConcurrentHashMap<>();
+    @SuppressWarnings("serial")
+    private final Map<MerchantType, List<Merchant>> typeMapping = new ConcurrentHashMap<>();
+    /**
+     * The transaction counters of all the merchants that use the transaction based cashback
+     * strategy. Each merchant is identified in the counters by its index: the number of
+     * merchants created before it.
+     */
+    private final TransactionCounters transactionCounters = new TransactionCounters();
 
     /**
      * The spending based cashback strategy.
@@ -31,32 +45,30 @@ public final class MerchantService {
      * @param type         the type of the merchant
      * @param cashbackType the cashback type used by the merchant
      */
-    public void createMerchant(final String name, final int id, final IBAN accountIban,
-                               final MerchantType type, final CashbackType cashbackType) {
+    public synchronized void createMerchant(final String name, final int id,
+                                            final IBAN accountIban, final MerchantType type,
+                                            final CashbackType cashbackType) {
+        // Synchronized, so the name and IBAN checks and the registration are atomic
         if (nameMapping.containsKey(name) || ibanMapping.containsKey(accountIban)) {
             throw new IllegalArgumentException("Merchant already exists");
         }
 
-        Merchant merchant = switch (cashbackType) {
-            case TRANSACTION_BASED -> Merchant.builderWithCashbackType(cashbackType)
-                    .name(name)
-                    .id(id)
-                    .accountIban(accountIban)
-                    .type(type)
-                    .build();
-
-            case SPENDING_BASED -> Merchant.builderWithCashbackStrategy(spendingBasedCashback)
-                    .name(name)
-                    .id(id)
-                    .accountIban(accountIban)
-                    .type(type)
-                    .build();
-
+        CashbackStrategy cashbackStrategy = switch (cashbackType) {
+            case TRANSACTION_BASED -> new Merchant.TransactionBasedCashback(transactionCounters,
+                    ibanMapping.size());
+            case SPENDING_BASED -> spendingBasedCashback;
         };
 
+        Merchant merchant = Merchant.builderWithCashbackStrategy(cashbackStrategy)
+                .name(name)
+                .id(id)
+                .accountIban(accountIban)
+                .type(type)
+                .build();
+
         ibanMapping.put(accountIban, merchant);
         nameMapping.put(name, merchant);
-        typeMapping.computeIfAbsent(type, k -> new ArrayList<>()).add(merchant);
+        typeMapping.computeIfAbsent(type, k -> new CopyOnWriteArrayList<>()).add(merchant);
     }
 
     /**
@@ -0,0 +1,105 @@
+package org.poo.bank.merchant;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * The number and total amount of the transactions made by each bank account to each merchant.
+ * <p>
+ * The counters of all the (merchant, account) pairs of a bank are kept in a single open-addressing
+ * table, with linear probing. The key of a pair packs the index of the merchant and the id of the
+ * account in a {@code long}, and the counters are stored in parallel primitive arrays, so a pair
+ * takes a slot of 20 bytes instead of a map entry and an object.
+ * <p>
+ * Pairs are never removed. Registering a transaction is synchronized, since the transactions
+ * made to different merchants share the table.
+ */
+final class TransactionCounters implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private static final long EMPTY = -1;
+    private static final int INITIAL_CAPACITY = 1 << 10;
+    private static final int MAX_CAPACITY = 1 << 30;
+    // The table grows when it is more than 3/4 full
+    private static final int LOAD_NUMERATOR = 3;
+    private static final int LOAD_DENOMINATOR = 4;
+    // Spreads the keys over the table (the 64-bit golden ratio)
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private long[] keys = newKeys(INITIAL_CAPACITY);
+    private int[] counts = new int[INITIAL_CAPACITY];
+    private double[] amounts = new double[INITIAL_CAPACITY];
+    private int size = 0;
+
+    /**
+     * Registers a transaction made by an account to a merchant.
+     *
+     * @param merchantIndex the index of the merchant
+     * @param accountId     the id of the account
+     * @param amount        the amount of the transaction in RON
+     * @return the number of transactions made by the account to the merchant, including this one
+     */
+    synchronized int registerTransaction(final int merchantIndex, final int accountId,
+                                         final double amount) {
+        long key = toKey(merchantIndex, accountId);
+        int slot = find(key);
+        if (keys[slot] == EMPTY) {
+            if ((size + 1) * LOAD_DENOMINATOR > keys.length * LOAD_NUMERATOR) {
+                grow();
+                slot = find(key);
+            }
+            keys[slot] = key;
+            size++;
+        }
+        amounts[slot] += amount;
+        return ++counts[slot];
+    }
+
+    private static long toKey(final int merchantIndex, final int accountId) {
+        if (merchantIndex < 0 || accountId < 0) {
+            throw new IllegalArgumentException("Negative merchant index or account id");
+        }
+        return (long) merchantIndex << Integer.SIZE | accountId;
+    }
+
+    private static long[] newKeys(final int capacity) {
+        long[] newKeys = new long[capacity];
+        Arrays.fill(newKeys, EMPTY);
+        return newKeys;
+    }
+
+    /**
+     * Finds the slot of the given key, or the empty slot where it should be inserted.
+     */
+    private int find(final long key) {
+        int mask = keys.length - 1;
+        int slot = (int) ((key * HASH_MULTIPLIER) >>> Integer.SIZE) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        if (keys.length == MAX_CAPACITY) {
+            throw new IllegalStateException("Too many transaction counters");
+        }
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        double[] oldAmounts = amounts;
+
+        keys = newKeys(oldKeys.length * 2);
+        counts = new int[keys.length];
+        amounts = new double[keys.length];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = find(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+                amounts[slot] = oldAmounts[i];
+            }
+        }
+    }
+}
@@ -3,7 +3,21 @@ package org.poo.bank.operation;
 import lombok.NonNull;
 import org.poo.bank.Bank;
 
-public abstract class BankOperation<T> {
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Optional;
+
+/**
+ * An operation performed by the bank.
+ * Operations are serializable, so that the ones changing the state of the bank can be written to
+ * a {@link org.poo.bank.journal.BankJournal} and replayed.
+ *
+ * @param <T> the type of the result payload
+ */
+public abstract class BankOperation<T> implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     /**
      * Execute the operation
      *
@@ -15,6 +29,10 @@ public abstract class BankOperation<T> {
             throws BankOperationException {
         try {
             BankOperationRegistry.validateOperation(this);
+            if (isReadOnly()) {
+                // Wait until the events of earlier transactions (e.g. cashbacks) are handled
+                context.eventService().flush();
+            }
             return internalExecute(context);
         } catch (BankOperationException e) {
             throw e;
@@ -36,6 +54,31 @@ public abstract class BankOperation<T> {
         return bank.processOperation(this);
     }
 
+    /**
+     * Check if the operation only reads the state of the bank. Read-only operations are not
+     * journaled, and they wait until the events posted by earlier operations are handled before
+     * they are executed.
+     *
+     * @return {@code true} if the operation does not change the state of the bank
+     */
+    public boolean isReadOnly() {
+        return false;
+    }
+
+    /**
+     * Get the resources the operation reads and writes, found from the current state of the bank.
+     * Operations without a footprint may touch any state of the bank.
+     *
+     * @param context the bank operation context used for finding the resources
+     * @return an {@link Optional} containing the footprint of the operation, or an
+     * {@link Optional#empty()} if the operation may touch shared state
+     * @throws BankOperationException if a resource named by the operation does not exist
+     */
+    public Optional<BankOperationFootprint> getFootprint(final BankOperationContext context)
+            throws BankOperationException {
+        return Optional.empty();
+    }
+
     protected abstract BankOperationResult<T> internalExecute(BankOperationContext context)
             throws BankOperationException;
 }
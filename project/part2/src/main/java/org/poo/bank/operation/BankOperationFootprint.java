@@ -0,0 +1,235 @@
+package org.poo.bank.operation;
+
+import org.poo.bank.account.BankAccount;
+import org.poo.bank.account.UserAccount;
+import org.poo.bank.type.CardNumber;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The bank resources (accounts, users, cards, aliases) an operation reads and writes.
+ * <p>
+ * Two operations whose footprints do not conflict can be executed in any order, or at the same
+ * time, with the same results.
+ * <p>
+ * A footprint is found from the state of the bank when it is computed: the accounts are
+ * identified by their IBAN, whether the operation names them by IBAN, alias or card number. The
+ * entries looked up to find them (aliases, card numbers, pending split payments) are kept as
+ * lookups. An operation that writes one of them may change the footprint of a later operation,
+ * which must be computed again once it was executed.
+ *
+ * @param reads   the keys of the resources read by the operation
+ * @param writes  the keys of the resources written by the operation
+ * @param lookups the keys of the entries the footprint was found from
+ */
+public record BankOperationFootprint(Set<String> reads, Set<String> writes, Set<String> lookups) {
+    private static final String ID_GENERATOR_KEY = "ids";
+
+    public BankOperationFootprint {
+        reads = Set.copyOf(reads);
+        writes = Set.copyOf(writes);
+        lookups = Set.copyOf(lookups);
+    }
+
+    /**
+     * Creates a builder of footprints.
+     *
+     * @return the builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Checks if this footprint conflicts with another one, i.e. if one of the operations writes a
+     * resource the other one reads, writes or looks up.
+     *
+     * @param other the other footprint
+     * @return {@code true} if the footprints conflict, {@code false} otherwise
+     */
+    public boolean conflictsWith(final BankOperationFootprint other) {
+        return !Collections.disjoint(writes, other.writes)
+                || !Collections.disjoint(writes, other.reads)
+                || !Collections.disjoint(writes, other.lookups)
+                || !Collections.disjoint(reads, other.writes)
+                || dependsOn(other);
+    }
+
+    /**
+     * Checks if this footprint may change once an earlier operation with the given footprint is
+     * executed, i.e. if that operation writes an entry this footprint was found from.
+     *
+     * @param earlier the footprint of the earlier operation
+     * @return {@code true} if this footprint must be computed again after the earlier operation
+     */
+    public boolean dependsOn(final BankOperationFootprint earlier) {
+        return !Collections.disjoint(lookups, earlier.writes);
+    }
+
+    /**
+     * Builder of {@link BankOperationFootprint}s.
+     */
+    public static final class Builder {
+        private final Set<String> reads = new HashSet<>();
+        private final Set<String> writes = new HashSet<>();
+        private final Set<String> lookups = new HashSet<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Adds an account read by the operation.
+         *
+         * @param account the account
+         * @return this builder
+         */
+        public Builder readsAccount(final BankAccount account) {
+            reads.add("account:" + account.getIban());
+            return this;
+        }
+
+        /**
+         * Adds an account written by the operation: its balance, limits, cards, logs, etc.
+         *
+         * @param account the account
+         * @return this builder
+         */
+        public Builder writesAccount(final BankAccount account) {
+            writes.add("account:" + account.getIban());
+            return this;
+        }
+
+        /**
+         * Adds a user read by the operation, e.g. its service plan.
+         *
+         * @param user the user
+         * @return this builder
+         */
+        public Builder readsUser(final UserAccount user) {
+            reads.add("user:" + user.getEmail());
+            return this;
+        }
+
+        /**
+         * Adds a user written by the operation, e.g. its service plan.
+         *
+         * @param user the user
+         * @return this builder
+         */
+        public Builder writesUser(final UserAccount user) {
+            writes.add("user:" + user.getEmail());
+            return this;
+        }
+
+        /**
+         * Adds the generator of IBANs and card numbers, used by the operations that create
+         * accounts or cards. The generated ids depend on the order in which they are created.
+         *
+         * @return this builder
+         */
+        public Builder writesIdGenerator() {
+            writes.add(ID_GENERATOR_KEY);
+            return this;
+        }
+
+        /**
+         * Adds the generator of IBANs and card numbers, looked up by an operation that fails
+         * because a card does not exist: an operation that generates ids may create it.
+         *
+         * @return this builder
+         */
+        public Builder looksUpIdGenerator() {
+            lookups.add(ID_GENERATOR_KEY);
+            return this;
+        }
+
+        /**
+         * Adds a card number the operation looks up.
+         *
+         * @param number the card number
+         * @return this builder
+         */
+        public Builder looksUpCard(final CardNumber number) {
+            lookups.add(cardKey(number));
+            return this;
+        }
+
+        /**
+         * Adds a card number the operation removes.
+         *
+         * @param number the card number
+         * @return this builder
+         */
+        public Builder writesCard(final CardNumber number) {
+            writes.add(cardKey(number));
+            return this;
+        }
+
+        /**
+         * Adds an alias the operation looks up. An IBAN is looked up as an alias first.
+         *
+         * @param alias the alias
+         * @return this builder
+         */
+        public Builder looksUpAlias(final String alias) {
+            lookups.add(aliasKey(alias));
+            return this;
+        }
+
+        /**
+         * Adds an alias the operation sets.
+         *
+         * @param alias the alias
+         * @return this builder
+         */
+        public Builder writesAlias(final String alias) {
+            writes.add(aliasKey(alias));
+            return this;
+        }
+
+        /**
+         * Adds the pending split payments of a user, looked up by the operation.
+         *
+         * @param user the user
+         * @return this builder
+         */
+        public Builder looksUpSplitPayments(final UserAccount user) {
+            lookups.add(splitPaymentsKey(user));
+            return this;
+        }
+
+        /**
+         * Adds the pending split payments of a user, changed by the operation.
+         *
+         * @param user the user
+         * @return this builder
+         */
+        public Builder writesSplitPayments(final UserAccount user) {
+            writes.add(splitPaymentsKey(user));
+            return this;
+        }
+
+        /**
+         * Builds the footprint.
+         *
+         * @return the footprint
+         */
+        public BankOperationFootprint build() {
+            return new BankOperationFootprint(reads, writes, lookups);
+        }
+
+        private static String cardKey(final CardNumber number) {
+            return "card:" + number;
+        }
+
+        private static String aliasKey(final String alias) {
+            return "alias:" + alias;
+        }
+
+        private static String splitPaymentsKey(final UserAccount user) {
+            return "splitPayments:" + user.getEmail();
+        }
+    }
+}
@@ -10,6 +10,7 @@ import org.poo.bank.operation.impl.CashWithdraw;
 import org.poo.bank.operation.impl.ChangeDepositLimit;
 import org.poo.bank.operation.impl.ChangeInterestRate;
 import org.poo.bank.operation.impl.ChangeSpendingLimit;
+import org.poo.bank.operation.impl.ChangeWindowedSpendingLimit;
 import org.poo.bank.operation.impl.CheckCardStatus;
 import org.poo.bank.operation.impl.CollectInterest;
 import org.poo.bank.operation.impl.CreateBankAccount;
@@ -64,6 +65,7 @@ final class BankOperationRegistry {
                     RejectSplitPayment.class,
                     AddBusinessAssociate.class,
                     ChangeSpendingLimit.class,
+                    ChangeWindowedSpendingLimit.class,
                     ChangeDepositLimit.class,
                     BusinessReportQuery.class
             )
@@ -7,14 +7,21 @@ import org.poo.bank.account.UserAccount;
 import org.poo.bank.operation.BankOperation;
 import org.poo.bank.operation.BankOperationContext;
 import org.poo.bank.operation.BankOperationException;
+import org.poo.bank.operation.BankOperationFootprint;
 import org.poo.bank.operation.BankOperationResult;
 import org.poo.bank.operation.util.BankOperationUtils;
 import org.poo.bank.splitPayment.SplitPaymentType;
 import org.poo.bank.type.Email;
 
+import java.io.Serial;
+import java.util.Optional;
+
 @Builder
 @RequiredArgsConstructor
 public final class AcceptSplitPayment extends BankOperation<Void> {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     @NonNull
     private final Integer timestamp;
     @NonNull
@@ -22,6 +29,13 @@ public final class AcceptSplitPayment extends BankOperation<Void> {
     @NonNull
     private final SplitPaymentType splitPaymentType;
 
+    @Override
+    public Optional<BankOperationFootprint> getFootprint(final BankOperationContext context)
+            throws BankOperationException {
+        return Optional.of(BankOperationUtils.getSplitPaymentFootprint(context, ownerEmail,
+                splitPaymentType));
+    }
+
     @Override
     protected BankOperationResult<Void> internalExecute(final BankOperationContext context)
             throws BankOperationException {
@@ -17,9 +17,14 @@ import org.poo.bank.operation.util.BankOperationUtils;
 import org.poo.bank.type.Email;
 import org.poo.bank.type.IBAN;
 
+import java.io.Serial;
+
 @Builder
 @RequiredArgsConstructor
 public final class AddBusinessAssociate extends BankOperation<Void> {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     @NonNull
     private final IBAN accountIban;
     @NonNull
@@ -43,7 +48,7 @@ public final class AddBusinessAssociate extends BankOperation<Void> {
 
         BusinessAccount businessAccount = (BusinessAccount) bankAccount;
         // Check if the user is already a member of the business account
-        if (businessAccount.getAccountMembers().contains(userAccount)) {
+        if (businessAccount.isMember(userAccount)) {
             return BankOperationResult.silentError(BankErrorType.INVALID_OPERATION,
                     "User is already a member of the business account");
         }
@@ -15,14 +15,21 @@ import org.poo.bank.log.impl.DepositLog;
 import org.poo.bank.operation.BankOperation;
 import org.poo.bank.operation.BankOperationContext;
 import org.poo.bank.operation.BankOperationException;
+import org.poo.bank.operation.BankOperationFootprint;
 import org.poo.bank.operation.BankOperationResult;
 import org.poo.bank.operation.util.BankOperationUtils;
 import org.poo.bank.type.Email;
 import org.poo.bank.type.IBAN;
 
+import java.io.Serial;
+import java.util.Optional;
+
 @Builder
 @RequiredArgsConstructor
 public final class AddFunds extends BankOperation<Void> {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     @NonNull
     private final IBAN accountIban;
     @NonNull
@@ -32,6 +39,14 @@ public final class AddFunds extends BankOperation<Void> {
     @NonNull
     private final Integer timestamp;
 
+    @Override
+    public Optional<BankOperationFootprint> getFootprint(final BankOperationContext context)
+            throws BankOperationException {
+        return Optional.of(BankOperationFootprint.builder()
+                .writesAccount(BankOperationUtils.getBankAccountByIban(context, accountIban))
+                .build());
+    }
+
     @Override
     protected BankOperationResult<Void> internalExecute(final BankOperationContext context)
             throws BankOperationException {
@@ -11,9 +11,14 @@ import org.poo.bank.operation.BankOperationException;
 import org.poo.bank.operation.BankOperationResult;
 import org.poo.bank.type.IBAN;
 
+import java.io.Serial;
+
 @Builder
 @RequiredArgsConstructor
 public final class AddMerchant extends BankOperation<Void> {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     @NonNull
     private final String name;
     @NonNull
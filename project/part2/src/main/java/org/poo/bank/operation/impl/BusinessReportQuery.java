@@ -8,17 +8,13 @@ import org.poo.bank.account.BankAccountType;
 import org.poo.bank.account.BusinessAccount;
 import org.poo.bank.account.BusinessAccountRole;
 import org.poo.bank.account.UserAccount;
-import org.poo.bank.log.AuditLog;
-import org.poo.bank.log.AuditLogStatus;
-import org.poo.bank.log.AuditLogType;
-import org.poo.bank.log.impl.TransferLog;
-import org.poo.bank.log.interfaces.TransactionLog;
-import org.poo.bank.log.interfaces.UserTransactionLog;
+import org.poo.bank.log.BusinessAccountLedger;
 import org.poo.bank.merchant.Merchant;
 import org.poo.bank.operation.BankErrorType;
 import org.poo.bank.operation.BankOperation;
 import org.poo.bank.operation.BankOperationContext;
 import org.poo.bank.operation.BankOperationException;
+import org.poo.bank.operation.BankOperationFootprint;
 import org.poo.bank.operation.BankOperationResult;
 import org.poo.bank.operation.util.BankOperationUtils;
 import org.poo.bank.report.business.BusinessReport;
@@ -27,18 +23,20 @@ import org.poo.bank.report.business.impl.MerchantBusinessReport;
 import org.poo.bank.report.business.impl.TransactionBusinessReport;
 import org.poo.bank.type.IBAN;
 
+import java.io.Serial;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.function.Function;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 @Builder
 @RequiredArgsConstructor
 public final class BusinessReportQuery extends BankOperation<BusinessReport> {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     @NonNull
     private final IBAN accountIban;
     @NonNull
@@ -48,6 +46,19 @@ public final class BusinessReportQuery extends BankOperation<BusinessReport> {
     @NonNull
     private final Integer endTimestamp;
 
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+
+    @Override
+    public Optional<BankOperationFootprint> getFootprint(final BankOperationContext context)
+            throws BankOperationException {
+        return Optional.of(BankOperationFootprint.builder()
+                .readsAccount(BankOperationUtils.getBankAccountByIban(context, accountIban))
+                .build());
+    }
+
     @Override
     protected BankOperationResult<BusinessReport> internalExecute(
             final BankOperationContext context)
@@ -72,75 +83,46 @@ public final class BusinessReportQuery extends BankOperation<BusinessReport> {
         }
     }
 
-    private MerchantBusinessReport getMerchantReport(final BankOperationContext context,
-                                                     final BusinessAccount businessAccount) {
-        List<AuditLog> logs =
-                context.auditLogService().getLogs(accountIban, startTimestamp, endTimestamp)
-                        .stream().filter(log -> log.getLogStatus() == AuditLogStatus.SUCCESS)
-                        .toList();
+    private BusinessAccountLedger getLedger(final BankOperationContext context) {
+        return context.auditLogService().getLedger(accountIban)
+                .orElseGet(BusinessAccountLedger::new);
+    }
 
-        record UserEntry(UserAccount userAccount, double amount) {
-        }
+    private static String getMemberName(final UserAccount member) {
+        return member.getLastName() + " " + member.getFirstName();
+    }
 
-        // Group all user transactions by merchant
-        Map<Merchant, List<UserEntry>> merchantTransactions = Stream.concat(
-                        logs.stream()
-                                .filter(log -> log.getLogType() == AuditLogType.CARD_PAYMENT)
-                                .map(log -> (TransactionLog) log),
-                        logs.stream()
-                                .filter(log -> log.getLogType() == AuditLogType.TRANSFER)
-                                .map(log -> (TransferLog) log)
-                                .filter(log -> log.getTransferType()
-                                        == TransferLog.TransferType.SENT)
-                                .filter(log -> log.getRecipientMerchant().isPresent()))
-                .filter(log -> businessAccount.getRole(log.getSenderUserAccount().get())
-                        .get() != BusinessAccountRole.OWNER)
-                .collect(Collectors.groupingBy(
-                        log -> log.getRecipientMerchant().get(),
-                        Collectors.mapping(
-                                log -> new UserEntry(log.getSenderUserAccount().get(),
-                                        log.getAmount()),
-                                Collectors.toList())));
+    private MerchantBusinessReport getMerchantReport(final BankOperationContext context,
+                                                     final BusinessAccount businessAccount) {
+        // The payments of the members (except the owner) by merchant, a total for every distinct
+        // amount paid by a member
+        Map<Merchant, Map<BusinessAccountLedger.MerchantPayment, Double>> merchantPayments =
+                getLedger(context).getMerchantPayments(startTimestamp, endTimestamp,
+                        member -> isReported(businessAccount, member));
 
         // Generate the merchant reports, sorted by the merchant name
         List<MerchantBusinessReport.MerchantReport> merchantReports =
-                merchantTransactions.entrySet().stream()
+                merchantPayments.entrySet().stream()
                         .sorted(Comparator.comparing(entry -> entry.getKey().getName()))
                         .map(entry -> {
-                            Merchant merchant = entry.getKey();
-                            Map<UserEntry, Double> userEntries = entry.getValue().stream()
-                                    .collect(Collectors.groupingBy(Function.identity(),
-                                            Collectors.summingDouble(UserEntry::amount)));
+                            Map<BusinessAccountLedger.MerchantPayment, Double> payments =
+                                    entry.getValue();
                             return MerchantBusinessReport.MerchantReport.builder()
-                                    .merchantName(merchant.getName())
+                                    .merchantName(entry.getKey().getName())
                                     .totalReceived(
-                                            userEntries.values().stream()
+                                            payments.values().stream()
                                                     .mapToDouble(Double::doubleValue)
                                                     .sum())
-                                    .employees(
-                                            userEntries.keySet().stream()
-                                                    .filter(userEntry ->
-                                                            businessAccount.getRole(
-                                                                            userEntry.userAccount)
-                                                                    .get()
-                                                                    == BusinessAccountRole.EMPLOYEE)
-                                                    .map(userEntry -> String.format("%s %s",
-                                                            userEntry.userAccount().getLastName(),
-                                                            userEntry.userAccount().getFirstName()))
-                                                    .toList()
-                                    )
-                                    .managers(
-                                            userEntries.keySet().stream()
-                                                    .filter(userEntry ->
-                                                            businessAccount.getRole(
-                                                                            userEntry.userAccount)
-                                                                    .get()
-                                                                    == BusinessAccountRole.MANAGER)
-                                                    .map(userEntry -> String.format("%s %s",
-                                                            userEntry.userAccount().getLastName(),
-                                                            userEntry.userAccount().getFirstName()))
-                                                    .toList()
-                                    )
+                                    .employees(getMemberNames(businessAccount,
+                                            payments.keySet().stream()
+                                                    .map(BusinessAccountLedger
+                                                            .MerchantPayment::member),
+                                            BusinessAccountRole.EMPLOYEE))
+                                    .managers(getMemberNames(businessAccount,
+                                            payments.keySet().stream()
+                                                    .map(BusinessAccountLedger
+                                                            .MerchantPayment::member),
+                                            BusinessAccountRole.MANAGER))
                                     .build();
                         }).toList();
         return MerchantBusinessReport.builder()
@@ -154,51 +136,41 @@ public final class BusinessReportQuery extends BankOperation<BusinessReport> {
                 .build();
     }
 
+    /**
+     * Checks if the transactions of a member are included in the reports. The owner is not
+     * included.
+     */
+    private static boolean isReported(final BusinessAccount businessAccount,
+                                      final UserAccount member) {
+        return businessAccount.getRole(member).get() != BusinessAccountRole.OWNER;
+    }
+
+    private static List<String> getMemberNames(final BusinessAccount businessAccount,
+                                               final Stream<UserAccount> members,
+                                               final BusinessAccountRole role) {
+        return members
+                .filter(member -> businessAccount.getRole(member).get() == role)
+                .map(BusinessReportQuery::getMemberName)
+                .toList();
+    }
+
     private TransactionBusinessReport getTransactionReport(final BankOperationContext context,
                                                            final BusinessAccount businessAccount) {
-        List<AuditLog> logs =
-                context.auditLogService().getLogs(accountIban, startTimestamp, endTimestamp);
-
-        // Group all user transactions by user, filtering based on a predicate, and sum the amounts
-        Function<Predicate<AuditLog>, Map<UserAccount, Double>> groupAndSumLogsByUser =
-                (logFilter) ->
-                        logs.stream()
-                                .filter(logFilter)
-                                .filter(log -> log.getLogStatus() == AuditLogStatus.SUCCESS)
-                                .map(log -> (UserTransactionLog) log)
-                                .filter(log ->
-                                        businessAccount.getRole(log.getSenderUserAccount().get())
-                                                .get()
-                                                != BusinessAccountRole.OWNER)
-                                .collect(Collectors.groupingBy(
-                                        log -> log.getSenderUserAccount().get(),
-                                        Collectors.summingDouble(UserTransactionLog::getAmount)));
-
-        // Group all user spending's
-        Map<UserAccount, Double> memberSpendings = groupAndSumLogsByUser.apply(
-                log -> log.getLogType() == AuditLogType.CARD_PAYMENT
-                        || (log.getLogType() == AuditLogType.TRANSFER
-                        && ((TransferLog) log).getTransferType() == TransferLog.TransferType.SENT));
-
-        // Group all user deposits
-        Map<UserAccount, Double> memberDeposits = groupAndSumLogsByUser.apply(
-                log -> log.getLogType() == AuditLogType.DEPOSIT);
-
-        // Set the order of the members based on the order they were added to the account
-        List<UserAccount> accountMembers = businessAccount.getAccountMembers();
-        Map<UserAccount, Integer> membersOrder = IntStream.range(0, accountMembers.size())
-                .boxed()
-                .collect(Collectors.toMap(accountMembers::get, Function.identity()));
-
-        // Generate the member reports
+        BusinessAccountLedger ledger = getLedger(context);
+
+        // The totals spent and deposited by the members, except the owner
+        Map<UserAccount, Double> memberSpendings = ledger.getMemberSpendings(startTimestamp,
+                endTimestamp, member -> isReported(businessAccount, member));
+        Map<UserAccount, Double> memberDeposits = ledger.getMemberDeposits(startTimestamp,
+                endTimestamp, member -> isReported(businessAccount, member));
+
+        // Generate the member reports, in the order the members joined the account
         Function<BusinessAccountRole, List<TransactionBusinessReport.MemberReport>>
                 generateMemberReports = (role) ->
                 businessAccount.getAccountMembers().stream()
                         .filter(member -> businessAccount.getRole(member).get() == role)
-                        .sorted(Comparator.comparing(membersOrder::get))
                         .map(member -> TransactionBusinessReport.MemberReport.builder()
-                                .name(String.format("%s %s", member.getLastName(),
-                                        member.getFirstName()))
+                                .name(getMemberName(member))
                                 .spent(memberSpendings.getOrDefault(member, 0.0))
                                 .deposited(memberDeposits.getOrDefault(member, 0.0))
                                 .build())
@@ -224,6 +196,5 @@ public final class BusinessReportQuery extends BankOperation<BusinessReport> {
                 .totalDeposited(
                         memberDeposits.values().stream().mapToDouble(Double::doubleValue).sum())
                 .build();
-
     }
 }
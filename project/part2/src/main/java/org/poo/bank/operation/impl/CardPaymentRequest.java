@@ -16,6 +16,7 @@ import org.poo.bank.operation.BankErrorType;
 import org.poo.bank.operation.BankOperation;
 import org.poo.bank.operation.BankOperationContext;
 import org.poo.bank.operation.BankOperationException;
+import org.poo.bank.operation.BankOperationFootprint;
 import org.poo.bank.operation.BankOperationResult;
 import org.poo.bank.log.AuditLogStatus;
 import org.poo.bank.operation.util.BankOperationUtils;
@@ -26,9 +27,15 @@ import org.poo.bank.type.CardNumber;
 import org.poo.bank.type.Currency;
 import org.poo.bank.type.Email;
 
+import java.io.Serial;
+import java.util.Optional;
+
 @Builder
 @RequiredArgsConstructor
 public final class CardPaymentRequest extends BankOperation<Void> {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     @NonNull
     private final CardNumber cardNumber;
     @NonNull
@@ -44,6 +51,26 @@ public final class CardPaymentRequest extends BankOperation<Void> {
     @NonNull
     private final Integer timestamp;
 
+    @Override
+    public Optional<BankOperationFootprint> getFootprint(final BankOperationContext context)
+            throws BankOperationException {
+        Optional<Card> card = context.cardService().getCard(cardNumber);
+        if (card.isEmpty()) {
+            return Optional.of(BankOperationUtils.getMissingCardFootprint(cardNumber));
+        }
+        BankAccount bankAccount = card.get().getLinkedAccount();
+        // The service plan of the owner sets the commission, and the payment may upgrade it
+        BankOperationFootprint.Builder footprint = BankOperationFootprint.builder()
+                .looksUpCard(cardNumber)
+                .writesAccount(bankAccount)
+                .writesUser(bankAccount.getOwner());
+        if (card.get().getType() == CardType.SINGLE_USE) {
+            // The card is replaced by a new one, with a generated number
+            footprint.writesCard(cardNumber).writesIdGenerator();
+        }
+        return Optional.of(footprint.build());
+    }
+
     @Override
     protected BankOperationResult<Void> internalExecute(final BankOperationContext context)
             throws BankOperationException {
@@ -62,13 +89,13 @@ public final class CardPaymentRequest extends BankOperation<Void> {
                         amount);
         double amountWithCommission =
                 BankOperationUtils.calculateAmountWithCommission(context,
-                        bankAccount.getOwner().getServicePlan(),
+                        BankOperationUtils.getServicePlan(context, bankAccount.getOwner()),
                         convertedAmount, bankAccount.getCurrency());
 
         // Validate permissions
         if (bankAccount.getType() == BankAccountType.BUSINESS) {
             BusinessAccount businessAccount = (BusinessAccount) bankAccount;
-            if (!businessAccount.getAccountMembers().contains(userAccount)) {
+            if (!businessAccount.isMember(userAccount)) {
                 //  I don't know why, but this is what the refs say
                 return BankOperationResult.error(BankErrorType.CARD_NOT_FOUND);
             }
@@ -98,8 +125,12 @@ public final class CardPaymentRequest extends BankOperation<Void> {
         }
 
         try {
-            BankOperationUtils.validateFunds(context, bankAccount, amountWithCommission);
-            BankOperationUtils.removeFunds(context, bankAccount, amountWithCommission);
+            if (bankAccount.getType() == BankAccountType.BUSINESS) {
+                BankOperationUtils.withdrawBusinessFunds(context, (BusinessAccount) bankAccount,
+                        userAccount, amountWithCommission, timestamp);
+            } else {
+                BankOperationUtils.withdrawFunds(context, bankAccount, amountWithCommission);
+            }
 
             AuditLog auditLog = CardPaymentLog.builder()
                     .timestamp(timestamp)
@@ -129,8 +160,11 @@ public final class CardPaymentRequest extends BankOperation<Void> {
                         timestamp).execute(context);
             }
         } catch (BankOperationException e) {
-            BankOperationUtils.logFailedOperation(context, bankAccount, timestamp,
-                    AuditLogType.CARD_PAYMENT, e);
+            // Exceeding a spending limit is not logged, like the other permission checks
+            if (e.getErrorType() != BankErrorType.PERMISSION_DENIED) {
+                BankOperationUtils.logFailedOperation(context, bankAccount, timestamp,
+                        AuditLogType.CARD_PAYMENT, e);
+            }
             return BankOperationResult.silentError(e.getErrorType());
         }
 
@@ -10,6 +10,7 @@ import org.poo.bank.operation.BankErrorType;
 import org.poo.bank.operation.BankOperation;
 import org.poo.bank.operation.BankOperationContext;
 import org.poo.bank.operation.BankOperationException;
+import org.poo.bank.operation.BankOperationFootprint;
 import org.poo.bank.operation.BankOperationResult;
 import org.poo.bank.log.AuditLogStatus;
 import org.poo.bank.operation.util.BankOperationUtils;
@@ -21,9 +22,15 @@ import org.poo.bank.type.Currency;
 import org.poo.bank.type.Email;
 import org.poo.bank.type.Location;
 
+import java.io.Serial;
+import java.util.Optional;
+
 @Builder
 @RequiredArgsConstructor
 public final class CashWithdraw extends BankOperation<Void> {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     @NonNull
     private final CardNumber cardNumber;
     @NonNull
@@ -35,6 +42,22 @@ public final class CashWithdraw extends BankOperation<Void> {
     @NonNull
     private final Integer timestamp;
 
+    @Override
+    public Optional<BankOperationFootprint> getFootprint(final BankOperationContext context)
+            throws BankOperationException {
+        Optional<Card> card = context.cardService().getCard(cardNumber);
+        if (card.isEmpty()) {
+            return Optional.of(BankOperationUtils.getMissingCardFootprint(cardNumber));
+        }
+        BankAccount bankAccount = card.get().getLinkedAccount();
+        // The service plan of the owner sets the commission
+        return Optional.of(BankOperationFootprint.builder()
+                .looksUpCard(cardNumber)
+                .writesAccount(bankAccount)
+                .readsUser(bankAccount.getOwner())
+                .build());
+    }
+
     @Override
     protected BankOperationResult<Void> internalExecute(final BankOperationContext context)
             throws BankOperationException {
@@ -58,9 +81,7 @@ public final class CashWithdraw extends BankOperation<Void> {
                         convertedAmount, bankAccount.getCurrency());
 
         try {
-            BankOperationUtils.validateFunds(context, bankAccount, amountWithCommission);
-
-            BankOperationUtils.removeFunds(context, bankAccount, amountWithCommission);
+            BankOperationUtils.withdrawFunds(context, bankAccount, amountWithCommission);
             AuditLog auditLog = CashWithdrawLog.builder()
                     .timestamp(timestamp)
                     .logStatus(AuditLogStatus.SUCCESS)
@@ -10,6 +10,7 @@ import org.poo.bank.operation.BankErrorType;
 import org.poo.bank.operation.BankOperation;
 import org.poo.bank.operation.BankOperationContext;
 import org.poo.bank.operation.BankOperationException;
+import org.poo.bank.operation.BankOperationFootprint;
 import org.poo.bank.operation.BankOperationResult;
 import org.poo.bank.log.AuditLogStatus;
 import org.poo.bank.operation.util.BankOperationUtils;
@@ -17,9 +18,15 @@ import org.poo.bank.log.AuditLog;
 import org.poo.bank.log.AuditLogType;
 import org.poo.bank.type.IBAN;
 
+import java.io.Serial;
+import java.util.Optional;
+
 @Builder
 @RequiredArgsConstructor
 public final class ChangeInterestRate extends BankOperation<Void> {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     @NonNull
     private final IBAN accountIban;
     @NonNull
@@ -27,6 +34,14 @@ public final class ChangeInterestRate extends BankOperation<Void> {
     @NonNull
     private final Integer timestamp;
 
+    @Override
+    public Optional<BankOperationFootprint> getFootprint(final BankOperationContext context)
+            throws BankOperationException {
+        return Optional.of(BankOperationFootprint.builder()
+                .writesAccount(BankOperationUtils.getBankAccountByIban(context, accountIban))
+                .build());
+    }
+
     @Override
     protected BankOperationResult<Void> internalExecute(final BankOperationContext context)
             throws BankOperationException {
@@ -0,0 +1,80 @@
+package org.poo.bank.operation.impl;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.poo.bank.account.BankAccount;
+import org.poo.bank.account.BankAccountType;
+import org.poo.bank.account.BusinessAccount;
+import org.poo.bank.account.BusinessAccountRole;
+import org.poo.bank.account.BusinessOperation;
+import org.poo.bank.account.SpendingWindow;
+import org.poo.bank.account.UserAccount;
+import org.poo.bank.operation.BankErrorType;
+import org.poo.bank.operation.BankOperation;
+import org.poo.bank.operation.BankOperationContext;
+import org.poo.bank.operation.BankOperationException;
+import org.poo.bank.operation.BankOperationFootprint;
+import org.poo.bank.operation.BankOperationResult;
+import org.poo.bank.operation.util.BankOperationUtils;
+import org.poo.bank.type.Email;
+import org.poo.bank.type.IBAN;
+
+import java.io.Serial;
+import java.util.Optional;
+
+/**
+ * Sets the spending limit of the employees of a business account over a time window, on top of
+ * the limit of each payment.
+ */
+@Builder
+@RequiredArgsConstructor
+public final class ChangeWindowedSpendingLimit extends BankOperation<Void> {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @NonNull
+    private final IBAN accountIban;
+    @NonNull
+    private final SpendingWindow window;
+    @NonNull
+    private final Double newLimit;
+    @NonNull
+    private final Email userEmail;
+    @NonNull
+    private final Integer timestamp;
+
+    @Override
+    public Optional<BankOperationFootprint> getFootprint(final BankOperationContext context)
+            throws BankOperationException {
+        return Optional.of(BankOperationFootprint.builder()
+                .writesAccount(BankOperationUtils.getBankAccountByIban(context, accountIban))
+                .build());
+    }
+
+    @Override
+    protected BankOperationResult<Void> internalExecute(final BankOperationContext context)
+            throws BankOperationException {
+        BankAccount bankAccount = BankOperationUtils.getBankAccountByIban(context, accountIban);
+
+        if (bankAccount.getType() != BankAccountType.BUSINESS) {
+            throw new BankOperationException(BankErrorType.INVALID_OPERATION,
+                    "This is not a business account");
+        }
+
+        UserAccount userAccount = BankOperationUtils.getUserByEmail(context, userEmail);
+        try {
+            BankOperationUtils.validatePermissions(context, (BusinessAccount) bankAccount,
+                    userAccount, new BusinessOperation.SetSpendingLimit());
+        } catch (BankOperationException e) {
+            throw new BankOperationException(BankErrorType.PERMISSION_DENIED,
+                    "You must be owner in order to change spending limit.");
+        }
+
+        // Set the spending limit only for employees, like the limit of each payment
+        context.bankAccService().setBusinessAccountWindowSpendingLimit(
+                (BusinessAccount) bankAccount, BusinessAccountRole.EMPLOYEE, window, newLimit);
+
+        return BankOperationResult.success();
+    }
+}
@@ -7,6 +7,7 @@ import org.poo.bank.card.Card;
 import org.poo.bank.operation.BankOperation;
 import org.poo.bank.operation.BankOperationContext;
 import org.poo.bank.operation.BankOperationException;
+import org.poo.bank.operation.BankOperationFootprint;
 import org.poo.bank.operation.BankOperationResult;
 import org.poo.bank.log.AuditLogStatus;
 import org.poo.bank.operation.util.BankOperationUtils;
@@ -14,14 +15,33 @@ import org.poo.bank.log.AuditLog;
 import org.poo.bank.log.AuditLogType;
 import org.poo.bank.type.CardNumber;
 
+import java.io.Serial;
+import java.util.Optional;
+
 @Builder
 @RequiredArgsConstructor
 public final class CheckCardStatus extends BankOperation<Void> {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     @NonNull
     private final CardNumber cardNumber;
     @NonNull
     private final Integer timestamp;
 
+    @Override
+    public Optional<BankOperationFootprint> getFootprint(final BankOperationContext context)
+            throws BankOperationException {
+        Optional<Card> card = context.cardService().getCard(cardNumber);
+        if (card.isEmpty()) {
+            return Optional.of(BankOperationUtils.getMissingCardFootprint(cardNumber));
+        }
+        return Optional.of(BankOperationFootprint.builder()
+                .looksUpCard(cardNumber)
+                .writesAccount(card.get().getLinkedAccount())
+                .build());
+    }
+
     @Override
     protected BankOperationResult<Void> internalExecute(final BankOperationContext context)
             throws BankOperationException {
@@ -19,11 +19,15 @@ import org.poo.bank.log.AuditLogType;
 import org.poo.bank.type.Currency;
 import org.poo.bank.type.Email;
 
+import java.io.Serial;
 import java.util.Map;
 
 @Builder
 @RequiredArgsConstructor
 public final class CreateBankAccount extends BankOperation<Void> {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     @NonNull
     private final Email ownerEmail;
     @NonNull
@@ -59,6 +63,7 @@ public final class CreateBankAccount extends BankOperation<Void> {
                         interestRate);
 
         if (type == BankAccountType.BUSINESS) {
+            context.auditLogService().openLedger(bankAccount.getIban());
             BUSINESS_ROLE_LIMITS.forEach((role, limits) -> {
                 double spendingLimit =
                         BankOperationUtils.convertCurrency(context, Currency.of("RON"), currency,
@@ -13,9 +13,14 @@ import org.poo.bank.servicePlan.ServicePlan;
 import org.poo.bank.servicePlan.impl.StandardPlan;
 import org.poo.bank.servicePlan.impl.StudentPlan;
 
+import java.io.Serial;
+
 @Builder
 @RequiredArgsConstructor
 public final class CreateUserAccount extends BankOperation<Void> {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     @NonNull
     private final String firstName;
     @NonNull
@@ -17,9 +17,14 @@ import org.poo.bank.log.AuditLogType;
 import org.poo.bank.type.Email;
 import org.poo.bank.type.IBAN;
 
+import java.io.Serial;
+
 @Builder
 @RequiredArgsConstructor
 public final class DeleteBankAccount extends BankOperation<Void> {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     @NonNull
     private final Email ownerEmail;
     @NonNull
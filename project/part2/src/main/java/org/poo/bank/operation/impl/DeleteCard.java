@@ -18,15 +18,22 @@ import org.poo.bank.log.impl.CardOpLog;
 import org.poo.bank.operation.BankOperation;
 import org.poo.bank.operation.BankOperationContext;
 import org.poo.bank.operation.BankOperationException;
+import org.poo.bank.operation.BankOperationFootprint;
 import org.poo.bank.operation.BankOperationResult;
 import org.poo.bank.operation.util.BankOperationUtils;
 import org.poo.bank.type.CardNumber;
 import org.poo.bank.type.Email;
 
+import java.io.Serial;
+import java.util.Optional;
+
 @Builder
 @AllArgsConstructor(access = AccessLevel.PRIVATE)
 @RequiredArgsConstructor
 public final class DeleteCard extends BankOperation<Void> {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     @NonNull
     private final CardNumber cardNumber;
     @NonNull
@@ -38,6 +45,25 @@ public final class DeleteCard extends BankOperation<Void> {
     @NonNull
     private final Integer timestamp;
 
+    @Override
+    public Optional<BankOperationFootprint> getFootprint(final BankOperationContext context)
+            throws BankOperationException {
+        Optional<Card> card = context.cardService().getCard(cardNumber);
+        if (card.isEmpty()) {
+            return Optional.of(BankOperationUtils.getMissingCardFootprint(cardNumber));
+        }
+        BankAccount bankAccount = card.get().getLinkedAccount();
+        BankOperationFootprint.Builder footprint = BankOperationFootprint.builder()
+                .looksUpCard(cardNumber);
+        // Only a card that is regenerating is actually removed
+        if (isRegenerating) {
+            footprint.writesAccount(bankAccount).writesCard(cardNumber);
+        } else {
+            footprint.readsAccount(bankAccount);
+        }
+        return Optional.of(footprint.build());
+    }
+
     @Override
     protected BankOperationResult<Void> internalExecute(final BankOperationContext context)
             throws BankOperationException {
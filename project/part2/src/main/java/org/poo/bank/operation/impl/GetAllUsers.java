@@ -6,14 +6,22 @@ import org.poo.bank.operation.BankOperationContext;
 import org.poo.bank.operation.BankOperationException;
 import org.poo.bank.operation.BankOperationResult;
 
+import java.io.Serial;
 import java.util.List;
 
 public final class GetAllUsers extends BankOperation<List<UserView>> {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+
     @Override
     protected BankOperationResult<List<UserView>> internalExecute(
             final BankOperationContext context)
             throws BankOperationException {
-
         return BankOperationResult.success(
                 context.userService().getUsers().stream().map(UserView::from).toList());
     }
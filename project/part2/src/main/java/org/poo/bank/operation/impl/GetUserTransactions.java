@@ -3,6 +3,7 @@ package org.poo.bank.operation.impl;
 import lombok.Builder;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import org.poo.bank.account.BankAccount;
 import org.poo.bank.account.UserAccount;
 import org.poo.bank.log.AuditLogType;
 import org.poo.bank.operation.BankOperation;
@@ -13,27 +14,39 @@ import org.poo.bank.operation.util.BankOperationUtils;
 import org.poo.bank.log.AuditLog;
 import org.poo.bank.log.view.AuditLogView;
 import org.poo.bank.type.Email;
+import org.poo.bank.type.IBAN;
 
-import java.util.Comparator;
+import java.io.Serial;
 import java.util.List;
 
 @Builder
 @RequiredArgsConstructor
 public final class GetUserTransactions extends BankOperation<List<AuditLogView>> {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     @NonNull
     private final Email userEmail;
 
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+
     @Override
     protected BankOperationResult<List<AuditLogView>> internalExecute(
             final BankOperationContext context) throws BankOperationException {
         UserAccount userAccount = BankOperationUtils.getUserByEmail(context, userEmail);
 
-        List<AuditLogView> transactionViews = userAccount.getAccounts().stream()
-                .flatMap(
-                        account -> context.auditLogService().getLogs(account.getIban())
-                                .stream())
+        // Only the accounts the user still owns are included. A deleted account is removed from
+        // its owner, so its logs are dropped from the report, like the account is dropped from
+        // printUsers. The refs never print the transactions of a user after deleting one of
+        // their accounts, so this keeps what the report did before the logs were merged.
+        List<IBAN> accounts = userAccount.getAccounts().stream()
+                .map(BankAccount::getIban)
+                .toList();
+        List<AuditLogView> transactionViews = context.auditLogService().getTimeline(accounts)
                 .filter(auditLog -> auditLog.getLogType() != AuditLogType.DEPOSIT)
-                .sorted(Comparator.comparing(AuditLog::getTimestamp))
                 .map(AuditLog::toView)
                 .toList();
         return BankOperationResult.success(transactionViews);
@@ -10,9 +10,14 @@ import org.poo.bank.operation.BankOperationException;
 import org.poo.bank.operation.BankOperationResult;
 import org.poo.bank.type.Currency;
 
+import java.io.Serial;
+
 @Builder
 @RequiredArgsConstructor
 public final class RegisterExchangeRate extends BankOperation<Void> {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     @NonNull
     private final Currency from;
     @NonNull
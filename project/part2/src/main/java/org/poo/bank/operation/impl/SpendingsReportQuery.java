@@ -9,6 +9,7 @@ import org.poo.bank.operation.BankErrorType;
 import org.poo.bank.operation.BankOperation;
 import org.poo.bank.operation.BankOperationContext;
 import org.poo.bank.operation.BankOperationException;
+import org.poo.bank.operation.BankOperationFootprint;
 import org.poo.bank.operation.BankOperationResult;
 import org.poo.bank.operation.util.BankOperationUtils;
 import org.poo.bank.report.MerchantSpending;
@@ -16,16 +17,20 @@ import org.poo.bank.report.SpendingsReport;
 import org.poo.bank.log.AuditLog;
 import org.poo.bank.log.AuditLogStatus;
 import org.poo.bank.log.AuditLogType;
-import org.poo.bank.log.impl.CardPaymentLog;
+import org.poo.bank.log.view.AuditLogView;
 import org.poo.bank.type.IBAN;
 
+import java.io.Serial;
 import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 @Builder
 @RequiredArgsConstructor
 public final class SpendingsReportQuery extends BankOperation<SpendingsReport> {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     @NonNull
     private final IBAN accountIban;
     @NonNull
@@ -33,6 +38,19 @@ public final class SpendingsReportQuery extends BankOperation<SpendingsReport> {
     @NonNull
     private final Integer endTimestamp;
 
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+
+    @Override
+    public Optional<BankOperationFootprint> getFootprint(final BankOperationContext context)
+            throws BankOperationException {
+        return Optional.of(BankOperationFootprint.builder()
+                .readsAccount(BankOperationUtils.getBankAccountByIban(context, accountIban))
+                .build());
+    }
+
     @Override
     protected BankOperationResult<SpendingsReport> internalExecute(
             final BankOperationContext context)
@@ -44,24 +62,21 @@ public final class SpendingsReportQuery extends BankOperation<SpendingsReport> {
                     "This kind of report is not supported for a saving account");
         }
 
-        // Get all card payments
-        List<AuditLog>
-                transactions =
-                context.auditLogService()
-                        .getLogs(accountIban, startTimestamp, endTimestamp).stream()
-                        .filter(log -> log.getLogType()
-                                == AuditLogType.CARD_PAYMENT
-                                && log.getLogStatus() == AuditLogStatus.SUCCESS)
-                        .toList();
+        // The card payments are listed in the report, so they are converted to views as they
+        // are found. The totals per merchant are read from the index, not summed from them.
+        List<AuditLogView> transactions = context.auditLogService()
+                .getLogs(accountIban, startTimestamp, endTimestamp).stream()
+                .filter(log -> log.getLogType() == AuditLogType.CARD_PAYMENT
+                        && log.getLogStatus() == AuditLogStatus.SUCCESS)
+                .map(AuditLog::toView)
+                .toList();
 
-        // Group by merchant and sum the amounts to get the total spending per merchant
-        List<MerchantSpending> merchants = transactions.stream()
-                .map(CardPaymentLog.class::cast)
-                .collect(
-                        Collectors.groupingBy(CardPaymentLog::getMerchant,
-                                Collectors.summingDouble(CardPaymentLog::getAmount)))
+        // Get the total spending per merchant
+        List<MerchantSpending> merchants = context.auditLogService()
+                .getMerchantSpendings(accountIban, startTimestamp, endTimestamp)
                 .entrySet().stream()
-                .map(entry -> new MerchantSpending(entry.getKey().getName(), entry.getValue()))
+                .map(entry -> new MerchantSpending(entry.getKey().getName(),
+                        entry.getValue()))
                 .sorted(Comparator.comparing(MerchantSpending::merchant))
                 .toList();
 
@@ -70,7 +85,7 @@ public final class SpendingsReportQuery extends BankOperation<SpendingsReport> {
                         .iban(accountIban)
                         .balance(bankAccount.getBalance())
                         .currency(bankAccount.getCurrency())
-                        .transactions(transactions.stream().map(AuditLog::toView).toList())
+                        .transactions(transactions)
                         .merchants(merchants)
                         .build()
         );
@@ -8,6 +8,7 @@ import org.poo.bank.operation.BankErrorType;
 import org.poo.bank.operation.BankOperation;
 import org.poo.bank.operation.BankOperationContext;
 import org.poo.bank.operation.BankOperationException;
+import org.poo.bank.operation.BankOperationFootprint;
 import org.poo.bank.operation.BankOperationResult;
 import org.poo.bank.operation.util.BankOperationUtils;
 import org.poo.bank.splitPayment.SplitPayment;
@@ -15,6 +16,7 @@ import org.poo.bank.splitPayment.SplitPaymentType;
 import org.poo.bank.type.Currency;
 import org.poo.bank.type.IBAN;
 
+import java.io.Serial;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.IntStream;
@@ -22,17 +24,33 @@ import java.util.stream.IntStream;
 @Builder
 @RequiredArgsConstructor
 public final class SplitPaymentRequest extends BankOperation<Void> {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     @NonNull
+    @SuppressWarnings("serial")
     private final List<IBAN> involvedAccounts;
     @NonNull
     private final Currency currency;
     @NonNull
     private final SplitPaymentType type;
     @NonNull
+    @SuppressWarnings("serial")
     private final List<Double> amountPerAccount;
     @NonNull
     private final Integer timestamp;
 
+    @Override
+    public Optional<BankOperationFootprint> getFootprint(final BankOperationContext context)
+            throws BankOperationException {
+        BankOperationFootprint.Builder footprint = BankOperationFootprint.builder();
+        for (IBAN accountIban : involvedAccounts) {
+            BankAccount bankAccount = BankOperationUtils.getBankAccountByIban(context, accountIban);
+            footprint.readsAccount(bankAccount).writesSplitPayments(bankAccount.getOwner());
+        }
+        return Optional.of(footprint.build());
+    }
+
     @Override
     protected BankOperationResult<Void> internalExecute(final BankOperationContext context)
             throws BankOperationException {
@@ -7,6 +7,7 @@ import org.poo.bank.account.BankAccount;
 import org.poo.bank.operation.BankOperation;
 import org.poo.bank.operation.BankOperationContext;
 import org.poo.bank.operation.BankOperationException;
+import org.poo.bank.operation.BankOperationFootprint;
 import org.poo.bank.operation.BankOperationResult;
 import org.poo.bank.operation.util.BankOperationUtils;
 import org.poo.bank.report.TransactionsReport;
@@ -14,11 +15,16 @@ import org.poo.bank.log.AuditLog;
 import org.poo.bank.log.AuditLogType;
 import org.poo.bank.type.IBAN;
 
+import java.io.Serial;
 import java.util.List;
+import java.util.Optional;
 
 @Builder
 @RequiredArgsConstructor
 public final class TransactionsReportQuery extends BankOperation<TransactionsReport> {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     @NonNull
     private final IBAN accountIban;
     @NonNull
@@ -26,6 +32,19 @@ public final class TransactionsReportQuery extends BankOperation<TransactionsRep
     @NonNull
     private final Integer endTimestamp;
 
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+
+    @Override
+    public Optional<BankOperationFootprint> getFootprint(final BankOperationContext context)
+            throws BankOperationException {
+        return Optional.of(BankOperationFootprint.builder()
+                .readsAccount(BankOperationUtils.getBankAccountByIban(context, accountIban))
+                .build());
+    }
+
     @Override
     protected BankOperationResult<TransactionsReport> internalExecute(
             final BankOperationContext context)
@@ -3,6 +3,7 @@ package org.poo.bank.operation.impl;
 import lombok.Builder;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import org.poo.bank.account.AccountLocks;
 import org.poo.bank.account.BankAccount;
 import org.poo.bank.account.BankAccountType;
 import org.poo.bank.account.BusinessAccount;
@@ -10,9 +11,11 @@ import org.poo.bank.account.BusinessOperation;
 import org.poo.bank.account.UserAccount;
 import org.poo.bank.eventSystem.events.TransactionEvent;
 import org.poo.bank.merchant.Merchant;
+import org.poo.bank.operation.BankErrorType;
 import org.poo.bank.operation.BankOperation;
 import org.poo.bank.operation.BankOperationContext;
 import org.poo.bank.operation.BankOperationException;
+import org.poo.bank.operation.BankOperationFootprint;
 import org.poo.bank.operation.BankOperationResult;
 import org.poo.bank.log.AuditLogStatus;
 import org.poo.bank.operation.util.BankOperationUtils;
@@ -22,9 +25,15 @@ import org.poo.bank.log.impl.TransferLog;
 import org.poo.bank.type.Email;
 import org.poo.bank.type.IBAN;
 
+import java.io.Serial;
+import java.util.Optional;
+
 @Builder
 @RequiredArgsConstructor
 public final class TransferRequest extends BankOperation<Void> {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     /**
      * The IBAN or account alias of the sender
      */
@@ -44,6 +53,26 @@ public final class TransferRequest extends BankOperation<Void> {
     @NonNull
     private final Integer timestamp;
 
+    @Override
+    public Optional<BankOperationFootprint> getFootprint(final BankOperationContext context)
+            throws BankOperationException {
+        BankAccount senderAccount =
+                BankOperationUtils.getBankAccountByAliasOrIban(context, senderIdentifier);
+        // The service plan of the owner sets the commission, and the transfer may upgrade it
+        BankOperationFootprint.Builder footprint = BankOperationFootprint.builder()
+                .looksUpAlias(senderIdentifier)
+                .writesAccount(senderAccount)
+                .writesUser(senderAccount.getOwner());
+        try {
+            BankOperationUtils.getMerchantByIban(context, IBAN.of(receiverIdentifier));
+        } catch (BankOperationException e) {
+            footprint.looksUpAlias(receiverIdentifier)
+                    .writesAccount(BankOperationUtils.getBankAccountByAliasOrIban(context,
+                            receiverIdentifier));
+        }
+        return Optional.of(footprint.build());
+    }
+
     @Override
     protected BankOperationResult<Void> internalExecute(final BankOperationContext context)
             throws BankOperationException {
@@ -81,15 +110,28 @@ public final class TransferRequest extends BankOperation<Void> {
         BankOperationResult<Void> result;
 
         try {
-            BankOperationUtils.validateFunds(context, senderAccount, amountWithCommission);
-            BankOperationUtils.removeFunds(context, senderAccount, amountWithCommission);
+            // Hold the locks of both accounts, so the funds cannot be spent by another operation
+            // between the validation and the transfer
+            try (AccountLocks.Handle locks =
+                    context.bankAccService().lockAccounts(senderAccount, receiverAccount)) {
+                if (senderAccount.getType() == BankAccountType.BUSINESS) {
+                    BankOperationUtils.withdrawBusinessFunds(context,
+                            (BusinessAccount) senderAccount, senderUserAccount,
+                            amountWithCommission, timestamp);
+                } else {
+                    BankOperationUtils.withdrawFunds(context, senderAccount,
+                            amountWithCommission);
+                }
+                if (receiverAccount != null) {
+                    transferToUser(context, senderAccount, senderUserAccount, receiverAccount);
+                }
+            }
 
             IBAN receiverIban;
             // Handle the transfer depending on the receiverAccount type
 
             TransactionEvent transactionEvent;
             if (receiverAccount != null) {
-                transferToUser(context, senderAccount, senderUserAccount, receiverAccount);
                 receiverIban = receiverAccount.getIban();
                 transactionEvent =
                         new TransactionEvent(senderAccount, receiverAccount, amount,
@@ -121,8 +163,11 @@ public final class TransferRequest extends BankOperation<Void> {
 
             result = BankOperationResult.success();
         } catch (BankOperationException e) {
-            BankOperationUtils.logFailedOperation(context, senderAccount, timestamp,
-                    AuditLogType.TRANSFER, e);
+            // Exceeding a spending limit is not logged, like the other permission checks
+            if (e.getErrorType() != BankErrorType.PERMISSION_DENIED) {
+                BankOperationUtils.logFailedOperation(context, senderAccount, timestamp,
+                        AuditLogType.TRANSFER, e);
+            }
             result = BankOperationResult.silentError(e.getErrorType());
         }
 
@@ -9,6 +9,7 @@ import org.poo.bank.operation.BankErrorType;
 import org.poo.bank.operation.BankOperation;
 import org.poo.bank.operation.BankOperationContext;
 import org.poo.bank.operation.BankOperationException;
+import org.poo.bank.operation.BankOperationFootprint;
 import org.poo.bank.operation.BankOperationResult;
 import org.poo.bank.log.AuditLogStatus;
 import org.poo.bank.operation.util.BankOperationUtils;
@@ -20,9 +21,15 @@ import org.poo.bank.type.Currency;
 import org.poo.bank.type.IBAN;
 import org.poo.bank.servicePlan.ServicePlanType;
 
+import java.io.Serial;
+import java.util.Optional;
+
 @Builder
 @RequiredArgsConstructor
 public final class UpgradeServicePlan extends BankOperation<Void> {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     @NonNull
     private final ServicePlanType newPlan;
     @NonNull
@@ -30,13 +37,23 @@ public final class UpgradeServicePlan extends BankOperation<Void> {
     @NonNull
     private final Integer timestamp;
 
+    @Override
+    public Optional<BankOperationFootprint> getFootprint(final BankOperationContext context)
+            throws BankOperationException {
+        BankAccount bankAccount = BankOperationUtils.getBankAccountByIban(context, accountIban);
+        return Optional.of(BankOperationFootprint.builder()
+                .writesAccount(bankAccount)
+                .writesUser(bankAccount.getOwner())
+                .build());
+    }
+
     @Override
     protected BankOperationResult<Void> internalExecute(final BankOperationContext context)
             throws BankOperationException {
         BankAccount bankAccount = BankOperationUtils.getBankAccountByIban(context, accountIban);
         UserAccount userAccount = bankAccount.getOwner();
 
-        ServicePlan servicePlan = userAccount.getServicePlan();
+        ServicePlan servicePlan = BankOperationUtils.getServicePlan(context, userAccount);
         double upgradeFee;
         // Perform validations
         try {
@@ -54,14 +71,13 @@ public final class UpgradeServicePlan extends BankOperation<Void> {
             upgradeFee = BankOperationUtils.convertCurrency(context, Currency.of("RON"),
                     bankAccount.getCurrency(), upgradeFee);
 
-            BankOperationUtils.validateFunds(context, bankAccount, upgradeFee);
+            BankOperationUtils.withdrawFunds(context, bankAccount, upgradeFee);
         } catch (BankOperationException e) {
             BankOperationUtils.logFailedOperation(context, bankAccount, timestamp,
                     AuditLogType.ACCOUNT_PLAN_UPDATE, e);
             return BankOperationResult.silentError(e.getErrorType());
         }
 
-        BankOperationUtils.removeFunds(context, bankAccount, upgradeFee);
         context.userService().upgradePlan(userAccount, newPlan);
         AuditLog auditLog = UpgradePlanLog.builder()
                 .timestamp(timestamp)
@@ -3,6 +3,7 @@ package org.poo.bank.operation.impl;
 import lombok.Builder;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import org.poo.bank.account.AccountLocks;
 import org.poo.bank.account.BankAccount;
 import org.poo.bank.account.BankAccountType;
 import org.poo.bank.account.UserAccount;
@@ -19,12 +20,17 @@ import org.poo.bank.log.impl.SavingsWithdrawLog;
 import org.poo.bank.type.Currency;
 import org.poo.bank.type.IBAN;
 
+import java.io.Serial;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 @Builder
 @RequiredArgsConstructor
 public final class WithdrawSavings extends BankOperation<Void> {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     private static final int MIN_AGE_TO_WITHDRAW = 21;
 
     @NonNull
@@ -70,20 +76,34 @@ public final class WithdrawSavings extends BankOperation<Void> {
 
             amountToWithdraw = BankOperationUtils.convertCurrency(context, currency,
                     savingsAccount.getCurrency(), amount);
-
-            BankOperationUtils.validateFunds(context, savingsAccount, amountToWithdraw);
         } catch (BankOperationException e) {
             BankOperationUtils.logFailedOperation(context, savingsAccount, timestamp,
                     AuditLogType.SAVINGS_WITHDRAWAL, e);
             return BankOperationResult.silentError(e.getErrorType());
         }
 
-        BankAccount destinationAccount =
+        Optional<BankAccount> classicAccount =
                 classicAccounts.stream().filter(account -> account.getCurrency().equals(currency))
-                        .findFirst().orElseThrow(
-                                () -> new BankOperationException(BankErrorType.INVALID_OPERATION));
-        BankOperationUtils.addFunds(context, destinationAccount, amount);
-        BankOperationUtils.removeFunds(context, savingsAccount, amountToWithdraw);
+                        .findFirst();
+
+        // Hold the locks of both accounts, so the funds cannot be spent by another operation
+        // between the validation and the withdrawal
+        BankAccount destinationAccount;
+        try (AccountLocks.Handle locks = context.bankAccService()
+                .lockAccounts(savingsAccount, classicAccount.orElse(null))) {
+            if (!context.bankAccService().validateFunds(savingsAccount, amountToWithdraw)) {
+                BankOperationException e =
+                        new BankOperationException(BankErrorType.INSUFFICIENT_FUNDS);
+                BankOperationUtils.logFailedOperation(context, savingsAccount, timestamp,
+                        AuditLogType.SAVINGS_WITHDRAWAL, e);
+                return BankOperationResult.silentError(e.getErrorType());
+            }
+
+            destinationAccount = classicAccount.orElseThrow(
+                    () -> new BankOperationException(BankErrorType.INVALID_OPERATION));
+            BankOperationUtils.removeFunds(context, savingsAccount, amountToWithdraw);
+            BankOperationUtils.addFunds(context, destinationAccount, amount);
+        }
 
         AuditLog auditLog = SavingsWithdrawLog.builder()
                 .timestamp(timestamp)
@@ -1,5 +1,6 @@
 package org.poo.bank.operation.util;
 
+import org.poo.bank.account.AccountLocks;
 import org.poo.bank.account.BankAccount;
 import org.poo.bank.account.BusinessAccount;
 import org.poo.bank.account.BusinessOperation;
@@ -10,10 +11,12 @@ import org.poo.bank.merchant.Merchant;
 import org.poo.bank.operation.BankErrorType;
 import org.poo.bank.operation.BankOperationContext;
 import org.poo.bank.operation.BankOperationException;
+import org.poo.bank.operation.BankOperationFootprint;
 import org.poo.bank.log.AuditLog;
 import org.poo.bank.log.AuditLogStatus;
 import org.poo.bank.log.AuditLogType;
 import org.poo.bank.servicePlan.ServicePlan;
+import org.poo.bank.splitPayment.SplitPaymentType;
 import org.poo.bank.type.CardNumber;
 import org.poo.bank.type.Currency;
 import org.poo.bank.type.Email;
@@ -51,6 +54,20 @@ public final class BankOperationUtils {
                 .orElseThrow(() -> new BankOperationException(BankErrorType.USER_NOT_FOUND));
     }
 
+    /**
+     * Get the service plan of the user, once the queued events of their accounts were handled,
+     * since handling them may upgrade the plan
+     *
+     * @param context The bank operation context
+     * @param user    The user
+     * @return The service plan of the user
+     */
+    public static ServicePlan getServicePlan(final BankOperationContext context,
+                                             final UserAccount user) {
+        context.eventService().flush(user);
+        return user.getServicePlan();
+    }
+
     /**
      * Get the bank account associated with the IBAN
      *
@@ -116,6 +133,44 @@ public final class BankOperationUtils {
                 .orElseThrow(() -> new BankOperationException(BankErrorType.MERCHANT_NOT_FOUND));
     }
 
+    /**
+     * Get the footprint of an operation that fails because its card is not found: it changes
+     * nothing, until an earlier operation creates the card
+     *
+     * @param cardNumber The number of the card
+     * @return The footprint
+     */
+    public static BankOperationFootprint getMissingCardFootprint(final CardNumber cardNumber) {
+        return BankOperationFootprint.builder()
+                .looksUpCard(cardNumber)
+                .looksUpIdGenerator()
+                .build();
+    }
+
+    /**
+     * Get the footprint of confirming or rejecting the next pending split payment of a user: the
+     * pending payments of the user and, if there is such a payment, the accounts involved in it
+     * and the pending payments of their owners
+     *
+     * @param context   The bank operation context
+     * @param userEmail The email of the user
+     * @param type      The type of the split payment
+     * @return The footprint
+     * @throws BankOperationException If the user is not found
+     */
+    public static BankOperationFootprint getSplitPaymentFootprint(
+            final BankOperationContext context, final Email userEmail,
+            final SplitPaymentType type) throws BankOperationException {
+        UserAccount userAccount = getUserByEmail(context, userEmail);
+        BankOperationFootprint.Builder footprint = BankOperationFootprint.builder()
+                .looksUpSplitPayments(userAccount)
+                .writesSplitPayments(userAccount);
+        context.splitPaymentService().getPendingPayment(userAccount, type)
+                .ifPresent(payment -> payment.getAccountsInvolved().forEach(account ->
+                        footprint.writesAccount(account).writesSplitPayments(account.getOwner())));
+        return footprint.build();
+    }
+
     /**
      * Get the card associated with the card number and validate that the card is owned by the user
      * with the given email
@@ -166,21 +221,53 @@ public final class BankOperationUtils {
     }
 
     /**
-     * Validate that the bank account has sufficient funds
+     * Remove funds from the bank account, if it has sufficient funds. The funds are checked and
+     * removed atomically.
      *
      * @param context     The bank operation context
      * @param bankAccount The bank account
      * @param amount      The amount to be withdrawn
      * @throws BankOperationException If the bank account has insufficient funds
      */
-    public static void validateFunds(final BankOperationContext context,
+    public static void withdrawFunds(final BankOperationContext context,
                                      final BankAccount bankAccount, final double amount)
             throws BankOperationException {
-        if (!context.bankAccService().validateFunds(bankAccount, amount)) {
+        if (!context.bankAccService().withdrawFunds(bankAccount, amount)) {
             throw new BankOperationException(BankErrorType.INSUFFICIENT_FUNDS);
         }
     }
 
+    /**
+     * Remove funds spent by a member from a business account, if the member stays within the
+     * spending limits of its role over every time window and the account has sufficient funds.
+     * The limits and the funds are checked, and the spending is recorded, while holding the lock
+     * of the account, so concurrent payments of the member cannot exceed a limit together.
+     *
+     * @param context         The bank operation context
+     * @param businessAccount The business account
+     * @param userAccount     The member spending the funds
+     * @param amount          The amount to be withdrawn
+     * @param timestamp       The timestamp of the payment
+     * @throws BankOperationException If a spending limit would be exceeded or the business
+     *                                account has insufficient funds
+     */
+    public static void withdrawBusinessFunds(final BankOperationContext context,
+                                             final BusinessAccount businessAccount,
+                                             final UserAccount userAccount, final double amount,
+                                             final int timestamp)
+            throws BankOperationException {
+        try (AccountLocks.Handle locks = context.bankAccService().lockAccounts(businessAccount)) {
+            if (!context.bankAccService().isWithinBusinessWindowLimits(businessAccount,
+                    userAccount, amount, timestamp)) {
+                throw new BankOperationException(BankErrorType.PERMISSION_DENIED,
+                        "You are not authorized to make this transaction");
+            }
+            withdrawFunds(context, businessAccount, amount);
+            context.bankAccService().recordBusinessSpending(businessAccount, userAccount, amount,
+                    timestamp);
+        }
+    }
+
     /**
      * Record a log
      *
@@ -270,8 +357,8 @@ public final class BankOperationUtils {
                                                        final BankAccount bankAccount,
                                                        final double amount,
                                                        final Currency currency) {
-        return calculateAmountWithCommission(context, bankAccount.getOwner().getServicePlan(),
-                amount, currency);
+        return calculateAmountWithCommission(context,
+                getServicePlan(context, bankAccount.getOwner()), amount, currency);
     }
 
     /**
@@ -1,8 +1,9 @@
 package org.poo.bank.servicePlan;
 
+import java.io.Serializable;
 import java.util.Optional;
 
-public interface ServicePlan {
+public interface ServicePlan extends Serializable {
     /**
      * Get the transaction commission for the current service plan
      *
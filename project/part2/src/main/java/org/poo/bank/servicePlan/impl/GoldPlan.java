@@ -3,9 +3,13 @@ package org.poo.bank.servicePlan.impl;
 import org.poo.bank.servicePlan.ServicePlan;
 import org.poo.bank.servicePlan.ServicePlanType;
 
+import java.io.Serial;
 import java.util.Optional;
 
 public final class GoldPlan implements ServicePlan {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     private static final double COMMISSION = 0.0;
     private static GoldPlan instance = null;
 
@@ -17,7 +21,7 @@ public final class GoldPlan implements ServicePlan {
      *
      * @return the gold plan instance
      */
-    public static GoldPlan getInstance() {
+    public static synchronized GoldPlan getInstance() {
         if (instance == null) {
             instance = new GoldPlan();
         }
@@ -47,4 +51,14 @@ public final class GoldPlan implements ServicePlan {
 
         throw new IllegalArgumentException("Invalid service plan upgrade");
     }
+
+    /**
+     * Keep the plan a singleton when it is deserialized.
+     *
+     * @return the singleton instance
+     */
+    @Serial
+    private Object readResolve() {
+        return getInstance();
+    }
 }
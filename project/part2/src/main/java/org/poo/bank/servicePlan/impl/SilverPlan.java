@@ -3,10 +3,14 @@ package org.poo.bank.servicePlan.impl;
 import org.poo.bank.servicePlan.ServicePlan;
 import org.poo.bank.servicePlan.ServicePlanType;
 
+import java.io.Serial;
 import java.util.Map;
 import java.util.Optional;
 
 public final class SilverPlan implements ServicePlan {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     private static final double COMMISSION = 0.001;
     private static final double COMMISSION_THRESHOLD = 500.0;
     private static final Map<ServicePlanType, Integer> UPGRADE_FEES = Map.of(
@@ -25,7 +29,7 @@ public final class SilverPlan implements ServicePlan {
      *
      * @return the silver plan instance
      */
-    public static SilverPlan getInstance() {
+    public static synchronized SilverPlan getInstance() {
         if (instance == null) {
             instance = new SilverPlan();
         }
@@ -60,4 +64,14 @@ public final class SilverPlan implements ServicePlan {
 
         return newServicePlan;
     }
+
+    /**
+     * Keep the plan a singleton when it is deserialized.
+     *
+     * @return the singleton instance
+     */
+    @Serial
+    private Object readResolve() {
+        return getInstance();
+    }
 }
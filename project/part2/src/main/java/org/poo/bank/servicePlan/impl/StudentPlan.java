@@ -3,10 +3,14 @@ package org.poo.bank.servicePlan.impl;
 import org.poo.bank.servicePlan.ServicePlan;
 import org.poo.bank.servicePlan.ServicePlanType;
 
+import java.io.Serial;
 import java.util.Map;
 import java.util.Optional;
 
 public final class StudentPlan implements ServicePlan {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     private static final double COMMISSION = 0.0;
     private static final Map<ServicePlanType, Integer> UPGRADE_FEES = Map.of(
             ServicePlanType.SILVER, 100,
@@ -26,7 +30,7 @@ public final class StudentPlan implements ServicePlan {
      *
      * @return the student plan instance
      */
-    public static StudentPlan getInstance() {
+    public static synchronized StudentPlan getInstance() {
         if (instance == null) {
             instance = new StudentPlan();
         }
@@ -61,4 +65,14 @@ public final class StudentPlan implements ServicePlan {
 
         return newServicePlan;
     }
+
+    /**
+     * Keep the plan a singleton when it is deserialized.
+     *
+     * @return the singleton instance
+     */
+    @Serial
+    private Object readResolve() {
+        return getInstance();
+    }
 }
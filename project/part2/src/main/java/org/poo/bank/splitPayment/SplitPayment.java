@@ -7,21 +7,29 @@ import org.poo.bank.account.BankAccount;
 import org.poo.bank.account.UserAccount;
 import org.poo.bank.type.Currency;
 
+import java.io.Serial;
+import java.io.Serializable;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
 @Getter
-public final class SplitPayment {
+public final class SplitPayment implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     private final int timestamp;
     // The accounts involved in the payment
     // Each account will have a corresponding amount in the amountPerAccount list
     // The amounts are in the currency specified in the currency field
     // Before creating a payment, make sure each account has enough funds
+    @SuppressWarnings("serial")
     private final List<BankAccount> involvedAccounts;
+    @SuppressWarnings("serial")
     private final List<Double> amountPerAccount;
 
     // The accounts that have confirmed the payment
+    @SuppressWarnings("serial")
     private final Set<BankAccount> confirmedAccounts = new HashSet<>();
 
     // These two fields purely informational, they are not used in the logic
@@ -1,27 +1,52 @@
 package org.poo.bank.splitPayment;
 
-import lombok.RequiredArgsConstructor;
+import lombok.NonNull;
+import lombok.Setter;
 import org.poo.bank.account.UserAccount;
 import org.poo.bank.eventSystem.BankEventService;
 import org.poo.bank.eventSystem.events.SplitPaymentEvent;
 
+import java.io.Serial;
+import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
-@RequiredArgsConstructor
-public class SplitPaymentService {
+public class SplitPaymentService implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The pending payments of each user. The payments of different users can be changed at the
+     * same time. The payments of a user must be changed by one operation at a time, which the
+     * footprints of the split payment operations make sure of.
+     */
+    @SuppressWarnings("serial")
     private final Map<UserAccount, Map<SplitPaymentType, List<SplitPayment>>> accountPayments =
-            new HashMap<>();
-    private final BankEventService eventService;
+            new ConcurrentHashMap<>();
+    /**
+     * The service the finalized payments are posted to. It is not part of the saved state, so
+     * it has to be set again after the service is deserialized.
+     */
+    @Setter
+    private transient BankEventService eventService;
 
     private enum PaymentStatus {
         ACCEPTED,
         REJECTED
     }
 
+    /**
+     * Constructs the service.
+     *
+     * @param eventService the service the finalized payments are posted to
+     */
+    public SplitPaymentService(@NonNull final BankEventService eventService) {
+        this.eventService = eventService;
+    }
+
     /**
      * Register a payment to be processed.
      *
@@ -29,7 +54,7 @@ public class SplitPaymentService {
      */
     public void registerPayment(final SplitPayment payment) {
         payment.getAccountsInvolved().forEach(account -> {
-            accountPayments.computeIfAbsent(account.getOwner(), k -> new HashMap<>())
+            accountPayments.computeIfAbsent(account.getOwner(), k -> new ConcurrentHashMap<>())
                     .computeIfAbsent(payment.getType(), k -> new ArrayList<>())
                     .add(payment);
         });
@@ -58,15 +83,13 @@ public class SplitPaymentService {
      * @param type        the type of the payment to confirm
      */
     public void confirmPayment(final UserAccount userAccount, final SplitPaymentType type) {
-        accountPayments.getOrDefault(userAccount, Map.of()).getOrDefault(type, List.of()).stream()
-                .findFirst()
-                .ifPresent(payment -> {
-                    payment.confirmPayment(userAccount);
-                    accountPayments.get(userAccount).get(type).remove(payment);
-                    if (payment.isPaymentConfirmed()) {
-                        finalizePayment(payment, PaymentStatus.ACCEPTED);
-                    }
-                });
+        getPendingPayment(userAccount, type).ifPresent(payment -> {
+            payment.confirmPayment(userAccount);
+            accountPayments.get(userAccount).get(type).remove(payment);
+            if (payment.isPaymentConfirmed()) {
+                finalizePayment(payment, PaymentStatus.ACCEPTED);
+            }
+        });
     }
 
     /**
@@ -77,11 +100,23 @@ public class SplitPaymentService {
      * @param type        the type of the payment to reject
      */
     public void rejectPayment(final UserAccount userAccount, final SplitPaymentType type) {
-        accountPayments.getOrDefault(userAccount, Map.of()).getOrDefault(type, List.of()).stream()
-                .findFirst()
-                .ifPresent(payment -> {
-                    finalizePayment(payment, PaymentStatus.REJECTED);
-                });
+        getPendingPayment(userAccount, type).ifPresent(payment -> {
+            finalizePayment(payment, PaymentStatus.REJECTED);
+        });
     }
 
+    /**
+     * Get the payment a user would confirm or reject next.
+     *
+     * @param userAccount the user
+     * @param type        the type of the payment
+     * @return an {@link Optional} containing the first pending payment of the given type of the
+     * user, or an {@link Optional#empty()} if there is none
+     */
+    public Optional<SplitPayment> getPendingPayment(final UserAccount userAccount,
+                                                    final SplitPaymentType type) {
+        return accountPayments.getOrDefault(userAccount, Map.of())
+                .getOrDefault(type, List.of()).stream()
+                .findFirst();
+    }
 }
@@ -2,31 +2,100 @@ package org.poo.bank.type;
 
 import com.fasterxml.jackson.annotation.JsonValue;
 import lombok.NonNull;
-import org.poo.utils.Utils;
 
-public record CardNumber(@NonNull String value) {
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A card number.
+ * <p>
+ * Card numbers made of 16 digits, like the ones the bank generates, are kept packed in a
+ * {@code long}, so hashing and comparing them does not have to go through their characters. Any
+ * other value is kept as is. The text of a packed card number is only rebuilt when it is
+ * formatted.
+ */
+public final class CardNumber implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    static final int LENGTH = 16;
+
     /**
-     * Generates a random card number.
+     * The number spelled by the digits.
+     */
+    private final long number;
+    /**
+     * The value of a card number that cannot be packed, {@code null} otherwise.
+     */
+    private final String text;
+    private final int hash;
+
+    private CardNumber(final long number, final String text) {
+        this.number = number;
+        this.text = text;
+        this.hash = text != null ? text.hashCode() : Long.hashCode(number);
+    }
+
+    /**
+     * Generates the next card number of a bank.
      *
+     * @param generator the identifier generator of the bank
      * @return the card number
      */
-    public static CardNumber generate() {
-        return new CardNumber(Utils.generateCardNumber());
+    public static CardNumber generate(@NonNull final IdGenerator generator) {
+        return generator.nextCardNumber();
     }
 
     /**
      * Constructs a CardNumber object.
      *
      * @param value the card number
-     * @throws IllegalArgumentException if the card number is invalid
+     * @return the CardNumber object
      */
     public static CardNumber of(@NonNull final String value) {
-        return new CardNumber(value);
+        if (value.length() == LENGTH) {
+            long number = PackedChars.parseDigits(value, 0, LENGTH);
+            if (number != PackedChars.INVALID) {
+                return new CardNumber(number, null);
+            }
+        }
+        return new CardNumber(0, value);
+    }
+
+    /**
+     * Constructs a CardNumber object from its packed form.
+     *
+     * @param number the number spelled by the 16 digits
+     * @return the CardNumber object
+     */
+    static CardNumber of(final long number) {
+        return new CardNumber(number, null);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof CardNumber other
+                && number == other.number
+                && Objects.equals(text, other.text);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
     }
 
     @JsonValue
     @Override
     public String toString() {
-        return value;
+        if (text != null) {
+            return text;
+        }
+        char[] chars = new char[LENGTH];
+        PackedChars.formatDigits(number, LENGTH, chars, 0);
+        return new String(chars);
     }
 }
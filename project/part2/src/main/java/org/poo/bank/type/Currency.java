@@ -4,7 +4,9 @@ package org.poo.bank.type;
 import com.fasterxml.jackson.annotation.JsonValue;
 import lombok.NonNull;
 
-public record Currency(@NonNull String name) {
+import java.io.Serializable;
+
+public record Currency(@NonNull String name) implements Serializable {
     /**
      * Constructs a Currency object.
      *
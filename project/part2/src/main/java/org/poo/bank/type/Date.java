@@ -2,12 +2,13 @@ package org.poo.bank.type;
 
 import lombok.NonNull;
 
+import java.io.Serializable;
 import java.time.LocalDate;
 import java.time.Period;
 import java.time.chrono.ChronoLocalDate;
 import java.time.format.DateTimeFormatter;
 
-public record Date(@NonNull LocalDate date) {
+public record Date(@NonNull LocalDate date) implements Serializable {
     /**
      * Creates a Date object.
      *
@@ -3,7 +3,9 @@ package org.poo.bank.type;
 import com.fasterxml.jackson.annotation.JsonValue;
 import lombok.NonNull;
 
-public record Email(@NonNull String value) {
+import java.io.Serializable;
+
+public record Email(@NonNull String value) implements Serializable {
     /**
      * Creates an Email object.
      *
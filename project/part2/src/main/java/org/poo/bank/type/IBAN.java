@@ -2,16 +2,59 @@ package org.poo.bank.type;
 
 import com.fasterxml.jackson.annotation.JsonValue;
 import lombok.NonNull;
-import org.poo.utils.Utils;
 
-public record IBAN(@NonNull String value) {
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * An IBAN.
+ * <p>
+ * IBANs made of 8 ASCII characters (country code, check digits and bank code) followed by 16
+ * digits, like the ones the bank generates, are kept packed in two {@code long}s, so hashing and
+ * comparing them does not have to go through their characters. Any other value is kept as is.
+ * The text of a packed IBAN is only rebuilt when it is formatted.
+ */
+public final class IBAN implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    static final int PREFIX_LENGTH = 8;
+    static final int NUMBER_LENGTH = 16;
+    private static final int PACKED_LENGTH = PREFIX_LENGTH + NUMBER_LENGTH;
+    private static final int HASH_MULTIPLIER = 31;
+
+    /**
+     * The first 8 characters, one per byte.
+     */
+    private final long prefix;
+    /**
+     * The number spelled by the last 16 digits.
+     */
+    private final long number;
+    /**
+     * The value of an IBAN that cannot be packed, {@code null} otherwise.
+     */
+    private final String text;
+    private final int hash;
+
+    private IBAN(final long prefix, final long number, final String text) {
+        this.prefix = prefix;
+        this.number = number;
+        this.text = text;
+        this.hash = text != null
+                ? text.hashCode()
+                : HASH_MULTIPLIER * Long.hashCode(prefix) + Long.hashCode(number);
+    }
+
     /**
-     * Generates a random IBAN.
+     * Generates the next IBAN of a bank.
      *
+     * @param generator the identifier generator of the bank
      * @return the IBAN
      */
-    public static IBAN generate() {
-        return new IBAN(Utils.generateIBAN());
+    public static IBAN generate(@NonNull final IdGenerator generator) {
+        return generator.nextIban();
     }
 
     /**
@@ -21,12 +64,52 @@ public record IBAN(@NonNull String value) {
      * @return the IBAN object
      */
     public static IBAN of(@NonNull final String value) {
-        return new IBAN(value);
+        if (value.length() == PACKED_LENGTH) {
+            long prefix = PackedChars.packAscii(value, 0, PREFIX_LENGTH);
+            long number = PackedChars.parseDigits(value, PREFIX_LENGTH, NUMBER_LENGTH);
+            if (prefix != PackedChars.INVALID && number != PackedChars.INVALID) {
+                return new IBAN(prefix, number, null);
+            }
+        }
+        return new IBAN(0, 0, value);
+    }
+
+    /**
+     * Constructs an IBAN object from its packed parts.
+     *
+     * @param prefix the first 8 characters, packed with {@link PackedChars#packAscii}
+     * @param number the number spelled by the last 16 digits
+     * @return the IBAN object
+     */
+    static IBAN of(final long prefix, final long number) {
+        return new IBAN(prefix, number, null);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof IBAN other
+                && prefix == other.prefix
+                && number == other.number
+                && Objects.equals(text, other.text);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
     }
 
     @JsonValue
     @Override
     public String toString() {
-        return value;
+        if (text != null) {
+            return text;
+        }
+        char[] chars = new char[PACKED_LENGTH];
+        PackedChars.unpackAscii(prefix, PREFIX_LENGTH, chars, 0);
+        PackedChars.formatDigits(number, NUMBER_LENGTH, chars, PREFIX_LENGTH);
+        return new String(chars);
     }
 }
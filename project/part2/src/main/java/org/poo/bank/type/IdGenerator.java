@@ -0,0 +1,118 @@
+package org.poo.bank.type;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Random;
+
+/**
+ * Deterministic generator of the IBANs, card numbers and account ids of a bank.
+ * <p>
+ * Each kind of identifier is drawn from its own seeded sequence, one random decimal digit at a
+ * time. The digits are accumulated straight into the packed form of the identifier (see
+ * {@link IBAN} and {@link CardNumber}), so no text is built when an identifier is generated. With
+ * the reference seeds, the generated identifiers are the ones expected by the tests. Account ids
+ * are not random: they are numbered from 0, in the order the accounts are created.
+ * <p>
+ * Every bank owns its generator, so several banks can run in the same JVM without affecting each
+ * other's identifiers. The generator is serializable, so a snapshot of a bank also records how
+ * far its sequences have advanced.
+ */
+public final class IdGenerator implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The reference seed of the IBAN sequence.
+     */
+    public static final long IBAN_SEED = 1;
+    /**
+     * The reference seed of the card number sequence.
+     */
+    public static final long CARD_SEED = 2;
+
+    private static final int DIGIT_BOUND = 10;
+    private static final int CHECK_DIGITS = 2;
+    private static final String COUNTRY_CODE = "RO";
+    private static final String BANK_CODE = "POOB";
+    /**
+     * The packed prefix of the generated IBANs, with zeros in place of the check digits.
+     */
+    private static final long IBAN_PREFIX = PackedChars.packAscii(
+            COUNTRY_CODE + "0".repeat(CHECK_DIGITS) + BANK_CODE, 0, IBAN.PREFIX_LENGTH);
+    /**
+     * The position of the first check digit in the packed prefix.
+     */
+    private static final int CHECK_DIGIT_SHIFT =
+            Byte.SIZE * (IBAN.PREFIX_LENGTH - COUNTRY_CODE.length() - 1);
+
+    private final Random ibanRandom;
+    private final Random cardRandom;
+    private int nextAccountId = 0;
+
+    /**
+     * Creates a generator with the reference seeds.
+     */
+    public IdGenerator() {
+        this(IBAN_SEED, CARD_SEED);
+    }
+
+    /**
+     * Creates a generator with the given seeds.
+     *
+     * @param ibanSeed the seed of the IBAN sequence
+     * @param cardSeed the seed of the card number sequence
+     */
+    public IdGenerator(final long ibanSeed, final long cardSeed) {
+        this.ibanRandom = new Random(ibanSeed);
+        this.cardRandom = new Random(cardSeed);
+    }
+
+    /**
+     * Generates the next IBAN.
+     *
+     * @return the IBAN
+     */
+    public IBAN nextIban() {
+        // The digits of an IBAN must not interleave with the ones of another IBAN
+        synchronized (ibanRandom) {
+            long prefix = IBAN_PREFIX;
+            for (int i = 0; i < CHECK_DIGITS; i++) {
+                // Add the digit to the '0' in its place
+                int shift = CHECK_DIGIT_SHIFT - i * Byte.SIZE;
+                prefix += (long) ibanRandom.nextInt(DIGIT_BOUND) << shift;
+            }
+            return IBAN.of(prefix, nextDigits(ibanRandom, IBAN.NUMBER_LENGTH));
+        }
+    }
+
+    /**
+     * Generates the next card number.
+     *
+     * @return the card number
+     */
+    public CardNumber nextCardNumber() {
+        synchronized (cardRandom) {
+            return CardNumber.of(nextDigits(cardRandom, CardNumber.LENGTH));
+        }
+    }
+
+    /**
+     * Generates the id of the next account.
+     *
+     * @return the account id
+     */
+    public synchronized int nextAccountId() {
+        return nextAccountId++;
+    }
+
+    /**
+     * Draws the given number of digits, the first one being the most significant.
+     */
+    private static long nextDigits(final Random random, final int count) {
+        long digits = 0;
+        for (int i = 0; i < count; i++) {
+            digits = digits * DIGIT_BOUND + random.nextInt(DIGIT_BOUND);
+        }
+        return digits;
+    }
+}
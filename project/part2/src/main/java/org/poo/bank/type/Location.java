@@ -2,7 +2,9 @@ package org.poo.bank.type;
 
 import com.fasterxml.jackson.annotation.JsonValue;
 
-public record Location(String value) {
+import java.io.Serializable;
+
+public record Location(String value) implements Serializable {
     /**
      * Creates a Location object.
      *
@@ -0,0 +1,97 @@
+package org.poo.bank.type;
+
+/**
+ * Helpers for packing fixed-width parts of identifiers into {@code long}s, and back.
+ * <p>
+ * Up to 8 ASCII characters are packed one per byte, the first one in the most significant byte.
+ * Up to 18 decimal digits are packed as the number they spell, so leading zeros are only kept by
+ * the width the digits are formatted with.
+ */
+final class PackedChars {
+    /**
+     * Returned when a part cannot be packed. Valid packed values are never negative.
+     */
+    static final long INVALID = -1;
+
+    private static final int ASCII_LIMIT = 0x80;
+    private static final int BYTE_MASK = 0xFF;
+    private static final int DIGIT_BOUND = 10;
+
+    private PackedChars() {
+    }
+
+    /**
+     * Packs ASCII characters, one per byte.
+     *
+     * @param value  the string the characters are taken from
+     * @param offset the index of the first character
+     * @param count  the number of characters, at most 8
+     * @return the packed characters, or {@link #INVALID} if one of them is not ASCII
+     */
+    static long packAscii(final String value, final int offset, final int count) {
+        long packed = 0;
+        for (int i = offset; i < offset + count; i++) {
+            char c = value.charAt(i);
+            if (c >= ASCII_LIMIT) {
+                return INVALID;
+            }
+            packed = (packed << Byte.SIZE) | c;
+        }
+        return packed;
+    }
+
+    /**
+     * Writes packed ASCII characters.
+     *
+     * @param packed the packed characters
+     * @param count  the number of characters
+     * @param chars  the destination
+     * @param offset the index of the first character in the destination
+     */
+    static void unpackAscii(final long packed, final int count, final char[] chars,
+                            final int offset) {
+        long remaining = packed;
+        for (int i = offset + count - 1; i >= offset; i--) {
+            chars[i] = (char) (remaining & BYTE_MASK);
+            remaining >>>= Byte.SIZE;
+        }
+    }
+
+    /**
+     * Parses decimal digits.
+     *
+     * @param value  the string the digits are taken from
+     * @param offset the index of the first digit
+     * @param count  the number of digits, at most 18
+     * @return the number spelled by the digits, or {@link #INVALID} if one of the characters is
+     * not a decimal digit
+     */
+    static long parseDigits(final String value, final int offset, final int count) {
+        long digits = 0;
+        for (int i = offset; i < offset + count; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return INVALID;
+            }
+            digits = digits * DIGIT_BOUND + (c - '0');
+        }
+        return digits;
+    }
+
+    /**
+     * Writes a number as the given count of decimal digits, padded with zeros.
+     *
+     * @param digits the number
+     * @param count  the number of digits
+     * @param chars  the destination
+     * @param offset the index of the first digit in the destination
+     */
+    static void formatDigits(final long digits, final int count, final char[] chars,
+                             final int offset) {
+        long remaining = digits;
+        for (int i = offset + count - 1; i >= offset; i--) {
+            chars[i] = (char) ('0' + remaining % DIGIT_BOUND);
+            remaining /= DIGIT_BOUND;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import org.poo.bank.Bank;
+import org.poo.bank.operation.BankOperationFootprint;
 import org.poo.fileio.CommandInput;
 
 import java.util.Optional;
@@ -21,4 +22,15 @@ public abstract class Command {
      * if the command has no output
      */
     public abstract Optional<CommandOutput> execute(Bank bank);
+
+    /**
+     * Get the footprint the command would have if it was executed now.
+     *
+     * @param bank the bank instance
+     * @return an {@link Optional} containing the footprint of the command, or an
+     * {@link Optional#empty()} if the command may touch shared state
+     */
+    Optional<BankOperationFootprint> getFootprint(final Bank bank) {
+        return Optional.empty();
+    }
 }
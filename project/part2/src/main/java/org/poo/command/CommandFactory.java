@@ -5,10 +5,12 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.poo.bank.Bank;
 import org.poo.bank.account.BankAccountType;
 import org.poo.bank.account.BusinessAccountRole;
+import org.poo.bank.account.SpendingWindow;
 import org.poo.bank.account.UserView;
 import org.poo.bank.card.CardType;
 import org.poo.bank.operation.BankErrorType;
 import org.poo.bank.operation.BankOperation;
+import org.poo.bank.operation.BankOperationFootprint;
 import org.poo.bank.operation.BankOperationResult;
 import org.poo.bank.operation.impl.AcceptSplitPayment;
 import org.poo.bank.operation.impl.AddBusinessAssociate;
@@ -19,6 +21,7 @@ import org.poo.bank.operation.impl.CashWithdraw;
 import org.poo.bank.operation.impl.ChangeDepositLimit;
 import org.poo.bank.operation.impl.ChangeInterestRate;
 import org.poo.bank.operation.impl.ChangeSpendingLimit;
+import org.poo.bank.operation.impl.ChangeWindowedSpendingLimit;
 import org.poo.bank.operation.impl.CheckCardStatus;
 import org.poo.bank.operation.impl.CollectInterest;
 import org.poo.bank.operation.impl.CreateBankAccount;
@@ -279,6 +282,17 @@ public final class CommandFactory {
                         return new CommandWitError<>(input, operation, "description");
                     }),
 
+                    Map.entry("changeWindowedSpendingLimit", input -> {
+                        BankOperation<Void> operation = ChangeWindowedSpendingLimit.builder()
+                                .accountIban(IBAN.of(input.getAccount()))
+                                .window(SpendingWindow.of(input.getType()))
+                                .newLimit(input.getAmount())
+                                .userEmail(Email.of(input.getEmail()))
+                                .timestamp(input.getTimestamp())
+                                .build();
+                        return new CommandWitError<>(input, operation, "description");
+                    }),
+
                     Map.entry("changeDepositLimit", input -> {
                         BankOperation<Void> operation = ChangeDepositLimit.builder()
                                 .accountIban(IBAN.of(input.getAccount()))
@@ -330,6 +344,11 @@ public final class CommandFactory {
             this.operation = operation;
         }
 
+        @Override
+        Optional<BankOperationFootprint> getFootprint(final Bank bank) {
+            return bank.getFootprint(operation);
+        }
+
         @Override
         public Optional<CommandOutput> execute(final Bank bank) {
             BankOperationResult<R> result = bank.processOperation(operation);
@@ -361,6 +380,11 @@ public final class CommandFactory {
             this.operation = operation;
         }
 
+        @Override
+        Optional<BankOperationFootprint> getFootprint(final Bank bank) {
+            return bank.getFootprint(operation);
+        }
+
         @Override
         public Optional<CommandOutput> execute(final Bank bank) {
             bank.processOperation(operation);
@@ -381,6 +405,11 @@ public final class CommandFactory {
             this.operation = operation;
         }
 
+        @Override
+        Optional<BankOperationFootprint> getFootprint(final Bank bank) {
+            return bank.getFootprint(operation);
+        }
+
         @Override
         public Optional<CommandOutput> execute(final Bank bank) {
             BankOperationResult<R> result = bank.processOperation(operation);
@@ -388,7 +417,7 @@ public final class CommandFactory {
                     .map(payload -> CommandOutput.builder()
                             .command(getInput().getCommand())
                             .timestamp(getInput().getTimestamp())
-                            .output(MAPPER.valueToTree(payload))
+                            .output(payload)
                             .build());
         }
     }
@@ -433,15 +462,23 @@ public final class CommandFactory {
             super(input);
         }
 
-        @Override
-        public Optional<CommandOutput> execute(final Bank bank) {
+        private SpendingsReportQuery getQuery() {
             CommandInput input = getInput();
-            BankOperationResult<SpendingsReport> result = SpendingsReportQuery.builder()
+            return SpendingsReportQuery.builder()
                     .accountIban(IBAN.of(input.getAccount()))
                     .startTimestamp(input.getStartTimestamp())
                     .endTimestamp(input.getEndTimestamp())
-                    .build()
-                    .processBy(bank);
+                    .build();
+        }
+
+        @Override
+        Optional<BankOperationFootprint> getFootprint(final Bank bank) {
+            return bank.getFootprint(getQuery());
+        }
+
+        @Override
+        public Optional<CommandOutput> execute(final Bank bank) {
+            BankOperationResult<SpendingsReport> result = getQuery().processBy(bank);
 
             var commandOutputBuilder =
                     CommandOutput.builder()
@@ -449,7 +486,7 @@ public final class CommandFactory {
                             .timestamp(getInput().getTimestamp());
 
             return Optional.of(result.getPayload()
-                    .map(payload -> commandOutputBuilder.output(MAPPER.valueToTree(payload)))
+                    .map(payload -> commandOutputBuilder.output(payload))
                     .orElseGet(() -> {
                         if (result.getErrorType() == BankErrorType.INVALID_OPERATION) {
                             return commandOutputBuilder.output(MAPPER.createObjectNode()
@@ -1,25 +1,16 @@
 package org.poo.command;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.Builder;
 import lombok.Getter;
 
 @Builder
 @Getter
 public final class CommandOutput {
-    private static final ObjectMapper MAPPER = new ObjectMapper();
-
     private final String command;
     private final int timestamp;
-    private final JsonNode output;
-
     /**
-     * Convert the command output to a JSON object
-     *
-     * @return the JSON object
+     * The output of the command: either a JSON node or an object that is serialized as JSON when
+     * the command output is written.
      */
-    public JsonNode toJson() {
-        return MAPPER.valueToTree(this);
-    }
+    private final Object output;
 }
@@ -0,0 +1,67 @@
+package org.poo.command;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes command outputs to a file, as a JSON array.
+ * <p>
+ * Each output is serialized straight to the file as soon as it is written, without building a
+ * JSON tree, so the memory used does not depend on the number of outputs. The pretty-printed
+ * format is the same as the one of {@link ObjectMapper#writerWithDefaultPrettyPrinter()}.
+ */
+public final class CommandOutputWriter implements AutoCloseable {
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+    private final JsonGenerator generator;
+
+    /**
+     * Opens the output file and starts the array.
+     *
+     * @param file        the output file, replaced if it exists
+     * @param prettyPrint whether to indent the output
+     * @throws IOException if the file cannot be opened
+     */
+    public CommandOutputWriter(final File file, final boolean prettyPrint) throws IOException {
+        this.generator = MAPPER.createGenerator(file, JsonEncoding.UTF8);
+        if (prettyPrint) {
+            generator.useDefaultPrettyPrinter();
+        }
+        generator.writeStartArray();
+    }
+
+    /**
+     * Writes a command output.
+     *
+     * @param output the command output
+     * @throws UncheckedIOException if the output cannot be written
+     */
+    public void write(final CommandOutput output) {
+        try {
+            generator.writeObject(output);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write a command output", e);
+        }
+    }
+
+    /**
+     * Ends the array and closes the output file.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            generator.writeEndArray();
+        } finally {
+            generator.close();
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package org.poo.command;
+
+import org.poo.bank.Bank;
+import org.poo.bank.operation.BankOperationFootprint;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Executes commands on a pool of worker threads, with the same results as executing them one by
+ * one.
+ * <p>
+ * The executor reads ahead a window of commands and groups them in batches. A command joins the
+ * current batch only if its {@link BankOperationFootprint} does not conflict with the footprint
+ * of any earlier command in the window that has not been executed yet, so no command can observe
+ * the effects of a later one. Commands without a footprint act as barriers: they are executed
+ * alone, after every earlier command. The outputs are emitted in the original order of the
+ * commands.
+ * <p>
+ * The footprints are found from the state of the bank. A command whose footprint may be changed
+ * by an earlier command that was not executed yet (e.g. one setting an alias it uses) also acts
+ * as a barrier until that command is executed. A footprint is kept until a command that may
+ * change it (or a barrier) is executed, and it is computed again afterwards.
+ */
+public final class ParallelCommandExecutor implements AutoCloseable {
+    private static final int DEFAULT_WINDOW = 256;
+
+    private final Bank bank;
+    private final ExecutorService workers;
+    private final int window;
+
+    /**
+     * A command read ahead, together with its footprint once it was computed and its output once
+     * it was executed.
+     */
+    private static final class Entry {
+        private final Command command;
+        private Optional<BankOperationFootprint> footprint;
+        private Optional<CommandOutput> output;
+
+        Entry(final Command command) {
+            this.command = command;
+        }
+
+        boolean isDone() {
+            return output != null;
+        }
+    }
+
+    /**
+     * Constructs an executor.
+     *
+     * @param bank        the bank the commands are executed on
+     * @param parallelism the number of worker threads
+     */
+    public ParallelCommandExecutor(final Bank bank, final int parallelism) {
+        this(bank, parallelism, DEFAULT_WINDOW);
+    }
+
+    /**
+     * Constructs an executor.
+     *
+     * @param bank        the bank the commands are executed on
+     * @param parallelism the number of worker threads
+     * @param window      the maximum number of commands read ahead
+     */
+    public ParallelCommandExecutor(final Bank bank, final int parallelism, final int window) {
+        if (parallelism <= 0 || window <= 0) {
+            throw new IllegalArgumentException("Parallelism and window must be positive");
+        }
+        this.bank = bank;
+        this.workers = Executors.newFixedThreadPool(parallelism);
+        this.window = window;
+    }
+
+    /**
+     * Executes the given commands.
+     *
+     * @param commands the commands, in the order they would be executed sequentially
+     * @param sink     the consumer of the command outputs, called in the order of the commands
+     */
+    public void execute(final Iterator<Command> commands, final Consumer<CommandOutput> sink) {
+        Deque<Entry> pending = new ArrayDeque<>();
+
+        while (commands.hasNext() || !pending.isEmpty()) {
+            while (commands.hasNext() && pending.size() < window) {
+                pending.addLast(new Entry(commands.next()));
+            }
+
+            List<Entry> batch = nextBatch(pending);
+            runBatch(batch);
+            forgetChangedFootprints(pending, batch);
+
+            // Emit the outputs of the leading executed commands
+            while (!pending.isEmpty() && pending.peekFirst().isDone()) {
+                pending.pollFirst().output.ifPresent(sink);
+            }
+        }
+    }
+
+    /**
+     * Picks the commands in the window that can be executed next, at the same time.
+     */
+    private List<Entry> nextBatch(final Deque<Entry> pending) {
+        List<Entry> batch = new ArrayList<>();
+        // The footprints of the earlier commands that were not executed yet
+        List<BankOperationFootprint> earlier = new ArrayList<>();
+
+        for (Entry entry : pending) {
+            if (entry.isDone()) {
+                continue;
+            }
+
+            if (entry.footprint == null) {
+                entry.footprint = entry.command.getFootprint(bank);
+            }
+            Optional<BankOperationFootprint> footprint = entry.footprint;
+            if (footprint.isEmpty() || earlier.stream().anyMatch(footprint.get()::dependsOn)) {
+                // A barrier runs alone, once every earlier command was executed
+                if (earlier.isEmpty()) {
+                    batch.add(entry);
+                }
+                break;
+            }
+
+            if (earlier.stream().noneMatch(footprint.get()::conflictsWith)) {
+                batch.add(entry);
+            }
+            earlier.add(footprint.get());
+        }
+        return batch;
+    }
+
+    /**
+     * Forgets the footprints of the commands left in the window that the executed batch may have
+     * changed. A command without a footprint may fail because of an earlier command, so it is
+     * computed again, and so is every footprint once a barrier was executed.
+     */
+    private static void forgetChangedFootprints(final Deque<Entry> pending,
+                                                final List<Entry> batch) {
+        boolean barrier = batch.stream().anyMatch(entry -> entry.footprint.isEmpty());
+        List<BankOperationFootprint> executed = batch.stream()
+                .flatMap(entry -> entry.footprint.stream())
+                .toList();
+
+        for (Entry entry : pending) {
+            if (entry.isDone() || entry.footprint == null) {
+                continue;
+            }
+            if (barrier || entry.footprint.isEmpty()
+                    || executed.stream().anyMatch(entry.footprint.get()::dependsOn)) {
+                entry.footprint = null;
+            }
+        }
+    }
+
+    private void runBatch(final List<Entry> batch) {
+        if (batch.size() == 1) {
+            Entry entry = batch.getFirst();
+            entry.output = entry.command.execute(bank);
+            return;
+        }
+
+        List<Future<Optional<CommandOutput>>> futures = batch.stream()
+                .map(entry -> workers.submit(() -> entry.command.execute(bank)))
+                .toList();
+        for (int i = 0; i < batch.size(); i++) {
+            try {
+                batch.get(i).output = futures.get(i).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while executing commands", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Command failed", e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Stops the worker threads.
+     */
+    @Override
+    public void close() {
+        workers.shutdown();
+    }
+}
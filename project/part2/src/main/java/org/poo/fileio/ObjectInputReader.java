@@ -0,0 +1,146 @@
+package org.poo.fileio;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Streaming reader of an input file, with the same content as {@link ObjectInput}.
+ * <p>
+ * The users, merchants and exchange rates are loaded when the reader is opened. The commands are
+ * then parsed one at a time, as they are pulled from {@link #commands()}, so the memory used does
+ * not depend on the number of commands. This requires the commands to come after the other
+ * sections of the file; otherwise, they are loaded together with them.
+ */
+public final class ObjectInputReader implements AutoCloseable {
+    private static final String USERS = "users";
+    private static final String EXCHANGE_RATES = "exchangeRates";
+    private static final String COMMERCIANTS = "commerciants";
+    private static final String COMMANDS = "commands";
+
+    private final ObjectMapper objectMapper;
+    private final JsonParser parser;
+
+    @Getter
+    private UserInput[] users;
+    @Getter
+    private ExchangeInput[] exchangeRates;
+    @Getter
+    private CommerciantInput[] commerciants;
+    private Iterator<CommandInput> commands;
+
+    private ObjectInputReader(final ObjectMapper objectMapper, final JsonParser parser) {
+        this.objectMapper = objectMapper;
+        this.parser = parser;
+    }
+
+    /**
+     * Opens an input file and loads everything but the commands.
+     *
+     * @param objectMapper the mapper used to read the input objects
+     * @param file         the input file
+     * @return the reader
+     * @throws IOException if the file cannot be read or is not a valid input file
+     */
+    public static ObjectInputReader open(final ObjectMapper objectMapper, final File file)
+            throws IOException {
+        JsonParser parser = objectMapper.getFactory().createParser(file);
+        ObjectInputReader reader = new ObjectInputReader(objectMapper, parser);
+        try {
+            reader.readSections();
+        } catch (IOException | RuntimeException e) {
+            parser.close();
+            throw e;
+        }
+        return reader;
+    }
+
+    private void readSections() throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("Expected an input object");
+        }
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case USERS -> users = objectMapper.readValue(parser, UserInput[].class);
+                case EXCHANGE_RATES ->
+                        exchangeRates = objectMapper.readValue(parser, ExchangeInput[].class);
+                case COMMERCIANTS ->
+                        commerciants = objectMapper.readValue(parser, CommerciantInput[].class);
+                case COMMANDS -> {
+                    if (users != null && exchangeRates != null && commerciants != null) {
+                        // Leave the parser inside the array, to stream the commands from there
+                        commands = new CommandIterator();
+                        return;
+                    }
+                    commands = Arrays.asList(
+                            objectMapper.readValue(parser, CommandInput[].class)).iterator();
+                }
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * Gets the commands of the input file, in order. The commands can only be iterated once.
+     *
+     * @return an iterator parsing the commands as they are requested
+     * @throws UncheckedIOException if a command cannot be read
+     */
+    public Iterator<CommandInput> commands() {
+        return commands == null ? Collections.emptyIterator() : commands;
+    }
+
+    /**
+     * Closes the input file.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+
+    /**
+     * Iterator over the commands array, parsing one command at a time.
+     */
+    private final class CommandIterator implements Iterator<CommandInput> {
+        private JsonToken next;
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                try {
+                    next = parser.nextToken();
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to read a command", e);
+                }
+            }
+            return next == JsonToken.START_OBJECT;
+        }
+
+        @Override
+        public CommandInput next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            next = null;
+            try {
+                return objectMapper.readValue(parser, CommandInput.class);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read a command", e);
+            }
+        }
+    }
+}
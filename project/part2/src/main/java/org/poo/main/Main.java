@@ -1,9 +1,10 @@
 package org.poo.main;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ObjectWriter;
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import org.poo.bank.Bank;
+import org.poo.bank.eventSystem.BankEventService;
+import org.poo.bank.log.AuditLogService;
+import org.poo.bank.log.MappedLogStore;
 import org.poo.bank.merchant.CashbackType;
 import org.poo.bank.merchant.MerchantType;
 import org.poo.bank.type.Currency;
@@ -14,9 +15,9 @@ import org.poo.checker.Checker;
 import org.poo.checker.CheckerConstants;
 import org.poo.command.Command;
 import org.poo.command.CommandFactory;
-import org.poo.fileio.CommandInput;
-import org.poo.fileio.ObjectInput;
-import org.poo.utils.Utils;
+import org.poo.command.CommandOutputWriter;
+import org.poo.command.ParallelCommandExecutor;
+import org.poo.fileio.ObjectInputReader;
 
 import java.io.File;
 import java.io.IOException;
@@ -25,12 +26,39 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.StreamSupport;
 
 /**
  * The entry point to this homework. It runs the checker that tests your implementation.
  */
 public final class Main {
+    /**
+     * The number of threads used to execute the commands. Set the {@code bank.parallelism}
+     * system property to a value greater than 1 to execute independent commands in parallel.
+     */
+    private static final int PARALLELISM = Integer.getInteger("bank.parallelism", 1);
+    /**
+     * The number of lanes used to dispatch the bank events asynchronously. Events are dispatched
+     * synchronously, which keeps the output deterministic, unless the {@code bank.eventLanes}
+     * system property is set to a positive value.
+     */
+    private static final int EVENT_LANES = Integer.getInteger("bank.eventLanes", 0);
+    private static final int EVENT_LANE_CAPACITY = 1024;
+    /**
+     * The directory the audit logs are stored in, off-heap. The logs are kept on the heap unless
+     * the {@code bank.auditLogDir} system property is set.
+     */
+    private static final String AUDIT_LOG_DIR = System.getProperty("bank.auditLogDir");
+    /**
+     * Whether the output files are written without indentation. They are pretty-printed, like the
+     * reference files, unless the {@code bank.compactOutput} system property is set to true.
+     */
+    private static final boolean COMPACT_OUTPUT = Boolean.getBoolean("bank.compactOutput");
+
     /**
      * for coding style
      */
@@ -82,12 +110,32 @@ public final class Main {
                               final String filePath2) throws IOException {
         ObjectMapper objectMapper = new ObjectMapper();
         File file = new File(CheckerConstants.TESTS_PATH + filePath1);
-        ObjectInput inputData = objectMapper.readValue(file, ObjectInput.class);
 
-        ArrayNode output = objectMapper.createArrayNode();
-
-        Bank bank = new Bank();
+        try (ObjectInputReader inputData = ObjectInputReader.open(objectMapper, file);
+             CommandOutputWriter output = new CommandOutputWriter(new File(filePath2),
+                     !COMPACT_OUTPUT);
+             BankEventService eventService = EVENT_LANES > 0
+                     ? BankEventService.asynchronous(EVENT_LANES, EVENT_LANE_CAPACITY)
+                     : new BankEventService();
+             MappedLogStore logStore = AUDIT_LOG_DIR != null
+                     ? MappedLogStore.open(Path.of(AUDIT_LOG_DIR))
+                     : null) {
+            AuditLogService auditLogService = logStore != null
+                    ? new AuditLogService(logStore)
+                    : new AuditLogService();
+            processCommands(new Bank(eventService, auditLogService), inputData, output);
+        }
+    }
 
+    /**
+     * Registers the initial bank data and executes the commands.
+     *
+     * @param bank      the bank
+     * @param inputData the reader of the input data
+     * @param output    the writer of the command outputs
+     */
+    private static void processCommands(final Bank bank, final ObjectInputReader inputData,
+                                        final CommandOutputWriter output) {
         // Register the exchange rates
         Arrays.stream(inputData.getExchangeRates()).toList().forEach(rate -> {
             bank.registerExchangeRate(Currency.of(rate.getFrom()), Currency.of(rate.getTo()),
@@ -108,22 +156,27 @@ public final class Main {
                     CashbackType.of(merchant.getCashbackStrategy()));
         });
 
-        for (CommandInput cmdInput : inputData.getCommands()) {
-            Command cmd = CommandFactory.getCommand(cmdInput.getCommand(), cmdInput);
-            if (cmd == null) {
-                throw new IllegalArgumentException(
-                        "Invalid/Unsupported command: " + cmdInput.getCommand());
+        // The commands are parsed one at a time, as they are executed
+        Iterator<Command> commands = StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                        inputData.commands(), Spliterator.ORDERED), false)
+                .map(cmdInput -> {
+                    Command cmd = CommandFactory.getCommand(cmdInput.getCommand(), cmdInput);
+                    if (cmd == null) {
+                        throw new IllegalArgumentException(
+                                "Invalid/Unsupported command: " + cmdInput.getCommand());
+                    }
+                    return cmd;
+                })
+                .iterator();
+
+        if (PARALLELISM > 1) {
+            try (ParallelCommandExecutor executor = new ParallelCommandExecutor(bank,
+                    PARALLELISM)) {
+                executor.execute(commands, output::write);
             }
-            cmd.execute(bank).ifPresent(commandOutput -> {
-                output.add(commandOutput.toJson());
-            });
+        } else {
+            commands.forEachRemaining(cmd -> cmd.execute(bank).ifPresent(output::write));
         }
-
-
-        // Reset the random seed to ensure the output is deterministic
-        Utils.resetRandom();
-        ObjectWriter objectWriter = objectMapper.writerWithDefaultPrettyPrinter();
-        objectWriter.writeValue(new File(filePath2), output);
     }
 
     /**
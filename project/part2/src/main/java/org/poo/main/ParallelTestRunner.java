@@ -0,0 +1,105 @@
+package org.poo.main;
+
+import org.poo.checker.Checker;
+import org.poo.checker.CheckerConstants;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the checker like {@link Main}, but processes the input files concurrently, on a fixed
+ * pool of threads. Every file is processed by {@link Main#action} with the state it creates for
+ * itself, so the results are the same as when the files are processed one after another. The
+ * threads of the pool are created without inheriting the inheritable thread-locals of the runner,
+ * so any state kept per thread starts out fresh on them. The wall time of each file is reported
+ * before the score.
+ */
+public final class ParallelTestRunner {
+    /**
+     * for coding style
+     */
+    private ParallelTestRunner() {
+    }
+
+    /**
+     * Process the input files and call the checker.
+     *
+     * @param args optionally, the number of files processed at the same time (the number of
+     *             available processors, by default)
+     * @throws IOException in case of exceptions to reading / writing
+     */
+    public static void main(final String[] args) throws IOException {
+        int parallelism = args.length > 0
+                ? Integer.parseInt(args[0])
+                : Runtime.getRuntime().availableProcessors();
+
+        File directory = new File(CheckerConstants.TESTS_PATH);
+        Path path = Paths.get(CheckerConstants.RESULT_PATH);
+
+        if (Files.exists(path)) {
+            File resultFile = new File(String.valueOf(path));
+            for (File file : Objects.requireNonNull(resultFile.listFiles())) {
+                file.delete();
+            }
+            resultFile.delete();
+        }
+        Files.createDirectories(path);
+
+        List<File> sortedFiles = Arrays.stream(Objects.requireNonNull(directory.listFiles()))
+                .sorted(Comparator.comparing(File::getName))
+                .toList();
+
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism,
+                Thread.ofPlatform().inheritInheritableThreadLocals(false).factory());
+        try {
+            List<Future<Long>> tasks = sortedFiles.stream()
+                    .map(file -> pool.submit(() -> runTest(file)))
+                    .toList();
+
+            for (int i = 0; i < sortedFiles.size(); i++) {
+                System.out.printf("%s %d ms%n", sortedFiles.get(i).getName(),
+                        TimeUnit.NANOSECONDS.toMillis(tasks.get(i).get()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while processing the input files", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to process the input files", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        System.out.printf("Processed %d files in %d ms, on %d threads%n", sortedFiles.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), parallelism);
+
+        Checker.calculateScore();
+    }
+
+    /**
+     * Process a single input file.
+     *
+     * @return the wall time, in nanoseconds
+     */
+    private static long runTest(final File file) {
+        long start = System.nanoTime();
+        try {
+            Main.action(file.getName(), CheckerConstants.OUT_PATH + file.getName());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to process " + file.getName(), e);
+        }
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,200 @@
+package org.poo.bank;
+
+import org.junit.jupiter.api.Test;
+import org.poo.bank.account.BankAccView;
+import org.poo.bank.account.BankAccountType;
+import org.poo.bank.account.UserView;
+import org.poo.bank.card.CardType;
+import org.poo.bank.operation.BankErrorType;
+import org.poo.bank.operation.BankOperation;
+import org.poo.bank.operation.BankOperationResult;
+import org.poo.bank.operation.impl.AddFunds;
+import org.poo.bank.operation.impl.CashWithdraw;
+import org.poo.bank.operation.impl.CreateBankAccount;
+import org.poo.bank.operation.impl.CreateCard;
+import org.poo.bank.operation.impl.GetAllUsers;
+import org.poo.bank.operation.impl.TransferRequest;
+import org.poo.bank.type.Currency;
+import org.poo.bank.type.Date;
+import org.poo.bank.type.Email;
+import org.poo.bank.type.Location;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs deposits, transfers and cash withdrawals on the same accounts from several threads at
+ * once. Money is withdrawn as fast as it is deposited, so the accounts stay close to empty and
+ * many operations race for the last funds of an account. No money may be created or lost: the
+ * balances and the withdrawn cash must add up to the deposits, and no balance may go below zero.
+ * An operation whose funds are spent by another one between its check and its debit fails with
+ * an internal error, so no operation may fail that way either.
+ * <p>
+ * There are more accounts than lock stripes, so accounts share stripes and transfers lock
+ * stripes in both orders, while half of the operations go to a few hot accounts, so they race
+ * for the same funds. The number of operations run by each thread can be raised with the
+ * {@code stress.operationsPerThread} system property, e.g.
+ * {@code mvn test -Dtest=MoneyConservationStressTest -Dstress.operationsPerThread=250000} runs
+ * two million operations.
+ */
+class MoneyConservationStressTest {
+    private static final Currency RON = Currency.of("RON");
+    private static final int USERS = 16;
+    // More accounts than the stripes of AccountLocks
+    private static final int ACCOUNTS_PER_USER = 8;
+    private static final int HOT_ACCOUNTS = 4;
+    private static final long INITIAL_BALANCE = 200;
+    private static final int MAX_AMOUNT = 50;
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD =
+            Integer.getInteger("stress.operationsPerThread", 5000);
+    // Transfers, deposits and cash withdrawals
+    private static final int OPERATION_TYPES = 3;
+
+    private final AtomicInteger timestamp = new AtomicInteger();
+    private final AtomicInteger internalErrors = new AtomicInteger();
+
+    @Test
+    void concurrentDebitsConserveMoney() throws Exception {
+        Bank bank = new Bank();
+        for (int i = 0; i < USERS; i++) {
+            Email email = Email.of("user" + i + "@bank.org");
+            // Students pay no commission, so every debit moves exactly the requested amount
+            bank.createUserAccount("First" + i, "Last" + i, email, Date.of("2000-01-01"),
+                    "student");
+            for (int j = 0; j < ACCOUNTS_PER_USER; j++) {
+                bank.processOperation(CreateBankAccount.builder()
+                        .ownerEmail(email)
+                        .currency(RON)
+                        .type(BankAccountType.CLASSIC)
+                        .interestRate(0.0)
+                        .timestamp(timestamp.incrementAndGet())
+                        .build());
+            }
+        }
+
+        for (UserView user : getUsers(bank)) {
+            for (BankAccView account : user.getAccounts()) {
+                bank.processOperation(AddFunds.builder()
+                        .accountIban(account.getIban())
+                        .userEmail(user.getEmail())
+                        .amount((double) INITIAL_BALANCE)
+                        .timestamp(timestamp.incrementAndGet())
+                        .build());
+                bank.processOperation(new CreateCard(user.getEmail(), account.getIban(),
+                        CardType.DEBIT, timestamp.incrementAndGet()));
+            }
+        }
+
+        // Read the accounts again, to get the numbers of their cards
+        List<Email> owners = new ArrayList<>();
+        List<BankAccView> accounts = new ArrayList<>();
+        for (UserView user : getUsers(bank)) {
+            for (BankAccView account : user.getAccounts()) {
+                owners.add(user.getEmail());
+                accounts.add(account);
+            }
+        }
+
+        AtomicLong deposited = new AtomicLong(USERS * ACCOUNTS_PER_USER * INITIAL_BALANCE);
+        AtomicLong withdrawn = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                workers.add(executor.submit(() -> {
+                    for (int j = 0; j < OPERATIONS_PER_THREAD; j++) {
+                        runRandomOperation(bank, accounts, owners, deposited, withdrawn);
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                // Rethrows anything thrown by an operation, e.g. a failed debit
+                worker.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        List<BankAccView> finalAccounts = getUsers(bank).stream()
+                .flatMap(user -> user.getAccounts().stream())
+                .toList();
+        double totalBalance = 0;
+        for (BankAccView account : finalAccounts) {
+            assertTrue(account.getBalance() >= 0, "Negative balance: " + account.getIban());
+            totalBalance += account.getBalance();
+        }
+        assertEquals((double) deposited.get(), totalBalance + withdrawn.get());
+        assertTrue(withdrawn.get() > 0, "No cash withdrawal succeeded");
+        assertEquals(0, internalErrors.get(), "Operations failed with an internal error");
+    }
+
+    private void runRandomOperation(final Bank bank, final List<BankAccView> accounts,
+                                    final List<Email> owners, final AtomicLong deposited,
+                                    final AtomicLong withdrawn) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int sender = random.nextInt(random.nextBoolean() ? HOT_ACCOUNTS : accounts.size());
+        long amount = random.nextLong(1, MAX_AMOUNT + 1);
+
+        switch (random.nextInt(OPERATION_TYPES)) {
+            case 0 -> transfer(bank, accounts, owners, sender, amount);
+            case 1 -> {
+                process(bank, AddFunds.builder()
+                        .accountIban(accounts.get(sender).getIban())
+                        .userEmail(owners.get(sender))
+                        .amount((double) amount)
+                        .timestamp(timestamp.incrementAndGet())
+                        .build());
+                deposited.addAndGet(amount);
+            }
+            default -> {
+                BankOperationResult<Void> result = process(bank, CashWithdraw.builder()
+                        .cardNumber(accounts.get(sender).getCards().getFirst().getCardNumber())
+                        .amount((double) amount)
+                        .ownerEmail(owners.get(sender))
+                        .location(Location.of("ATM"))
+                        .timestamp(timestamp.incrementAndGet())
+                        .build());
+                if (result.isSuccess()) {
+                    withdrawn.addAndGet(amount);
+                }
+            }
+        }
+    }
+
+    private void transfer(final Bank bank, final List<BankAccView> accounts,
+                          final List<Email> owners, final int sender, final long amount) {
+        int receiver = (sender + ThreadLocalRandom.current().nextInt(1, accounts.size()))
+                % accounts.size();
+        process(bank, TransferRequest.builder()
+                .senderIdentifier(accounts.get(sender).getIban().toString())
+                .receiverIdentifier(accounts.get(receiver).getIban().toString())
+                .description("Stress transfer")
+                .userEmail(owners.get(sender))
+                .amount((double) amount)
+                .timestamp(timestamp.incrementAndGet())
+                .build());
+    }
+
+    private <T> BankOperationResult<T> process(final Bank bank,
+                                                final BankOperation<T> operation) {
+        BankOperationResult<T> result = bank.processOperation(operation);
+        if (result.getErrorType() == BankErrorType.INTERNAL_ERROR) {
+            internalErrors.incrementAndGet();
+        }
+        return result;
+    }
+
+    private static List<UserView> getUsers(final Bank bank) {
+        return bank.processOperation(new GetAllUsers()).getPayload().orElseThrow();
+    }
+}
@@ -0,0 +1,131 @@
+package org.poo.bank.account;
+
+import org.junit.jupiter.api.Test;
+import org.poo.bank.type.Currency;
+import org.poo.bank.type.Date;
+import org.poo.bank.type.Email;
+import org.poo.bank.type.IBAN;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the permission masks of the business accounts against the lists of default permissions
+ * of the roles, and the spending and deposit limits checked along with them.
+ */
+class BusinessPermissionsTest {
+    private static final double AMOUNT = 10;
+    private static final double LIMIT = 100;
+    private static final Currency RON = Currency.of("RON");
+
+    @Test
+    void permissionsHaveDistinctBits() {
+        long all = 0;
+        for (BusinessAccountPermission permission : BusinessAccountPermission.values()) {
+            assertEquals(1, Long.bitCount(permission.mask()));
+            assertEquals(0, all & permission.mask());
+            all |= permission.mask();
+        }
+        assertEquals(all, BusinessAccountRole.OWNER.getPermissionMask());
+    }
+
+    @Test
+    void operationsNeedThePermissionsOfTheRole() {
+        Map<BusinessAccountRole, UserAccount> members = new EnumMap<>(BusinessAccountRole.class);
+        for (BusinessAccountRole role : BusinessAccountRole.values()) {
+            members.put(role, user(role.name()));
+        }
+        BusinessAccount account = account(members.get(BusinessAccountRole.OWNER));
+        members.forEach((role, user) -> {
+            if (role != BusinessAccountRole.OWNER) {
+                account.addMemberAccount(user, role);
+            }
+        });
+
+        Map<BusinessAccountPermission, BusinessOperation> operations = operations(AMOUNT);
+        members.forEach((role, user) -> operations.forEach((permission, operation) ->
+                assertEquals(role.getPermissions().contains(permission),
+                        operation.validateUserPermission(account, user),
+                        role + " " + permission)));
+    }
+
+    @Test
+    void nonMembersHaveNoPermissions() {
+        BusinessAccount account = account(user("owner"));
+        UserAccount stranger = user("stranger");
+        operations(AMOUNT).values().forEach(operation ->
+                assertFalse(operation.validateUserPermission(account, stranger)));
+    }
+
+    @Test
+    void limitsApplyToTheirRoleOnly() {
+        UserAccount owner = user("owner");
+        UserAccount manager = user("manager");
+        UserAccount employee = user("employee");
+        BusinessAccount account = account(owner);
+        account.addMemberAccount(manager, BusinessAccountRole.MANAGER);
+        account.addMemberAccount(employee, BusinessAccountRole.EMPLOYEE);
+        assertEquals(Optional.empty(), account.getEmployeeSpendingLimit());
+        assertEquals(Optional.empty(), account.getEmployeeDepositLimit());
+
+        account.setSpendingLimit(BusinessAccountRole.EMPLOYEE, LIMIT);
+        account.setDepositLimit(BusinessAccountRole.EMPLOYEE, LIMIT);
+        assertEquals(Optional.of(LIMIT), account.getEmployeeSpendingLimit());
+        assertEquals(Optional.of(LIMIT), account.getEmployeeDepositLimit());
+
+        for (BusinessOperation operation : new BusinessOperation[]{
+                new BusinessOperation.AddFunds(LIMIT),
+                new BusinessOperation.CardPayment(LIMIT),
+                new BusinessOperation.Transfer(LIMIT)}) {
+            assertTrue(operation.validateUserPermission(account, employee));
+        }
+        for (BusinessOperation operation : new BusinessOperation[]{
+                new BusinessOperation.AddFunds(LIMIT + 1),
+                new BusinessOperation.CardPayment(LIMIT + 1),
+                new BusinessOperation.Transfer(LIMIT + 1)}) {
+            assertFalse(operation.validateUserPermission(account, employee));
+            assertTrue(operation.validateUserPermission(account, manager));
+            assertTrue(operation.validateUserPermission(account, owner));
+        }
+    }
+
+    /**
+     * Creates an operation of every kind, by the permission it requires.
+     */
+    private static Map<BusinessAccountPermission, BusinessOperation> operations(
+            final double amount) {
+        Map<BusinessAccountPermission, BusinessOperation> operations =
+                new EnumMap<>(BusinessAccountPermission.class);
+        operations.put(BusinessAccountPermission.DEPOSIT, new BusinessOperation.AddFunds(amount));
+        operations.put(BusinessAccountPermission.CARD_PAYMENT,
+                new BusinessOperation.CardPayment(amount));
+        operations.put(BusinessAccountPermission.TRANSFER, new BusinessOperation.Transfer(amount));
+        operations.put(BusinessAccountPermission.CARD_CREATION, new BusinessOperation.AddCard());
+        operations.put(BusinessAccountPermission.CARD_DELETION_SAME_OWNER,
+                new BusinessOperation.RemoveCardSameOwner());
+        operations.put(BusinessAccountPermission.CARD_DELETION_DIFFERENT_OWNER,
+                new BusinessOperation.RemoveCardDifferentOwner());
+        operations.put(BusinessAccountPermission.SET_SPENDING_LIMIT,
+                new BusinessOperation.SetSpendingLimit());
+        operations.put(BusinessAccountPermission.SET_DEPOSIT_LIMIT,
+                new BusinessOperation.SetDepositLimit());
+        operations.put(BusinessAccountPermission.SET_MINIMUM_BALANCE,
+                new BusinessOperation.SetMinimumBalance());
+        assertEquals(BusinessAccountPermission.values().length, operations.size());
+        return operations;
+    }
+
+    private static UserAccount user(final String name) {
+        return new UserAccount(name, name, Email.of(name + "@bank.org"), Date.of("1990-01-01"),
+                "engineer");
+    }
+
+    private static BusinessAccount account(final UserAccount owner) {
+        return new BusinessAccount(IBAN.of("RO00POOB0000000000000001"), 0, owner, RON);
+    }
+}
@@ -0,0 +1,90 @@
+package org.poo.bank.account;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that the amounts spent leave a {@link RollingSpend} once their bucket leaves the window,
+ * for sliding and calendar windows.
+ */
+class RollingSpendTest {
+    private static final double DELTA = 1e-9;
+    private static final long SEED = 11;
+    private static final int DAY = 24 * 60 * 60;
+
+    @Test
+    void slidingWindowDropsExpiredBuckets() {
+        // Five buckets of two seconds each
+        RollingSpend spend = new RollingSpend(SpendingWindow.sliding(10, 5));
+        spend.add(0, 10);
+        spend.add(3, 5);
+
+        assertEquals(15, spend.total(3), DELTA);
+        assertEquals(15, spend.total(9), DELTA);
+        // The bucket of second 0 leaves the window
+        assertEquals(5, spend.total(10), DELTA);
+        assertEquals(5, spend.total(11), DELTA);
+        // The bucket of second 3 leaves the window
+        assertEquals(0, spend.total(12), DELTA);
+    }
+
+    @Test
+    void calendarWindowStartsOverEveryDay() {
+        RollingSpend spend = new RollingSpend(SpendingWindow.DAILY);
+        spend.add(100, 10);
+        spend.add(DAY - 1, 5);
+
+        assertEquals(15, spend.total(DAY - 1), DELTA);
+        assertEquals(0, spend.total(DAY), DELTA);
+        spend.add(DAY + 1, 7);
+        assertEquals(7, spend.total(2 * DAY - 1), DELTA);
+    }
+
+    @Test
+    void ignoresAmountsOlderThanTheWindow() {
+        RollingSpend spend = new RollingSpend(SpendingWindow.sliding(10, 5));
+        spend.add(100, 10);
+        spend.add(90, 5);
+
+        assertEquals(10, spend.total(100), DELTA);
+    }
+
+    @Test
+    void clearsTheWheelAfterALongGap() {
+        RollingSpend spend = new RollingSpend(SpendingWindow.sliding(10, 5));
+        spend.add(0, 10);
+        spend.add(8, 5);
+        spend.add(1000, 1);
+
+        assertEquals(1, spend.total(1000), DELTA);
+    }
+
+    @Test
+    void matchesTheSumOfTheBucketsInTheWindow() {
+        SpendingWindow window = SpendingWindow.sliding(60, 12);
+        int bucketWidth = window.length() / window.buckets();
+        RollingSpend spend = new RollingSpend(window);
+        List<int[]> payments = new ArrayList<>();
+        Random random = new Random(SEED);
+
+        int timestamp = 0;
+        for (int i = 0; i < 10_000; i++) {
+            // Mostly small steps, with a few gaps longer than the window
+            timestamp += random.nextInt(10) == 0 ? random.nextInt(200) : random.nextInt(4);
+            int amount = 1 + random.nextInt(100);
+            spend.add(timestamp, amount);
+            payments.add(new int[]{timestamp, amount});
+
+            // The window holds the buckets from the oldest one to the one of the timestamp
+            int oldestBucket = timestamp / bucketWidth - window.buckets() + 1;
+            payments.removeIf(payment -> payment[0] / bucketWidth < oldestBucket);
+            double expected = payments.stream().mapToInt(payment -> payment[1]).sum();
+            assertEquals(expected, spend.total(timestamp), DELTA);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package org.poo.bank.currency;
+
+import org.junit.jupiter.api.Test;
+import org.poo.bank.type.Currency;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks the conversion table against a breadth-first search of the exchange rates done for every
+ * conversion, as the rates are added and changed.
+ */
+class CurrencyExchangeServiceTest {
+    private static final double DELTA = 1e-9;
+    private static final long SEED = 3;
+    private static final Currency RON = Currency.of("RON");
+    private static final Currency EUR = Currency.of("EUR");
+    private static final Currency USD = Currency.of("USD");
+    private static final Currency JPY = Currency.of("JPY");
+
+    @Test
+    void convertsAlongChainsOfRates() {
+        CurrencyExchangeService service = new CurrencyExchangeService();
+        service.updateExchangeRate(EUR, RON, 5);
+        service.updateExchangeRate(USD, EUR, 0.9);
+
+        assertEquals(50, service.convert(EUR, RON, 10), DELTA);
+        assertEquals(2, service.convert(RON, EUR, 10), DELTA);
+        assertEquals(45, service.convert(USD, RON, 10), DELTA);
+        assertEquals(10 / 4.5, service.convert(RON, USD, 10), DELTA);
+        assertEquals(10, service.convert(JPY, JPY, 10), DELTA);
+    }
+
+    @Test
+    void usesTheChangedRates() {
+        CurrencyExchangeService service = new CurrencyExchangeService();
+        service.updateExchangeRate(EUR, RON, 5);
+        service.updateExchangeRate(USD, EUR, 0.9);
+        int version = service.getRatesVersion();
+
+        service.updateExchangeRate(RON, EUR, 0.25);
+        assertEquals(version + 1, service.getRatesVersion());
+        assertEquals(40, service.convert(EUR, RON, 10), DELTA);
+        assertEquals(36, service.convert(USD, RON, 10), DELTA);
+    }
+
+    @Test
+    void rejectsUnknownCurrenciesAndMissingPaths() {
+        CurrencyExchangeService service = new CurrencyExchangeService();
+        service.updateExchangeRate(EUR, RON, 5);
+        service.updateExchangeRate(USD, JPY, 150);
+
+        assertThrows(IllegalArgumentException.class, () -> service.convert(EUR, USD, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.convert(Currency.of("GBP"), EUR, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.convert(EUR, Currency.of("GBP"), 1));
+        assertThrows(IllegalArgumentException.class, () -> service.convert(EUR, RON, -1));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.updateExchangeRate(EUR, RON, 0));
+    }
+
+    @Test
+    void matchesASearchOfTheRates() {
+        Random random = new Random(SEED);
+        Currency[] currencies = new Currency[12];
+        for (int i = 0; i < currencies.length; i++) {
+            currencies[i] = Currency.of("C" + i);
+        }
+        CurrencyExchangeService service = new CurrencyExchangeService();
+        Map<Currency, Map<Currency, Double>> rates = new LinkedHashMap<>();
+
+        for (int update = 0; update < 40; update++) {
+            Currency from = currencies[random.nextInt(currencies.length)];
+            Currency to = currencies[random.nextInt(currencies.length)];
+            if (from.equals(to)) {
+                continue;
+            }
+            double rate = 0.1 + random.nextInt(100) / 10.0;
+            service.updateExchangeRate(from, to, rate);
+            rates.computeIfAbsent(from, k -> new LinkedHashMap<>()).put(to, rate);
+            rates.computeIfAbsent(to, k -> new LinkedHashMap<>()).put(from, 1 / rate);
+
+            for (Currency source : rates.keySet()) {
+                Map<Currency, Double> expected = search(rates, source);
+                for (Currency target : rates.keySet()) {
+                    if (source.equals(target)) {
+                        continue;
+                    }
+                    if (expected.containsKey(target)) {
+                        assertEquals(expected.get(target), service.convert(source, target, 1),
+                                DELTA);
+                    } else {
+                        assertThrows(IllegalArgumentException.class,
+                                () -> service.convert(source, target, 1));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the rates from a currency to the ones reachable from it, breadth-first, in the order
+     * the rates were added.
+     */
+    private static Map<Currency, Double> search(final Map<Currency, Map<Currency, Double>> rates,
+                                                final Currency source) {
+        Map<Currency, Double> found = new HashMap<>();
+        found.put(source, 1.0);
+        Queue<Currency> queue = new ArrayDeque<>();
+        queue.add(source);
+        while (!queue.isEmpty()) {
+            Currency current = queue.poll();
+            for (Map.Entry<Currency, Double> rate : rates.get(current).entrySet()) {
+                if (!found.containsKey(rate.getKey())) {
+                    found.put(rate.getKey(), found.get(current) * rate.getValue());
+                    queue.add(rate.getKey());
+                }
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,156 @@
+package org.poo.bank.eventSystem.handlers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.poo.bank.Bank;
+import org.poo.bank.account.BankAccount;
+import org.poo.bank.currency.CurrencyExchangeService;
+import org.poo.bank.eventSystem.BankEventListener;
+import org.poo.bank.eventSystem.BankEventService;
+import org.poo.bank.eventSystem.events.TransactionEvent;
+import org.poo.bank.log.AuditLogService;
+import org.poo.bank.log.AuditLogStatus;
+import org.poo.bank.log.AuditLogType;
+import org.poo.bank.log.interfaces.TransactionLog;
+import org.poo.bank.merchant.CashbackType;
+import org.poo.bank.merchant.MerchantType;
+import org.poo.bank.servicePlan.ServicePlanType;
+import org.poo.bank.type.Currency;
+import org.poo.bank.type.Date;
+import org.poo.bank.type.Email;
+import org.poo.bank.type.IBAN;
+import org.poo.checker.CheckerConstants;
+import org.poo.command.CommandFactory;
+import org.poo.fileio.ObjectInputReader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Replays the input files and checks that the Silver to Gold upgrades happen on exactly the
+ * transactions where a full scan of the sender's logs finds enough eligible transactions, which
+ * is how the upgrade was decided before the transactions were counted incrementally.
+ */
+class FreePlanUpgradeHandlerTest {
+    private static final int SILVER_TO_GOLD_TRANSACTION_THRESHOLD = 5;
+    private static final int ELIGIBLE_TRANSACTION_AMOUNT = 300;
+    private static final Currency RON = Currency.of("RON");
+
+    private static int checkedUpgrades = 0;
+
+    /**
+     * Records, for every transaction event, whether the sender's owner should have been upgraded
+     * and whether they were. It listens to the events both before and after the bank's handlers.
+     */
+    private static final class UpgradeRecorder {
+        private final AuditLogService auditLogService;
+        private final CurrencyExchangeService exchangeService = new CurrencyExchangeService();
+        private final List<String> expectedUpgrades = new ArrayList<>();
+        private final List<String> actualUpgrades = new ArrayList<>();
+        private ServicePlanType planBefore;
+
+        UpgradeRecorder(final AuditLogService auditLogService) {
+            this.auditLogService = auditLogService;
+        }
+
+        void beforeHandlers(final TransactionEvent event) {
+            planBefore = getPlan(event.getSenderBankAccount());
+        }
+
+        void afterHandlers(final TransactionEvent event) {
+            if (planBefore != ServicePlanType.SILVER) {
+                return;
+            }
+
+            BankAccount account = event.getSenderBankAccount();
+            String upgrade = event.getTimestamp() + " " + account.getIban();
+            if (countEligibleTransactions(account) >= SILVER_TO_GOLD_TRANSACTION_THRESHOLD) {
+                expectedUpgrades.add(upgrade);
+            }
+            if (getPlan(account) == ServicePlanType.GOLD) {
+                actualUpgrades.add(upgrade);
+            }
+        }
+
+        private long countEligibleTransactions(final BankAccount account) {
+            return auditLogService.getLogs(account.getIban()).stream()
+                    .filter(log -> log.getLogStatus() == AuditLogStatus.SUCCESS)
+                    .filter(log -> log.getLogType() == AuditLogType.CARD_PAYMENT
+                            || log.getLogType() == AuditLogType.TRANSFER)
+                    .map(log -> (TransactionLog) log)
+                    .filter(log -> log.getRecipientMerchant().isPresent())
+                    .filter(log -> exchangeService.convert(account.getCurrency(), RON,
+                            log.getAmount()) >= ELIGIBLE_TRANSACTION_AMOUNT)
+                    .count();
+        }
+
+        private static ServicePlanType getPlan(final BankAccount account) {
+            return account.getOwner().getServicePlan().getServicePlanType();
+        }
+    }
+
+    static Stream<Path> inputFiles() throws IOException {
+        try (Stream<Path> files = Files.list(Path.of(CheckerConstants.TESTS_PATH))) {
+            return files.sorted().toList().stream();
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("inputFiles")
+    void upgradesOnTheSameTransactionsAsAFullScan(final Path inputFile) throws IOException {
+        BankEventService eventService = new BankEventService();
+        AuditLogService auditLogService = new AuditLogService();
+        UpgradeRecorder recorder = new UpgradeRecorder(auditLogService);
+
+        // The listeners are notified in the order they subscribed, so the recorder sees every
+        // transaction before and after the handlers subscribed by the bank
+        eventService.subscribe(new BankEventListener<>(TransactionEvent.class,
+                recorder::beforeHandlers));
+        Bank bank = new Bank(eventService, auditLogService);
+        eventService.subscribe(new BankEventListener<>(TransactionEvent.class,
+                recorder::afterHandlers));
+
+        try (ObjectInputReader inputData = ObjectInputReader.open(new ObjectMapper(),
+                inputFile.toFile())) {
+            Arrays.stream(inputData.getExchangeRates()).forEach(rate -> {
+                bank.registerExchangeRate(Currency.of(rate.getFrom()), Currency.of(rate.getTo()),
+                        rate.getRate());
+                recorder.exchangeService.updateExchangeRate(Currency.of(rate.getFrom()),
+                        Currency.of(rate.getTo()), rate.getRate());
+            });
+            Arrays.stream(inputData.getUsers()).forEach(user ->
+                    bank.createUserAccount(user.getFirstName(), user.getLastName(),
+                            Email.of(user.getEmail()), Date.of(user.getBirthDate()),
+                            user.getOccupation()));
+            Arrays.stream(inputData.getCommerciants()).forEach(merchant ->
+                    bank.addMerchant(merchant.getCommerciant(), merchant.getId(),
+                            IBAN.of(merchant.getAccount()), MerchantType.of(merchant.getType()),
+                            CashbackType.of(merchant.getCashbackStrategy())));
+
+            inputData.commands().forEachRemaining(input -> {
+                var command = CommandFactory.getCommand(input.getCommand(), input);
+                assertNotNull(command, "Unsupported command: " + input.getCommand());
+                command.execute(bank);
+            });
+        }
+
+        assertEquals(recorder.expectedUpgrades, recorder.actualUpgrades);
+        checkedUpgrades += recorder.expectedUpgrades.size();
+    }
+
+    @AfterAll
+    static void someUpgradesWereChecked() {
+        assertTrue(checkedUpgrades > 0, "No input file upgrades a Silver plan to Gold");
+    }
+}
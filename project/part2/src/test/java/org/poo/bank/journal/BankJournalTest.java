@@ -0,0 +1,72 @@
+package org.poo.bank.journal;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.io.TempDir;
+import org.poo.bank.operation.impl.GetAllUsers;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Closes a journal while several threads are appending to it. Every append must either be
+ * written, and replayed when the journal is opened again, or be rejected because the journal is
+ * closed. No append may fail because the file was closed under it.
+ */
+class BankJournalTest {
+    private static final int THREADS = 8;
+    private static final int APPENDS_BEFORE_CLOSE = 200;
+
+    @TempDir
+    private Path directory;
+
+    @RepeatedTest(20)
+    void appendsRacingCloseAreWrittenOrRejected() throws Exception {
+        Path file = directory.resolve("journal.bin");
+        // Forcing every batch to disk keeps the writes slow, so records queue up behind them
+        BankJournal journal = BankJournal.open(file, BankJournal.SyncMode.FSYNC);
+        AtomicInteger appended = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> appenders = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                appenders.add(executor.submit(() -> {
+                    while (true) {
+                        try {
+                            journal.append(new GetAllUsers());
+                        } catch (IllegalStateException e) {
+                            // The journal is closed
+                            return;
+                        }
+                        appended.incrementAndGet();
+                    }
+                }));
+            }
+
+            while (appended.get() < APPENDS_BEFORE_CLOSE) {
+                Thread.onSpinWait();
+            }
+            journal.close();
+            for (Future<?> appender : appenders) {
+                // Rethrows anything but the rejection of an append, e.g. a write failure
+                appender.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        try (BankJournal reopened = BankJournal.open(file, BankJournal.SyncMode.NONE)) {
+            long replayed = reopened.replay(operation -> { });
+            assertTrue(replayed >= APPENDS_BEFORE_CLOSE);
+            assertEquals(appended.get(), replayed);
+        }
+    }
+}
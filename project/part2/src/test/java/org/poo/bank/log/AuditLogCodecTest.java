@@ -0,0 +1,304 @@
+package org.poo.bank.log;
+
+import org.junit.jupiter.api.Test;
+import org.poo.bank.account.BankAccount;
+import org.poo.bank.account.ClassicAccount;
+import org.poo.bank.account.UserAccount;
+import org.poo.bank.log.impl.CardOpLog;
+import org.poo.bank.log.impl.CardPaymentLog;
+import org.poo.bank.log.impl.CashWithdrawLog;
+import org.poo.bank.log.impl.DepositLog;
+import org.poo.bank.log.impl.InterestClaimLog;
+import org.poo.bank.log.impl.SavingsWithdrawLog;
+import org.poo.bank.log.impl.SplitPaymentLog;
+import org.poo.bank.log.impl.TransferLog;
+import org.poo.bank.log.impl.UpgradePlanLog;
+import org.poo.bank.merchant.Merchant;
+import org.poo.bank.merchant.MerchantType;
+import org.poo.bank.servicePlan.ServicePlanType;
+import org.poo.bank.splitPayment.SplitPaymentType;
+import org.poo.bank.type.CardNumber;
+import org.poo.bank.type.Currency;
+import org.poo.bank.type.Date;
+import org.poo.bank.type.Email;
+import org.poo.bank.type.IBAN;
+import org.poo.bank.type.Location;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Encodes a log of every class and checks that decoding the record gives back the same fields,
+ * with the same account, user and merchant instances.
+ */
+class AuditLogCodecTest {
+    private static final int TIMESTAMP = 17;
+    private static final Currency RON = Currency.of("RON");
+    private static final IBAN IBAN_A = IBAN.of("RO00POOB0000000000000001");
+    private static final IBAN IBAN_B = IBAN.of("RO00POOB0000000000000002");
+    private static final UserAccount USER = new UserAccount("First", "Last",
+            Email.of("user@bank.org"), Date.of("1990-01-01"), "student");
+    private static final BankAccount ACCOUNT = new ClassicAccount(IBAN_A, 0, USER, RON);
+    private static final Merchant MERCHANT = Merchant.builder()
+            .name("Shop")
+            .id(0)
+            .accountIban(IBAN_B)
+            .type(MerchantType.FOOD)
+            .build();
+
+    private final AuditLogCodec codec = new AuditLogCodec();
+
+    @Test
+    void baseLog() {
+        AuditLog log = AuditLog.builder()
+                .timestamp(TIMESTAMP)
+                .logType(AuditLogType.ACCOUNT_CREATION)
+                .logStatus(AuditLogStatus.SUCCESS)
+                .description("New account created")
+                .build();
+
+        AuditLog decoded = roundTrip(log);
+        assertNull(decoded.getError());
+    }
+
+    @Test
+    void cardOpLog() {
+        CardOpLog log = CardOpLog.builder()
+                .timestamp(TIMESTAMP)
+                .logType(AuditLogType.CARD_CREATION)
+                .logStatus(AuditLogStatus.SUCCESS)
+                .description("New card created")
+                .card(CardNumber.of("0000000000000007"))
+                .cardHolder(USER.getEmail())
+                .account(IBAN_A)
+                .build();
+
+        CardOpLog decoded = roundTrip(log);
+        assertEquals(log.getCard(), decoded.getCard());
+        assertEquals(log.getCardHolder(), decoded.getCardHolder());
+        assertEquals(log.getAccount(), decoded.getAccount());
+    }
+
+    @Test
+    void cardPaymentLog() {
+        CardPaymentLog log = CardPaymentLog.builder()
+                .timestamp(TIMESTAMP)
+                .logType(AuditLogType.CARD_PAYMENT)
+                .logStatus(AuditLogStatus.SUCCESS)
+                .description("Card payment")
+                .amount(12.5)
+                .merchant(MERCHANT)
+                .userAccount(USER)
+                .build();
+
+        CardPaymentLog decoded = roundTrip(log);
+        assertEquals(log.getAmount(), decoded.getAmount());
+        assertSame(MERCHANT, decoded.getMerchant());
+        assertSame(USER, decoded.getUserAccount());
+    }
+
+    @Test
+    void cashWithdrawLog() {
+        CashWithdrawLog log = CashWithdrawLog.builder()
+                .timestamp(TIMESTAMP)
+                .logType(AuditLogType.CASH_WITHDRAWAL)
+                .logStatus(AuditLogStatus.FAILURE)
+                .description("Cash withdrawal of 100.0")
+                .error("Insufficient funds")
+                .amount(100.0)
+                .location(Location.of("Bucharest"))
+                .build();
+
+        CashWithdrawLog decoded = roundTrip(log);
+        assertEquals(log.getAmount(), decoded.getAmount());
+        assertEquals(log.getLocation(), decoded.getLocation());
+    }
+
+    @Test
+    void depositLog() {
+        DepositLog log = DepositLog.builder()
+                .timestamp(TIMESTAMP)
+                .logType(AuditLogType.DEPOSIT)
+                .logStatus(AuditLogStatus.SUCCESS)
+                .amount(0.1)
+                .bankAccount(ACCOUNT)
+                .userAccount(USER)
+                .build();
+
+        DepositLog decoded = roundTrip(log);
+        assertEquals(log.getAmount(), decoded.getAmount());
+        assertSame(ACCOUNT, decoded.getBankAccount());
+        assertSame(USER, decoded.getUserAccount());
+    }
+
+    @Test
+    void interestClaimLog() {
+        InterestClaimLog log = InterestClaimLog.builder()
+                .timestamp(TIMESTAMP)
+                .logType(AuditLogType.INTEREST_CLAIM)
+                .logStatus(AuditLogStatus.SUCCESS)
+                .description("Interest rate income")
+                .amount(3.75)
+                .currency(RON)
+                .build();
+
+        InterestClaimLog decoded = roundTrip(log);
+        assertEquals(log.getAmount(), decoded.getAmount());
+        assertEquals(RON, decoded.getCurrency());
+    }
+
+    @Test
+    void savingsWithdrawLog() {
+        SavingsWithdrawLog log = SavingsWithdrawLog.builder()
+                .timestamp(TIMESTAMP)
+                .logType(AuditLogType.SAVINGS_WITHDRAWAL)
+                .logStatus(AuditLogStatus.SUCCESS)
+                .description("Savings withdrawal")
+                .amount(50.0)
+                .savingsAccountIBAN(IBAN_A)
+                .classicAccountIBAN(IBAN_B)
+                .build();
+
+        SavingsWithdrawLog decoded = roundTrip(log);
+        assertEquals(log.getAmount(), decoded.getAmount());
+        assertEquals(IBAN_A, decoded.getSavingsAccountIBAN());
+        assertEquals(IBAN_B, decoded.getClassicAccountIBAN());
+    }
+
+    @Test
+    void splitPaymentLog() {
+        SplitPaymentLog log = SplitPaymentLog.builder()
+                .timestamp(TIMESTAMP)
+                .logType(AuditLogType.SPLIT_PAYMENT)
+                .logStatus(AuditLogStatus.SUCCESS)
+                .description("Split payment of 30.00 RON")
+                .currency(RON)
+                .amountPerAccount(List.of(10.0, 20.0))
+                .involvedAccounts(List.of(IBAN_A, IBAN_B))
+                .type(SplitPaymentType.CUSTOM)
+                .build();
+
+        SplitPaymentLog decoded = roundTrip(log);
+        assertEquals(RON, decoded.getCurrency());
+        assertNull(decoded.getAmount());
+        assertEquals(log.getAmountPerAccount(), decoded.getAmountPerAccount());
+        assertEquals(log.getInvolvedAccounts(), decoded.getInvolvedAccounts());
+        assertEquals(SplitPaymentType.CUSTOM, decoded.getType());
+    }
+
+    @Test
+    void equalSplitPaymentLog() {
+        SplitPaymentLog log = SplitPaymentLog.builder()
+                .timestamp(TIMESTAMP)
+                .logType(AuditLogType.SPLIT_PAYMENT)
+                .logStatus(AuditLogStatus.SUCCESS)
+                .currency(RON)
+                .amount(30.0)
+                .involvedAccounts(List.of(IBAN_A))
+                .type(SplitPaymentType.EQUAL)
+                .build();
+
+        SplitPaymentLog decoded = roundTrip(log);
+        assertEquals(log.getAmount(), decoded.getAmount());
+        assertNull(decoded.getAmountPerAccount());
+        assertEquals(log.getInvolvedAccounts(), decoded.getInvolvedAccounts());
+        assertEquals(SplitPaymentType.EQUAL, decoded.getType());
+    }
+
+    @Test
+    void transferLog() {
+        for (Merchant merchant : new Merchant[]{MERCHANT, null}) {
+            TransferLog log = TransferLog.builder()
+                    .timestamp(TIMESTAMP)
+                    .logType(AuditLogType.TRANSFER)
+                    .logStatus(AuditLogStatus.SUCCESS)
+                    .description("Transfer")
+                    .senderIBAN(IBAN_A)
+                    .initiatingUser(USER)
+                    .receiverIBAN(IBAN_B)
+                    .amount(25.0)
+                    .currency(RON)
+                    .transferType(TransferLog.TransferType.RECEIVED)
+                    .merchant(merchant)
+                    .build();
+
+            TransferLog decoded = roundTrip(log);
+            assertEquals(IBAN_A, decoded.getSenderIBAN());
+            assertSame(USER, decoded.getInitiatingUser());
+            assertEquals(IBAN_B, decoded.getReceiverIBAN());
+            assertEquals(log.getAmount(), decoded.getAmount());
+            assertEquals(RON, decoded.getCurrency());
+            assertEquals(TransferLog.TransferType.RECEIVED, decoded.getTransferType());
+            assertSame(merchant, decoded.getMerchant());
+        }
+    }
+
+    @Test
+    void upgradePlanLog() {
+        UpgradePlanLog log = UpgradePlanLog.builder()
+                .timestamp(TIMESTAMP)
+                .logType(AuditLogType.ACCOUNT_PLAN_UPDATE)
+                .logStatus(AuditLogStatus.SUCCESS)
+                .description("Upgrade plan")
+                .accountIBAN(IBAN_A)
+                .newPlanType(ServicePlanType.GOLD)
+                .build();
+
+        UpgradePlanLog decoded = roundTrip(log);
+        assertEquals(IBAN_A, decoded.getAccountIBAN());
+        assertEquals(ServicePlanType.GOLD, decoded.getNewPlanType());
+    }
+
+    @Test
+    void recordsAreDecodedOneAfterAnother() {
+        AuditLog first = AuditLog.builder()
+                .timestamp(1)
+                .logType(AuditLogType.CARD_DELETION)
+                .logStatus(AuditLogStatus.SUCCESS)
+                .description("The card has been destroyed")
+                .build();
+        DepositLog second = DepositLog.builder()
+                .timestamp(2)
+                .logType(AuditLogType.DEPOSIT)
+                .logStatus(AuditLogStatus.SUCCESS)
+                .amount(1.0)
+                .bankAccount(ACCOUNT)
+                .userAccount(USER)
+                .build();
+
+        byte[] firstRecord = codec.encode(first);
+        byte[] secondRecord = codec.encode(second);
+        ByteBuffer in = ByteBuffer.allocate(firstRecord.length + secondRecord.length)
+                .put(firstRecord)
+                .put(secondRecord)
+                .flip();
+
+        assertEquals(first.getDescription(), codec.decode(in).getDescription());
+        assertSame(ACCOUNT, ((DepositLog) codec.decode(in)).getBankAccount());
+        assertFalse(in.hasRemaining());
+    }
+
+    /**
+     * Encodes and decodes a log, checking the class and the fields of the base log.
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends AuditLog> T roundTrip(final T log) {
+        byte[] record = codec.encode(log);
+        ByteBuffer in = ByteBuffer.wrap(record);
+        AuditLog decoded = codec.decode(in);
+
+        assertFalse(in.hasRemaining());
+        assertSame(log.getClass(), decoded.getClass());
+        assertEquals(log.getTimestamp(), decoded.getTimestamp());
+        assertEquals(log.getLogType(), decoded.getLogType());
+        assertEquals(log.getLogStatus(), decoded.getLogStatus());
+        assertEquals(log.getDescription(), decoded.getDescription());
+        assertEquals(log.getError(), decoded.getError());
+        return (T) decoded;
+    }
+}
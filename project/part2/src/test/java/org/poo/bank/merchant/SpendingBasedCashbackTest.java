@@ -0,0 +1,125 @@
+package org.poo.bank.merchant;
+
+import org.junit.jupiter.api.Test;
+import org.poo.bank.account.BankAccount;
+import org.poo.bank.account.ClassicAccount;
+import org.poo.bank.account.UserAccount;
+import org.poo.bank.servicePlan.ServicePlan;
+import org.poo.bank.servicePlan.ServicePlanType;
+import org.poo.bank.servicePlan.impl.GoldPlan;
+import org.poo.bank.servicePlan.impl.SilverPlan;
+import org.poo.bank.servicePlan.impl.StandardPlan;
+import org.poo.bank.servicePlan.impl.StudentPlan;
+import org.poo.bank.type.Currency;
+import org.poo.bank.type.Date;
+import org.poo.bank.type.Email;
+import org.poo.bank.type.IBAN;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the cashback tiers of the spending-based strategy against the rules they were built
+ * from, for every service plan.
+ */
+class SpendingBasedCashbackTest {
+    private static final long SEED = 5;
+    private static final Currency RON = Currency.of("RON");
+    private static final List<Double> THRESHOLDS = List.of(100.0, 300.0, 500.0);
+    private static final Map<Double, Map<ServicePlanType, Double>> RULES = Map.of(
+            100.0, Map.of(
+                    ServicePlanType.STUDENT, 0.001,
+                    ServicePlanType.STANDARD, 0.001,
+                    ServicePlanType.SILVER, 0.003,
+                    ServicePlanType.GOLD, 0.005
+            ),
+            300.0, Map.of(
+                    ServicePlanType.STUDENT, 0.002,
+                    ServicePlanType.STANDARD, 0.002,
+                    ServicePlanType.SILVER, 0.004,
+                    ServicePlanType.GOLD, 0.0055
+            ),
+            500.0, Map.of(
+                    ServicePlanType.STUDENT, 0.0025,
+                    ServicePlanType.STANDARD, 0.0025,
+                    ServicePlanType.SILVER, 0.005,
+                    ServicePlanType.GOLD, 0.007
+            )
+    );
+    private static final ServicePlan[] PLANS = {
+            StandardPlan.getInstance(), StudentPlan.getInstance(), SilverPlan.getInstance(),
+            GoldPlan.getInstance()
+    };
+
+    private int nextAccountId = 0;
+
+    @Test
+    void reachesEachTierAtItsThreshold() {
+        Merchant.SpendingBasedCashback strategy = new Merchant.SpendingBasedCashback();
+        BankAccount account = account(GoldPlan.getInstance());
+
+        assertEquals(Optional.empty(), strategy.registerTransaction(account, 99.99));
+        assertEquals(0.005, percentage(strategy.registerTransaction(account, 0.01)));
+        assertEquals(0.005, percentage(strategy.registerTransaction(account, 199.99)));
+        assertEquals(0.0055, percentage(strategy.registerTransaction(account, 0.01)));
+        assertEquals(0.007, percentage(strategy.registerTransaction(account, 1000)));
+        assertEquals(0.007, percentage(strategy.registerTransaction(account, 0)));
+    }
+
+    @Test
+    void sharesTheCashbackOfEachTier() {
+        Merchant.SpendingBasedCashback strategy = new Merchant.SpendingBasedCashback();
+        Cashback first = strategy.registerTransaction(account(PLANS[0]), 150).orElseThrow();
+        Cashback second = strategy.registerTransaction(account(PLANS[0]), 150).orElseThrow();
+
+        assertSame(first, second);
+        assertTrue(first.isApplicableNow());
+        assertEquals(new Merchant.SpendingBasedCashback.SpendingCashback(0.001), first);
+    }
+
+    @Test
+    void matchesTheRulesForEveryPlan() {
+        Random random = new Random(SEED);
+        Merchant.SpendingBasedCashback strategy = new Merchant.SpendingBasedCashback();
+        List<BankAccount> accounts = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            for (ServicePlan plan : PLANS) {
+                accounts.add(account(plan));
+            }
+        }
+        Map<BankAccount, Double> totals = new HashMap<>();
+
+        for (int i = 0; i < 2000; i++) {
+            BankAccount account = accounts.get(random.nextInt(accounts.size()));
+            double amount = random.nextInt(5000) / 100.0;
+            double total = totals.merge(account, amount, Double::sum);
+
+            Optional<Double> expected = THRESHOLDS.stream()
+                    .filter(threshold -> total >= threshold)
+                    .reduce((first, second) -> second)
+                    .map(threshold -> RULES.get(threshold)
+                            .get(account.getOwner().getServicePlan().getServicePlanType()));
+            assertEquals(expected,
+                    strategy.registerTransaction(account, amount).map(Cashback::getPercentage));
+        }
+    }
+
+    private static double percentage(final Optional<Cashback> cashback) {
+        return cashback.orElseThrow().getPercentage();
+    }
+
+    private BankAccount account(final ServicePlan plan) {
+        int id = nextAccountId++;
+        UserAccount owner = new UserAccount("First" + id, "Last" + id,
+                Email.of("user" + id + "@bank.org"), Date.of("1990-01-01"), "engineer", plan);
+        return new ClassicAccount(IBAN.of(String.format("RO00POOB%016d", id)), id, owner, RON);
+    }
+}
@@ -0,0 +1,109 @@
+package org.poo.bank.merchant;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks the transaction counters against a map of counts, through collisions, probing and the
+ * growth of the table.
+ */
+class TransactionCountersTest {
+    private static final long SEED = 7;
+    // The initial capacity of the table and the multiplier of its hash function
+    private static final int INITIAL_CAPACITY = 1 << 10;
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    @Test
+    void countsEachPairSeparately() {
+        TransactionCounters counters = new TransactionCounters();
+        assertEquals(1, counters.registerTransaction(0, 0, 10));
+        assertEquals(1, counters.registerTransaction(0, 1, 10));
+        assertEquals(1, counters.registerTransaction(1, 0, 10));
+        assertEquals(2, counters.registerTransaction(0, 0, 10));
+        assertEquals(3, counters.registerTransaction(0, 0, 10));
+        assertEquals(2, counters.registerTransaction(1, 0, 10));
+    }
+
+    @Test
+    void probesPastCollidingKeys() {
+        // Find accounts whose keys start probing from the same slot as the first one
+        List<Integer> accounts = new ArrayList<>();
+        int slot = initialSlot(0, 0);
+        for (int account = 0; accounts.size() < 5; account++) {
+            if (initialSlot(0, account) == slot) {
+                accounts.add(account);
+            }
+        }
+
+        TransactionCounters counters = new TransactionCounters();
+        for (int round = 1; round <= 3; round++) {
+            for (int account : accounts) {
+                assertEquals(round, counters.registerTransaction(0, account, 1));
+            }
+        }
+    }
+
+    @Test
+    void keepsTheCountsWhenTheTableGrows() {
+        Random random = new Random(SEED);
+        TransactionCounters counters = new TransactionCounters();
+        Map<Long, Integer> expected = new HashMap<>();
+
+        // About 20000 pairs, so the table grows several times
+        for (int i = 0; i < 100_000; i++) {
+            int merchant = random.nextInt(20);
+            int account = random.nextInt(1000);
+            int count = expected.merge((long) merchant << Integer.SIZE | account, 1, Integer::sum);
+            assertEquals(count, counters.registerTransaction(merchant, account, 1));
+        }
+    }
+
+    @Test
+    void keepsTheCountsWhenSerialized() throws IOException, ClassNotFoundException {
+        TransactionCounters counters = new TransactionCounters();
+        for (int account = 0; account < INITIAL_CAPACITY; account++) {
+            counters.registerTransaction(1, account, 1);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(counters);
+        }
+        TransactionCounters restored;
+        try (ObjectInputStream in =
+                     new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            restored = (TransactionCounters) in.readObject();
+        }
+
+        for (int account = 0; account < INITIAL_CAPACITY; account++) {
+            assertEquals(2, restored.registerTransaction(1, account, 1));
+        }
+    }
+
+    @Test
+    void rejectsNegativeIds() {
+        TransactionCounters counters = new TransactionCounters();
+        assertThrows(IllegalArgumentException.class,
+                () -> counters.registerTransaction(-1, 0, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> counters.registerTransaction(0, -1, 1));
+    }
+
+    private static int initialSlot(final int merchant, final int account) {
+        long key = (long) merchant << Integer.SIZE | account;
+        return (int) ((key * HASH_MULTIPLIER) >>> Integer.SIZE) & (INITIAL_CAPACITY - 1);
+    }
+}
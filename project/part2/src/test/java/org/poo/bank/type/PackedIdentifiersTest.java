@@ -0,0 +1,101 @@
+package org.poo.bank.type;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Checks that IBANs and card numbers are packed and formatted back without changing them, and
+ * that the values that cannot be packed are kept as text.
+ */
+class PackedIdentifiersTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final int GENERATED_IDS = 1000;
+
+    @Test
+    void asciiCharactersRoundTrip() {
+        char[] chars = new char[Byte.SIZE];
+        for (char c = 0; c < 0x80; c++) {
+            String value = String.valueOf(c).repeat(Byte.SIZE);
+            long packed = PackedChars.packAscii(value, 0, Byte.SIZE);
+            PackedChars.unpackAscii(packed, Byte.SIZE, chars, 0);
+            assertEquals(value, new String(chars));
+        }
+        assertEquals(PackedChars.INVALID, PackedChars.packAscii("RÖ", 0, 2));
+    }
+
+    @Test
+    void digitsRoundTripWithLeadingZeros() {
+        String value = "000000000000000042";
+        long digits = PackedChars.parseDigits(value, 0, value.length());
+        assertEquals(42, digits);
+
+        char[] chars = new char[value.length()];
+        PackedChars.formatDigits(digits, value.length(), chars, 0);
+        assertEquals(value, new String(chars));
+
+        // The characters right before and after the digits
+        assertEquals(PackedChars.INVALID, PackedChars.parseDigits("12/4", 0, 4));
+        assertEquals(PackedChars.INVALID, PackedChars.parseDigits("12:4", 0, 4));
+    }
+
+    @Test
+    void packedIbansRoundTrip() throws JsonProcessingException {
+        for (String value : List.of("RO00POOB0000000000000042", "RO99POOB9999999999999999",
+                "NL91ABNA0417164300000000")) {
+            IBAN iban = IBAN.of(value);
+            assertEquals(IBAN.of(PackedChars.packAscii(value, 0, IBAN.PREFIX_LENGTH),
+                    PackedChars.parseDigits(value, IBAN.PREFIX_LENGTH, IBAN.NUMBER_LENGTH)), iban);
+            assertEquals(value, iban.toString());
+            assertEquals("\"" + value + "\"", MAPPER.writeValueAsString(iban));
+        }
+    }
+
+    @Test
+    void otherIbansAreKeptAsText() {
+        // Wrong length, letters in the number, a non-ASCII prefix and an alias
+        for (String value : List.of("RO00POOB00000000000000420", "RO00POOB00000000000000AB",
+                "RÖ00POOB0000000000000042", "savings", "")) {
+            IBAN iban = IBAN.of(value);
+            assertEquals(value, iban.toString());
+            assertEquals(IBAN.of(value), iban);
+            assertEquals(IBAN.of(value).hashCode(), iban.hashCode());
+        }
+        assertNotEquals(IBAN.of("RO00POOB00000000000000AB"), IBAN.of("RO00POOB0000000000000000"));
+    }
+
+    @Test
+    void generatedIdsRoundTrip() {
+        IdGenerator generator = new IdGenerator();
+        for (int i = 0; i < GENERATED_IDS; i++) {
+            IBAN iban = IBAN.generate(generator);
+            IBAN parsedIban = IBAN.of(iban.toString());
+            assertEquals(iban, parsedIban);
+            assertEquals(iban.hashCode(), parsedIban.hashCode());
+
+            CardNumber card = CardNumber.generate(generator);
+            CardNumber parsedCard = CardNumber.of(card.toString());
+            assertEquals(card, parsedCard);
+            assertEquals(card.hashCode(), parsedCard.hashCode());
+        }
+    }
+
+    @Test
+    void cardNumbersRoundTrip() {
+        CardNumber packed = CardNumber.of("0000000000000007");
+        assertEquals(CardNumber.of(7), packed);
+        assertEquals("0000000000000007", packed.toString());
+
+        for (String value : List.of("000000000000007", "000000000000000A", "card")) {
+            CardNumber text = CardNumber.of(value);
+            assertEquals(value, text.toString());
+            assertEquals(CardNumber.of(value), text);
+        }
+        assertNotEquals(CardNumber.of("000000000000007"), CardNumber.of("0000000000000007"));
+    }
+}
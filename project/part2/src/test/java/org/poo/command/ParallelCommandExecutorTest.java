@@ -0,0 +1,293 @@
+package org.poo.command;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.poo.bank.Bank;
+import org.poo.bank.account.BankAccView;
+import org.poo.bank.account.UserView;
+import org.poo.bank.card.CardView;
+import org.poo.bank.merchant.CashbackType;
+import org.poo.bank.merchant.MerchantType;
+import org.poo.bank.operation.BankOperationFootprint;
+import org.poo.bank.operation.impl.GetAllUsers;
+import org.poo.bank.type.Currency;
+import org.poo.bank.type.Date;
+import org.poo.bank.type.Email;
+import org.poo.bank.type.IBAN;
+import org.poo.fileio.CommandInput;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Executes the same random commands one by one and with a {@link ParallelCommandExecutor}, and
+ * checks that they have the same outputs. The commands name the accounts both by IBAN and by
+ * aliases that are moved from one account to another, use single-use cards that are replaced
+ * after every payment, and create split payments that are accepted or rejected later, so the
+ * footprints of the commands change as they are executed.
+ */
+class ParallelCommandExecutorTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final long SEED = 42;
+    private static final int USERS = 6;
+    private static final int COMMANDS = 3000;
+    private static final int PARALLELISM = 4;
+    private static final int WINDOW = 64;
+    private static final int MAX_AMOUNT = 200;
+    private static final int PERCENT = 100;
+    private static final String[] MERCHANTS = {"Shop", "Cafe", "Gadgets"};
+    private static final String[] MERCHANT_IBANS = {
+            "RO11POOB0000000000000001", "RO22POOB0000000000000002", "RO33POOB0000000000000003"
+    };
+    private static final String[] ALIASES = {"rent", "savings", "travel"};
+
+    private int timestamp = 0;
+
+    @Test
+    void parallelExecutionHasTheSameOutputs() throws JsonProcessingException {
+        Bank sequentialBank = createBank();
+        Bank parallelBank = createBank();
+        List<CommandInput> accounts = accountCommands();
+        execute(sequentialBank, accounts);
+        execute(parallelBank, accounts);
+        List<CommandInput> cards = cardCommands(getUsers(sequentialBank));
+        execute(sequentialBank, cards);
+        execute(parallelBank, cards);
+
+        List<CommandInput> commands = randomCommands(getUsers(sequentialBank));
+        List<String> sequentialOutputs = execute(sequentialBank, commands);
+
+        List<String> parallelOutputs = new ArrayList<>();
+        try (ParallelCommandExecutor executor =
+                     new ParallelCommandExecutor(parallelBank, PARALLELISM, WINDOW)) {
+            executor.execute(commands.stream().map(ParallelCommandExecutorTest::toCommand)
+                    .iterator(), collect(parallelOutputs));
+        }
+
+        assertEquals(sequentialOutputs, parallelOutputs);
+        assertEquals(MAPPER.writeValueAsString(getUsers(sequentialBank)),
+                MAPPER.writeValueAsString(getUsers(parallelBank)));
+    }
+
+    @Test
+    void aliasAndIbanOfAnAccountConflict() {
+        Bank bank = createBank();
+        execute(bank, accountCommands());
+        UserView user = getUsers(bank).getFirst();
+        String iban = user.getAccounts().getFirst().getIban().toString();
+        CommandInput alias = input("setAlias", user.getEmail().toString());
+        alias.setAccount(iban);
+        alias.setAlias(ALIASES[0]);
+        execute(bank, List.of(alias));
+
+        CommandInput deposit = input("addFunds", user.getEmail().toString());
+        deposit.setAccount(iban);
+        deposit.setAmount(1);
+        CommandInput transfer = input("sendMoney", user.getEmail().toString());
+        transfer.setAccount(ALIASES[0]);
+        transfer.setReceiver(MERCHANT_IBANS[0]);
+        transfer.setAmount(1);
+
+        BankOperationFootprint depositFootprint =
+                toCommand(deposit).getFootprint(bank).orElseThrow();
+        BankOperationFootprint transferFootprint =
+                toCommand(transfer).getFootprint(bank).orElseThrow();
+        assertTrue(transferFootprint.conflictsWith(depositFootprint));
+    }
+
+    @Test
+    void paymentWithAMissingCardWaitsForCreatedCards() {
+        Bank bank = createBank();
+        execute(bank, accountCommands());
+        UserView user = getUsers(bank).getFirst();
+        CommandInput card = input("createCard", user.getEmail().toString());
+        card.setAccount(user.getAccounts().getFirst().getIban().toString());
+
+        CommandInput payment = input("payOnline", user.getEmail().toString());
+        payment.setCardNumber("0000000000000000");
+        payment.setCommerciant(MERCHANTS[0]);
+        payment.setCurrency("RON");
+        payment.setAmount(1);
+
+        BankOperationFootprint cardFootprint = toCommand(card).getFootprint(bank).orElseThrow();
+        BankOperationFootprint paymentFootprint =
+                toCommand(payment).getFootprint(bank).orElseThrow();
+        assertTrue(paymentFootprint.writes().isEmpty());
+        assertTrue(paymentFootprint.dependsOn(cardFootprint));
+    }
+
+    private static Bank createBank() {
+        Bank bank = new Bank();
+        bank.registerExchangeRate(Currency.of("EUR"), Currency.of("RON"), 5);
+        for (int i = 0; i < USERS; i++) {
+            bank.createUserAccount("First" + i, "Last" + i, email(i), Date.of("1990-01-01"),
+                    i % 2 == 0 ? "student" : "engineer");
+        }
+        for (int i = 0; i < MERCHANTS.length; i++) {
+            bank.addMerchant(MERCHANTS[i], i, IBAN.of(MERCHANT_IBANS[i]),
+                    MerchantType.values()[i], CashbackType.values()[i % 2]);
+        }
+        return bank;
+    }
+
+    private static List<UserView> getUsers(final Bank bank) {
+        return new GetAllUsers().processBy(bank).getPayload().orElseThrow();
+    }
+
+    private List<CommandInput> accountCommands() {
+        List<CommandInput> commands = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            for (String currency : List.of("RON", "EUR")) {
+                CommandInput account = input("addAccount", email(i).toString());
+                account.setCurrency(currency);
+                account.setAccountType("classic");
+                commands.add(account);
+            }
+        }
+        return commands;
+    }
+
+    /**
+     * Funds every account and gives it a debit card and a single-use card.
+     */
+    private List<CommandInput> cardCommands(final List<UserView> users) {
+        List<CommandInput> commands = new ArrayList<>();
+        for (UserView user : users) {
+            for (BankAccView account : user.getAccounts()) {
+                CommandInput deposit = input("addFunds", user.getEmail().toString());
+                deposit.setAccount(account.getIban().toString());
+                deposit.setAmount(MAX_AMOUNT * 2);
+                commands.add(deposit);
+                for (String type : List.of("createCard", "createOneTimeCard")) {
+                    CommandInput card = input(type, user.getEmail().toString());
+                    card.setAccount(account.getIban().toString());
+                    commands.add(card);
+                }
+            }
+        }
+        return commands;
+    }
+
+    private List<CommandInput> randomCommands(final List<UserView> users) {
+        Random random = new Random(SEED);
+        List<CommandInput> commands = new ArrayList<>();
+        for (int i = 0; i < COMMANDS; i++) {
+            UserView user = users.get(random.nextInt(users.size()));
+            BankAccView account = user.getAccounts().get(random.nextInt(user.getAccounts().size()));
+            List<CardView> cards = account.getCards();
+            String email = user.getEmail().toString();
+            int amount = 1 + random.nextInt(MAX_AMOUNT);
+            int kind = random.nextInt(PERCENT);
+            CommandInput command;
+            if (kind < 25) {
+                command = input("payOnline", email);
+                command.setCardNumber(cards.get(random.nextInt(cards.size())).getCardNumber()
+                        .toString());
+                command.setCommerciant(MERCHANTS[random.nextInt(MERCHANTS.length)]);
+                command.setCurrency(random.nextBoolean() ? "RON" : "EUR");
+                command.setAmount(amount);
+            } else if (kind < 50) {
+                command = input("sendMoney", email);
+                command.setAccount(random.nextBoolean() ? account.getIban().toString()
+                        : ALIASES[random.nextInt(ALIASES.length)]);
+                command.setReceiver(randomReceiver(random, users));
+                command.setAmount(amount);
+            } else if (kind < 62) {
+                command = input("addFunds", email);
+                command.setAccount(account.getIban().toString());
+                command.setAmount(amount);
+            } else if (kind < 70) {
+                command = input("setAlias", email);
+                command.setAccount(account.getIban().toString());
+                command.setAlias(ALIASES[random.nextInt(ALIASES.length)]);
+            } else if (kind < 76) {
+                command = input("splitPayment", email);
+                command.setSplitPaymentType("equal");
+                command.setCurrency("RON");
+                command.setAmount(amount);
+                command.setAccounts(List.of(account.getIban().toString(),
+                        randomAccount(random, users).getIban().toString()));
+            } else if (kind < 84) {
+                command = input(random.nextInt(4) == 0 ? "rejectSplitPayment"
+                        : "acceptSplitPayment", email);
+                command.setSplitPaymentType("equal");
+            } else if (kind < 89) {
+                command = input("cashWithdrawal", email);
+                command.setCardNumber(cards.getFirst().getCardNumber().toString());
+                command.setLocation("Bucharest");
+                command.setAmount(amount);
+            } else if (kind < 92) {
+                command = input("checkCardStatus", email);
+                command.setCardNumber(cards.get(random.nextInt(cards.size())).getCardNumber()
+                        .toString());
+            } else if (kind < 94) {
+                command = input("upgradePlan", email);
+                command.setAccount(account.getIban().toString());
+                command.setNewPlanType(random.nextBoolean() ? "silver" : "gold");
+            } else if (kind < 98) {
+                command = input(random.nextBoolean() ? "report" : "spendingsReport", email);
+                command.setAccount(account.getIban().toString());
+                command.setStartTimestamp(0);
+                command.setEndTimestamp(Integer.MAX_VALUE);
+            } else {
+                command = input(random.nextBoolean() ? "printTransactions" : "printUsers",
+                        email);
+            }
+            commands.add(command);
+        }
+        return commands;
+    }
+
+    private static String randomReceiver(final Random random, final List<UserView> users) {
+        return switch (random.nextInt(3)) {
+            case 0 -> MERCHANT_IBANS[random.nextInt(MERCHANT_IBANS.length)];
+            case 1 -> ALIASES[random.nextInt(ALIASES.length)];
+            default -> randomAccount(random, users).getIban().toString();
+        };
+    }
+
+    private static BankAccView randomAccount(final Random random, final List<UserView> users) {
+        UserView user = users.get(random.nextInt(users.size()));
+        return user.getAccounts().get(random.nextInt(user.getAccounts().size()));
+    }
+
+    private CommandInput input(final String command, final String email) {
+        CommandInput input = new CommandInput();
+        input.setCommand(command);
+        input.setEmail(email);
+        input.setDescription(command);
+        input.setTimestamp(++timestamp);
+        return input;
+    }
+
+    private static Email email(final int user) {
+        return Email.of("user" + user + "@bank.org");
+    }
+
+    private static Command toCommand(final CommandInput input) {
+        return CommandFactory.getCommand(input.getCommand(), input);
+    }
+
+    private static List<String> execute(final Bank bank, final List<CommandInput> commands) {
+        List<String> outputs = new ArrayList<>();
+        Consumer<CommandOutput> sink = collect(outputs);
+        commands.forEach(input -> toCommand(input).execute(bank).ifPresent(sink));
+        return outputs;
+    }
+
+    private static Consumer<CommandOutput> collect(final List<String> outputs) {
+        return output -> {
+            try {
+                outputs.add(MAPPER.writeValueAsString(output));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+}
@@ -11,7 +11,10 @@ import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public final class Checker {
     private static int gitScore;
@@ -91,8 +94,11 @@ public final class Checker {
         }
         List<String> listFile = Arrays.asList(Objects.requireNonNull(directory.list()));
         Collections.sort(listFile);
+        // The outputs are independent, so they are compared concurrently and reported in order
+        Map<String, Boolean> passed = listFile.parallelStream()
+                .collect(Collectors.toConcurrentMap(Function.identity(), Checker::checkOutput));
         for (String file : listFile) {
-            totalScore += calculateScore(file);
+            totalScore += reportScore(file, passed.get(file));
         }
 
         System.out.println("-----------------------------------------------------");
@@ -104,7 +110,15 @@ public final class Checker {
      * @return the score of that test
      */
     public static int calculateScore(final String input) {
-        if (checkOutput(input)) {
+        return reportScore(input, checkOutput(input));
+    }
+
+    /**
+     * This method prints the result of a single test
+     * @return the score of that test
+     */
+    private static int reportScore(final String input, final boolean passed) {
+        if (passed) {
             System.out.print(input + " ");
             for (int i = 1;  i <= CheckerConstants.LEN_LONGEST_TEST_NAME - input.length(); i++) {
                 System.out.print("-");
@@ -1,14 +1,15 @@
 package org.poo.gwentstone.actions;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.node.BaseJsonNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.NameTransformer;
 import lombok.Builder;
 import org.poo.fileio.ActionsInput;
 
+import java.io.IOException;
 import java.util.Arrays;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Builder
@@ -35,20 +36,33 @@ public final class ActionOutput {
     }
 
     /**
-     * Map the action output to a Json node
+     * Write the action output as a JSON object, straight to a generator, without merging the
+     * action input and the output into a Json node first
      *
-     * @return An {@code Optional} containing the JsonNode, or an empty {@code Optional} in case of
-     * output
+     * @param generator the generator to write to
+     * @return {@code true} if the output was written, or {@code false} if there is no output
+     * @throws IOException if the output cannot be written
      */
-    public Optional<JsonNode> toJson() {
+    public boolean writeTo(final JsonGenerator generator) throws IOException {
         if (type == Type.NONE) {
-            return Optional.empty();
+            return false;
         }
 
-        ObjectNode outputNode =
-                actionInput == null ? MAPPER.createObjectNode() : MAPPER.valueToTree(actionInput);
-
-        return Optional.of(outputNode.set(type.toString(), actionOutput));
-
+        SerializerProvider provider = MAPPER.getSerializerProviderInstance();
+        generator.writeStartObject();
+        if (actionInput != null) {
+            // Write the fields of the input inline, as if they were the fields of the output
+            provider.findValueSerializer(ActionsInput.class)
+                    .unwrappingSerializer(NameTransformer.NOP)
+                    .serialize(actionInput, generator, provider);
+        }
+        generator.writeFieldName(type.toString());
+        if (actionOutput == null) {
+            generator.writeNull();
+        } else {
+            actionOutput.serialize(generator, provider);
+        }
+        generator.writeEndObject();
+        return true;
     }
 }
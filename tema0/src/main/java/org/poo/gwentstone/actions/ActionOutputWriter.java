@@ -0,0 +1,63 @@
+package org.poo.gwentstone.actions;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes action outputs to a file, as a Json array. Each output is written as soon as it is
+ * produced, so the outputs are never collected in memory. The pretty-printed format is the same
+ * as the one of {@link ObjectMapper#writerWithDefaultPrettyPrinter()}.
+ */
+public final class ActionOutputWriter implements AutoCloseable {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final JsonGenerator generator;
+
+    /**
+     * Open the output file and start the array
+     *
+     * @param file        the output file, replaced if it exists
+     * @param prettyPrint whether to indent the output
+     * @throws IOException if the file cannot be opened
+     */
+    public ActionOutputWriter(final File file, final boolean prettyPrint) throws IOException {
+        this.generator = MAPPER.createGenerator(file, JsonEncoding.UTF8);
+        if (prettyPrint) {
+            generator.useDefaultPrettyPrinter();
+        }
+        generator.writeStartArray();
+    }
+
+    /**
+     * Write an action output. Actions without an output are skipped.
+     *
+     * @param output the action output
+     * @throws UncheckedIOException if the output cannot be written
+     */
+    public void write(final ActionOutput output) {
+        try {
+            output.writeTo(generator);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write an action output", e);
+        }
+    }
+
+    /**
+     * End the array and close the output file
+     *
+     * @throws IOException if the file cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            generator.writeEndArray();
+        } finally {
+            generator.close();
+        }
+    }
+}
@@ -2,8 +2,6 @@ package org.poo.main;
 
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ObjectWriter;
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import org.poo.checker.Checker;
 import org.poo.checker.CheckerConstants;
 import org.poo.fileio.ActionsInput;
@@ -13,6 +11,7 @@ import org.poo.gwentstone.GameManager;
 import org.poo.gwentstone.Player;
 import org.poo.gwentstone.actions.Action;
 import org.poo.gwentstone.actions.ActionFactory;
+import org.poo.gwentstone.actions.ActionOutputWriter;
 import org.poo.gwentstone.utils.InputParser;
 
 import java.io.File;
@@ -76,8 +75,6 @@ public final class Main {
         Input inputData = objectMapper.readValue(new File(CheckerConstants.TESTS_PATH + filePath1),
                 Input.class);
 
-        ArrayNode output = objectMapper.createArrayNode();
-
         Player playerOne = new Player(
                 InputParser.parseDeckList(inputData.getPlayerOneDecks())
         );
@@ -85,19 +82,18 @@ public final class Main {
                 InputParser.parseDeckList(inputData.getPlayerTwoDecks())
         );
 
-        for (GameInput gameInput : inputData.getGames()) {
-            GameManager gameManager = GameManager.startNewGame(
-                    List.of(playerOne, playerTwo), gameInput.getStartGame());
-            for (ActionsInput actionsInput : gameInput.getActions()) {
-                Action action = ActionFactory.getAction(actionsInput);
-                if (action == null) {
-                    continue;
+        try (ActionOutputWriter output = new ActionOutputWriter(new File(filePath2), true)) {
+            for (GameInput gameInput : inputData.getGames()) {
+                GameManager gameManager = GameManager.startNewGame(
+                        List.of(playerOne, playerTwo), gameInput.getStartGame());
+                for (ActionsInput actionsInput : gameInput.getActions()) {
+                    Action action = ActionFactory.getAction(actionsInput);
+                    if (action == null) {
+                        continue;
+                    }
+                    output.write(action.execute(gameManager));
                 }
-                action.execute(gameManager).toJson().ifPresent(output::add);
             }
         }
-
-        ObjectWriter objectWriter = objectMapper.writerWithDefaultPrettyPrinter();
-        objectWriter.writeValue(new File(filePath2), output);
     }
 }